@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GzipCompressionProvider} compress/decompress of moderately compressible data
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark
+{
+    @Param({"128", "4096", "65536", "1048576"})
+    public int size;
+
+    private final GzipCompressionProvider provider = new GzipCompressionProvider();
+    private byte[] data;
+    private byte[] compressed;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        // random words from a small dictionary compress roughly like typical config/json payloads
+        String[] words = {"curator", "zookeeper", "node", "path", "data", "version", "{", "}", ":", ",", "\"", "true", "false", "0", "1"};
+        Random random = new Random(size);
+        StringBuilder str = new StringBuilder(size);
+        while ( str.length() < size )
+        {
+            str.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        data = str.substring(0, size).getBytes();
+        compressed = provider.compress("/", data);
+    }
+
+    @Benchmark
+    public byte[] compress() throws Exception
+    {
+        return provider.compress("/", data);
+    }
+
+    @Benchmark
+    public byte[] decompress() throws Exception
+    {
+        return provider.decompress("/", compressed);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Foreground vs background create/delete, setData and getData throughput. The background
+ * variants keep {@link #BATCH_SIZE} operations in flight.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrudBenchmark
+{
+    private static final int BATCH_SIZE = 100;
+    private static final byte[] DATA = new byte[128];
+
+    @State(Scope.Thread)
+    public static class Paths
+    {
+        private static final AtomicInteger threadIds = new AtomicInteger();
+
+        private String basePath;
+        private String dataPath;
+        private int index = 0;
+
+        @Setup(Level.Trial)
+        public void setup(CuratorState state) throws Exception
+        {
+            basePath = "/crud/" + threadIds.incrementAndGet();
+            dataPath = basePath + "/data";
+            state.getClient().create().creatingParentsIfNeeded().forPath(dataPath, DATA);
+        }
+
+        String nextPath()
+        {
+            return basePath + "/node-" + index++;
+        }
+    }
+
+    @Benchmark
+    public void foregroundCreateDelete(CuratorState state, Paths paths) throws Exception
+    {
+        String path = paths.nextPath();
+        state.getClient().create().forPath(path, DATA);
+        state.getClient().delete().forPath(path);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void backgroundCreateDelete(CuratorState state, Paths paths) throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        BackgroundCallback deleteCallback = (__, ___) -> latch.countDown();
+        BackgroundCallback createCallback = (client, event) -> client.delete().inBackground(deleteCallback).forPath(event.getPath());
+        for ( int i = 0; i < BATCH_SIZE; ++i )
+        {
+            state.getClient().create().inBackground(createCallback).forPath(paths.nextPath(), DATA);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    public void foregroundSetData(CuratorState state, Paths paths) throws Exception
+    {
+        state.getClient().setData().forPath(paths.dataPath, DATA);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void backgroundSetData(CuratorState state, Paths paths) throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        BackgroundCallback callback = (__, ___) -> latch.countDown();
+        CuratorFramework client = state.getClient();
+        for ( int i = 0; i < BATCH_SIZE; ++i )
+        {
+            client.setData().inBackground(callback).forPath(paths.dataPath, DATA);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    public byte[] foregroundGetData(CuratorState state, Paths paths) throws Exception
+    {
+        return state.getClient().getData().forPath(paths.dataPath);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void backgroundGetData(CuratorState state, Paths paths) throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        BackgroundCallback callback = (__, ___) -> latch.countDown();
+        CuratorFramework client = state.getClient();
+        for ( int i = 0; i < BATCH_SIZE; ++i )
+        {
+            client.getData().inBackground(callback).forPath(paths.dataPath);
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CuratorCache} initial load time for trees of various sizes and the time it takes for a
+ * change to be delivered to a varying number of listeners
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CuratorCacheBenchmark
+{
+    private static final byte[] DATA = new byte[128];
+
+    @State(Scope.Benchmark)
+    public static class Tree
+    {
+        @Param({"100", "1000", "10000"})
+        public int nodeQty;
+
+        private String rootPath;
+
+        @Setup(Level.Trial)
+        public void setup(CuratorState state) throws Exception
+        {
+            // 2 levels - parents with up to 100 children each
+            rootPath = "/cache-load-" + nodeQty;
+            CuratorFramework client = state.getClient();
+            for ( int i = 0; i < nodeQty; ++i )
+            {
+                String parent = ZKPaths.makePath(rootPath, "parent-" + (i / 100));
+                client.create().orSetData().creatingParentsIfNeeded().forPath(ZKPaths.makePath(parent, "node-" + i), DATA);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FanOut
+    {
+        @Param({"1", "10", "100"})
+        public int listenerQty;
+
+        private final String nodePath = "/cache-fan-out/node";
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+        private CuratorCache cache;
+
+        @Setup(Level.Trial)
+        public void setup(CuratorState state) throws Exception
+        {
+            state.getClient().create().orSetData().creatingParentsIfNeeded().forPath(nodePath, DATA);
+
+            cache = CuratorCache.build(state.getClient(), "/cache-fan-out");
+            CountDownLatch initializedLatch = new CountDownLatch(1);
+            cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(initializedLatch::countDown).build());
+            for ( int i = 0; i < listenerQty; ++i )
+            {
+                cache.listenable().addListener(CuratorCacheListener.builder().forChanges((__, ___) -> latch.countDown()).build());
+            }
+            cache.start();
+            initializedLatch.await();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            CloseableUtils.closeQuietly(cache);
+        }
+    }
+
+    @Benchmark
+    public void initialLoad(CuratorState state, Tree tree) throws Exception
+    {
+        CountDownLatch initializedLatch = new CountDownLatch(1);
+        try ( CuratorCache cache = CuratorCache.build(state.getClient(), tree.rootPath) )
+        {
+            cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(initializedLatch::countDown).build());
+            cache.start();
+            initializedLatch.await();
+        }
+    }
+
+    @Benchmark
+    public void eventFanOut(CuratorState state, FanOut fanOut) throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(fanOut.listenerQty);
+        fanOut.latch = latch;
+        state.getClient().setData().forPath(fanOut.nodePath, DATA);
+        latch.await();
+    }
+}
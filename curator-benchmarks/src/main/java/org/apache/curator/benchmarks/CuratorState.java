@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingCluster;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.utils.CloseableUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared benchmark state - an in-process ZooKeeper ensemble and a started client connected to it.
+ * A {@code serverQty} of 1 uses a {@link TestingServer}, otherwise a {@link TestingCluster} is used.
+ */
+@State(Scope.Benchmark)
+public class CuratorState
+{
+    @Param({"1"})
+    public int serverQty;
+
+    private Closeable ensemble;
+    private CuratorFramework client;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        String connectString;
+        if ( serverQty == 1 )
+        {
+            TestingServer server = new TestingServer();
+            ensemble = server;
+            connectString = server.getConnectString();
+        }
+        else
+        {
+            TestingCluster cluster = new TestingCluster(serverQty);
+            cluster.start();
+            ensemble = cluster;
+            connectString = cluster.getConnectString();
+        }
+
+        client = CuratorFrameworkFactory.newClient(connectString, new RetryOneTime(1));
+        client.start();
+        if ( !client.blockUntilConnected(30, TimeUnit.SECONDS) )
+        {
+            throw new IllegalStateException("Could not connect to " + connectString);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        CloseableUtils.closeQuietly(client);
+        CloseableUtils.closeQuietly(ensemble);
+    }
+
+    public CuratorFramework getClient()
+    {
+        return client;
+    }
+
+    public String getConnectString()
+    {
+        return (ensemble instanceof TestingServer) ? ((TestingServer)ensemble).getConnectString() : ((TestingCluster)ensemble).getConnectString();
+    }
+}
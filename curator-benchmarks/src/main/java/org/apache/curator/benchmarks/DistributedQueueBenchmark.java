@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.queue.DistributedQueue;
+import org.apache.curator.framework.recipes.queue.QueueBuilder;
+import org.apache.curator.framework.recipes.queue.QueueConsumer;
+import org.apache.curator.framework.recipes.queue.QueueSerializer;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.utils.CloseableUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DistributedQueue} throughput - each invocation puts {@link #BATCH_SIZE} items and waits
+ * until the queue's consumer has taken all of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DistributedQueueBenchmark
+{
+    private static final int BATCH_SIZE = 100;
+    private static final byte[] ITEM = new byte[64];
+
+    @State(Scope.Benchmark)
+    public static class Queue
+    {
+        private final Semaphore consumed = new Semaphore(0);
+        private DistributedQueue<byte[]> queue;
+
+        @Setup(Level.Trial)
+        public void setup(CuratorState state) throws Exception
+        {
+            QueueConsumer<byte[]> consumer = new QueueConsumer<byte[]>()
+            {
+                @Override
+                public void consumeMessage(byte[] message)
+                {
+                    consumed.release();
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState)
+                {
+                    // NOP
+                }
+            };
+            QueueSerializer<byte[]> serializer = new QueueSerializer<byte[]>()
+            {
+                @Override
+                public byte[] serialize(byte[] item)
+                {
+                    return item;
+                }
+
+                @Override
+                public byte[] deserialize(byte[] bytes)
+                {
+                    return bytes;
+                }
+            };
+            queue = QueueBuilder.builder(state.getClient(), consumer, serializer, "/queue").buildQueue();
+            queue.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            CloseableUtils.closeQuietly(queue);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void putTake(Queue queue) throws Exception
+    {
+        for ( int i = 0; i < BATCH_SIZE; ++i )
+        {
+            queue.queue.put(ITEM);
+        }
+        queue.consumed.acquire(BATCH_SIZE);
+    }
+}
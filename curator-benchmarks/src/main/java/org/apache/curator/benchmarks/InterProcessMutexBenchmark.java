@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.utils.CloseableUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InterProcessMutex} acquire/release latency. Each benchmark thread uses its own client (i.e.
+ * ZooKeeper session) so that the threads contend for the lock like separate processes would. Use
+ * JMH's {@code -t} option to change the level of contention.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class InterProcessMutexBenchmark
+{
+    private static final String LOCK_PATH = "/locks/benchmark";
+
+    @State(Scope.Thread)
+    public static class Contender
+    {
+        private CuratorFramework client;
+        private InterProcessMutex mutex;
+
+        @Setup(Level.Trial)
+        public void setup(CuratorState state) throws Exception
+        {
+            client = CuratorFrameworkFactory.newClient(state.getConnectString(), new RetryOneTime(1));
+            client.start();
+            client.blockUntilConnected();
+            mutex = new InterProcessMutex(client, LOCK_PATH);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Benchmark
+    public void acquireRelease(Contender contender) throws Exception
+    {
+        contender.mutex.acquire();
+        contender.mutex.release();
+    }
+}
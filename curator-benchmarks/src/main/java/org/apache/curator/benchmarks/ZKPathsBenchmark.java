@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.benchmarks;
+
+import org.apache.curator.utils.ZKPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZKPaths} helpers that are on the hot path of most operations
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZKPathsBenchmark
+{
+    public String namespace = "my-namespace";
+    public String parent = "/one/two/three";
+    public String child = "four";
+    public String path = "/one/two/three/four/five-0000000042";
+
+    @Benchmark
+    public String makePath()
+    {
+        return ZKPaths.makePath(parent, child);
+    }
+
+    @Benchmark
+    public String makePathMultiple()
+    {
+        return ZKPaths.makePath(parent, child, "five", "six");
+    }
+
+    @Benchmark
+    public ZKPaths.PathAndNode getPathAndNode()
+    {
+        return ZKPaths.getPathAndNode(path);
+    }
+
+    @Benchmark
+    public String getNodeFromPath()
+    {
+        return ZKPaths.getNodeFromPath(path);
+    }
+
+    @Benchmark
+    public List<String> split()
+    {
+        return ZKPaths.split(path);
+    }
+
+    @Benchmark
+    public String fixForNamespace()
+    {
+        return ZKPaths.fixForNamespace(namespace, path);
+    }
+
+    @Benchmark
+    public String extractSequentialSuffix()
+    {
+        return ZKPaths.extractSequentialSuffix(path);
+    }
+}
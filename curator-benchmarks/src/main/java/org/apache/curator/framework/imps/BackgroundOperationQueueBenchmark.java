@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link BackgroundOperationQueue} implementations when many operations are pending
+ * (e.g. while the connection is lost). Each invocation queues {@code qty} sleeping operations, wakes
+ * them all via a bulk {@link BackgroundOperationQueue#resort(java.util.Collection)} as
+ * {@link CuratorFrameworkImpl} does on reconnect, and drains the queue.
+ *
+ * Note: this class is in the framework's package as the queues are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BackgroundOperationQueueBenchmark
+{
+    @Param({"DELAY_QUEUE", "TIMING_WHEEL"})
+    public String queueType;
+
+    @Param({"1000", "10000", "100000"})
+    public int qty;
+
+    private BackgroundOperationQueue queue;
+    private List<OperationAndData<?>> operations;
+
+    @Setup(Level.Invocation)
+    public void setup() throws Exception
+    {
+        queue = queueType.equals("TIMING_WHEEL") ? new TimingWheelBackgroundOperationQueue() : new DelayedBackgroundOperationQueue();
+        operations = new ArrayList<>(qty);
+        for ( int i = 0; i < qty; ++i )
+        {
+            OperationAndData<String> operation = new OperationAndData<>(null, "/test/" + i, null, null, null, false);
+            operation.sleepFor(1, TimeUnit.HOURS);
+            operations.add(operation);
+        }
+    }
+
+    @Benchmark
+    public int offerResortDrain() throws Exception
+    {
+        for ( OperationAndData<?> operation : operations )
+        {
+            queue.offer(operation);
+        }
+        for ( OperationAndData<?> operation : operations )
+        {
+            operation.clearSleep();
+        }
+        queue.resort(operations);
+
+        int taken = 0;
+        for ( int i = 0; i < qty; ++i )
+        {
+            if ( queue.take() != null )
+            {
+                ++taken;
+            }
+        }
+        return taken;
+    }
+}
@@ -67,6 +67,7 @@ public class CuratorFrameworkFactory
     private static final long DEFAULT_INACTIVE_THRESHOLD_MS = (int)TimeUnit.MINUTES.toMillis(3);
     private static final int DEFAULT_CLOSE_WAIT_MS = (int)TimeUnit.SECONDS.toMillis(1);
     private static final boolean DEFAULT_WITH_ENSEMBLE_TRACKER = true;
+    private static final int DEFAULT_BACKGROUND_OPERATION_THREADS = 1;
 
     /**
      * Return a new builder that builds a CuratorFramework
@@ -150,6 +151,10 @@ public class CuratorFrameworkFactory
         private Executor runSafeService = null;
         private ConnectionStateListenerManagerFactory connectionStateListenerManagerFactory = ConnectionStateListenerManagerFactory.standard;
         private int simulatedSessionExpirationPercent = 100;
+        private int backgroundOperationThreads = DEFAULT_BACKGROUND_OPERATION_THREADS;
+        private boolean useTimingWheelScheduler = false;
+        private int coalesceMaxBatchSize = 0;
+        private int coalesceMaxDelayMs = 0;
 
         /**
          * Apply the current values and build a new CuratorFramework
@@ -511,6 +516,72 @@ public class CuratorFrameworkFactory
             return this;
         }
 
+        /**
+         * Background operations that must be retried or that are waiting for a connection are
+         * queued and then executed by a background thread. By default a single thread handles
+         * all such operations. Use this method to spread them over multiple threads. Operations
+         * are assigned to threads by path so that operations for the same path are still
+         * executed in order.
+         *
+         * @param backgroundOperationThreads number of threads to use for background operations. Must be greater than 0.
+         * @return this
+         * @since 5.2.0
+         */
+        public Builder backgroundOperationThreads(int backgroundOperationThreads)
+        {
+            Preconditions.checkArgument(backgroundOperationThreads > 0, "backgroundOperationThreads must be greater than 0");
+            this.backgroundOperationThreads = backgroundOperationThreads;
+            return this;
+        }
+
+        /**
+         * By default, retries and other delayed background operations are scheduled using a
+         * {@link java.util.concurrent.DelayQueue}. Pass <code>true</code> to instead use a hashed
+         * timing wheel which has O(1) insertion and re-scheduling. This can significantly reduce
+         * contention when there are very large numbers of pending operations (e.g. a retry storm
+         * after a connection loss). Delays are rounded up to the wheel's 10 millisecond tick.
+         *
+         * @param useTimingWheelScheduler true to use a timing wheel
+         * @return this
+         * @since 5.2.0
+         */
+        public Builder useTimingWheelScheduler(boolean useTimingWheelScheduler)
+        {
+            this.useTimingWheelScheduler = useTimingWheelScheduler;
+            return this;
+        }
+
+        /**
+         * <p>
+         *     Opt-in to coalescing of background writes. When enabled, background
+         *     {@link CuratorFramework#create()}, {@link CuratorFramework#setData()} and {@link CuratorFramework#delete()}
+         *     operations are collected and submitted to ZooKeeper as a single multi() once <code>maxBatchSize</code>
+         *     operations have been collected or <code>maxDelayMs</code> has elapsed since the first operation
+         *     of the batch. Each operation's result is delivered to its own callback as usual. If the multi()
+         *     fails, the operations are re-executed individually so that each caller gets its own result.
+         * </p>
+         *
+         * <p>
+         *     A pending batch is always submitted before any other background operation so the ordering of
+         *     background operations is preserved. Foreground operations, however, can overtake writes that are
+         *     waiting in a batch. Protected-mode, TTL and "storingStatIn" creates are never coalesced. Note that
+         *     the batch must fit within ZooKeeper's maximum request size (jute.maxbuffer).
+         * </p>
+         *
+         * @param maxBatchSize maximum number of operations per multi(). Must be greater than 1.
+         * @param maxDelayMs maximum time an operation waits for other operations to be batched with
+         * @return this
+         * @since 5.2.0
+         */
+        public Builder coalesceBackgroundWrites(int maxBatchSize, int maxDelayMs)
+        {
+            Preconditions.checkArgument(maxBatchSize > 1, "maxBatchSize must be greater than 1");
+            Preconditions.checkArgument(maxDelayMs >= 0, "maxDelayMs cannot be negative");
+            this.coalesceMaxBatchSize = maxBatchSize;
+            this.coalesceMaxDelayMs = maxDelayMs;
+            return this;
+        }
+
         public Executor getRunSafeService()
         {
             return runSafeService;
@@ -590,6 +661,26 @@ public class CuratorFrameworkFactory
             return schemaSet;
         }
 
+        public int getBackgroundOperationThreads()
+        {
+            return backgroundOperationThreads;
+        }
+
+        public boolean useTimingWheelScheduler()
+        {
+            return useTimingWheelScheduler;
+        }
+
+        public int getCoalesceMaxBatchSize()
+        {
+            return coalesceMaxBatchSize;
+        }
+
+        public int getCoalesceMaxDelayMs()
+        {
+            return coalesceMaxDelayMs;
+        }
+
         @Deprecated
         public String getAuthScheme()
         {
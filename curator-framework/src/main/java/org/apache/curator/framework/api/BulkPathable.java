@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.api;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Terminal operation that applies the currently building operation to many paths at once.
+ * Supported by <code>getData()</code>, <code>getChildren()</code> and <code>checkExists()</code>.
+ *
+ * @since 5.2.0
+ */
+public interface BulkPathable<T>
+{
+    /**
+     * Default maximum number of outstanding requests for {@link #forPaths(Collection)}
+     */
+    int DEFAULT_MAX_IN_FLIGHT = 100;
+
+    /**
+     * Commit the currently building operation for each of the given paths. Requests are pipelined
+     * to ZooKeeper with at most {@link #DEFAULT_MAX_IN_FLIGHT} outstanding at any one time. This method
+     * blocks until every path has been processed. A failure for a given path does not affect the other paths.
+     *
+     * @param paths the paths
+     * @return map of path to its result, in the iteration order of <code>paths</code>
+     * @throws Exception errors
+     */
+    Map<String, BulkResult<T>> forPaths(Collection<String> paths) throws Exception;
+
+    /**
+     * Commit the currently building operation for each of the given paths. Requests are pipelined
+     * to ZooKeeper with at most <code>maxInFlight</code> outstanding at any one time. This method
+     * blocks until every path has been processed. A failure for a given path does not affect the other paths.
+     *
+     * @param paths the paths
+     * @param maxInFlight maximum number of outstanding requests
+     * @return map of path to its result, in the iteration order of <code>paths</code>
+     * @throws Exception errors
+     */
+    Map<String, BulkResult<T>> forPaths(Collection<String> paths, int maxInFlight) throws Exception;
+}
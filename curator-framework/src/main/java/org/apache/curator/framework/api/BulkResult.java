@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.api;
+
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * Holds the result of reading one path of a bulk read (see {@link BulkPathable})
+ */
+public class BulkResult<T>
+{
+    private final String path;
+    private final int resultCode;
+    private final T value;
+    private final Stat stat;
+    private final Exception exception;
+
+    public BulkResult(String path, int resultCode, T value, Stat stat)
+    {
+        this(path, resultCode, value, stat, null);
+    }
+
+    public BulkResult(String path, Exception exception)
+    {
+        this(path, (exception instanceof KeeperException) ? ((KeeperException)exception).code().intValue() : KeeperException.Code.SYSTEMERROR.intValue(), null, null, exception);
+    }
+
+    private BulkResult(String path, int resultCode, T value, Stat stat, Exception exception)
+    {
+        this.path = path;
+        this.resultCode = resultCode;
+        this.value = value;
+        this.stat = stat;
+        this.exception = exception;
+    }
+
+    /**
+     * Returns the path that was read
+     *
+     * @return path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Returns the ZooKeeper result code of the read. See {@link KeeperException.Code}
+     *
+     * @return result code
+     */
+    public int getResultCode()
+    {
+        return resultCode;
+    }
+
+    /**
+     * @return true if the read succeeded
+     */
+    public boolean isSuccess()
+    {
+        return resultCode == KeeperException.Code.OK.intValue();
+    }
+
+    /**
+     * Returns the value read or <code>null</code> if the read failed
+     *
+     * @return value or null
+     */
+    public T getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Returns the node's stat or <code>null</code> if the read failed
+     *
+     * @return stat or null
+     */
+    public Stat getStat()
+    {
+        return stat;
+    }
+
+    /**
+     * Returns the exception that corresponds to a failed read or <code>null</code> if the read succeeded
+     *
+     * @return exception or null
+     */
+    public Exception getException()
+    {
+        if ( exception != null )
+        {
+            return exception;
+        }
+        return isSuccess() ? null : KeeperException.create(KeeperException.Code.get(resultCode), path);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BulkResult{" + "path='" + path + '\'' + ", resultCode=" + resultCode + ", stat=" + stat + '}';
+    }
+}
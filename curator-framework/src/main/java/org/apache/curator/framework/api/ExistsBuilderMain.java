@@ -22,6 +22,7 @@ import org.apache.zookeeper.data.Stat;
 
 public interface ExistsBuilderMain extends
     Watchable<BackgroundPathable<Stat>>,
-    BackgroundPathable<Stat>
+    BackgroundPathable<Stat>,
+    BulkPathable<Stat>
 {
 }
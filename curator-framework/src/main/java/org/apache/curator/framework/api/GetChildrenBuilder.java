@@ -23,6 +23,7 @@ import java.util.List;
 public interface GetChildrenBuilder extends
     Watchable<BackgroundPathable<List<String>>>,
     BackgroundPathable<List<String>>,
-    Statable<WatchPathable<List<String>>>
+    Statable<WatchPathable<List<String>>>,
+    BulkPathable<List<String>>
 {
 }
@@ -21,6 +21,7 @@ package org.apache.curator.framework.api;
 public interface GetDataWatchBackgroundStatable extends
     Watchable<BackgroundPathable<byte[]>>,
     BackgroundPathable<byte[]>,
-    Statable<WatchPathable<byte[]>>
+    Statable<WatchPathable<byte[]>>,
+    BulkPathable<byte[]>
 {
 }
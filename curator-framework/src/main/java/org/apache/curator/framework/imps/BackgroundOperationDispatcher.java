@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Holds the queues of pending/retrying background operations. Operations are sharded
+ * by path so that operations for the same path are always handled by the same
+ * worker loop (preserving their relative ordering) while unrelated operations can
+ * be handled in parallel.
+ */
+class BackgroundOperationDispatcher
+{
+    private final List<BackgroundOperationQueue> queues;
+
+    BackgroundOperationDispatcher(int threadQty, boolean useTimingWheel)
+    {
+        Preconditions.checkArgument(threadQty > 0, "threadQty must be greater than 0");
+
+        ImmutableList.Builder<BackgroundOperationQueue> builder = ImmutableList.builder();
+        for ( int i = 0; i < threadQty; ++i )
+        {
+            builder.add(useTimingWheel ? new TimingWheelBackgroundOperationQueue() : new DelayedBackgroundOperationQueue());
+        }
+        queues = builder.build();
+    }
+
+    /**
+     * @return number of worker loops/queues
+     */
+    int getThreadQty()
+    {
+        return queues.size();
+    }
+
+    /**
+     * @param index worker index
+     * @return the queue drained by the given worker
+     */
+    BackgroundOperationQueue getQueue(int index)
+    {
+        return queues.get(index);
+    }
+
+    /**
+     * Add the operation to the queue for its shard
+     *
+     * @param operationAndData operation
+     */
+    void offer(OperationAndData<?> operationAndData)
+    {
+        queueFor(operationAndData).offer(operationAndData);
+    }
+
+    /**
+     * Must be called after the delay of the given operations has changed so that they are re-scheduled
+     *
+     * @param operations operations
+     */
+    void resort(Collection<OperationAndData<?>> operations)
+    {
+        if ( queues.size() == 1 )
+        {
+            queues.get(0).resort(operations);
+            return;
+        }
+
+        ListMultimap<BackgroundOperationQueue, OperationAndData<?>> byQueue = ArrayListMultimap.create();
+        for ( OperationAndData<?> operationAndData : operations )
+        {
+            byQueue.put(queueFor(operationAndData), operationAndData);
+        }
+        for ( BackgroundOperationQueue queue : byQueue.keySet() )
+        {
+            queue.resort(byQueue.get(queue));
+        }
+    }
+
+    @VisibleForTesting
+    BackgroundOperationQueue queueFor(OperationAndData<?> operationAndData)
+    {
+        if ( queues.size() == 1 )
+        {
+            return queues.get(0);
+        }
+        int hash = shardKey(operationAndData).hashCode();
+        hash ^= (hash >>> 16);
+        return queues.get((hash & Integer.MAX_VALUE) % queues.size());
+    }
+
+    private static Object shardKey(OperationAndData<?> operationAndData)
+    {
+        Object data = operationAndData.getData();
+        if ( data instanceof String )
+        {
+            return data;
+        }
+        if ( data instanceof PathAndBytes )
+        {
+            return ((PathAndBytes)data).getPath();
+        }
+        return operationAndData;    // no path - the instance itself keeps retries of the operation on the same shard
+    }
+}
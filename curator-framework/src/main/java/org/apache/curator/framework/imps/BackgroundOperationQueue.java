@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import java.util.Collection;
+
+/**
+ * A queue of background operations ordered by their remaining delay (see {@link OperationAndData#getDelay(java.util.concurrent.TimeUnit)}).
+ * Each queue is drained by a single background loop.
+ */
+interface BackgroundOperationQueue
+{
+    /**
+     * Add an operation. It becomes available to {@link #take()} once its delay has expired.
+     *
+     * @param operationAndData operation
+     */
+    void offer(OperationAndData<?> operationAndData);
+
+    /**
+     * Wait for and return the next operation whose delay has expired
+     *
+     * @return operation
+     * @throws InterruptedException if interrupted while waiting
+     */
+    OperationAndData<?> take() throws InterruptedException;
+
+    /**
+     * Must be called after the delay of the given (already queued) operations has been changed. Operations
+     * that are not currently queued are ignored.
+     *
+     * @param operations operations whose delay has changed
+     */
+    void resort(Collection<OperationAndData<?>> operations);
+
+    /**
+     * @return number of operations in the queue
+     */
+    int size();
+}
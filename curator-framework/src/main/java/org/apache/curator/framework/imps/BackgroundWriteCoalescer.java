@@ -0,0 +1,290 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.curator.drivers.OperationTrace;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     Collects background create/setData/delete operations and submits them to ZooKeeper as a single
+ *     multi() once either the maximum batch size is reached or the maximum delay has elapsed. When the
+ *     multi() succeeds, each operation's result is delivered to the operation's own callback/listeners as
+ *     if the operation had executed on its own. As a multi() is atomic, if it fails the operations are
+ *     re-executed individually so that each caller receives its own (correct) result.
+ * </p>
+ *
+ * <p>
+ *     Any pending batch is submitted before a non-coalescable background operation is executed so that
+ *     ordering of background operations is preserved.
+ * </p>
+ */
+class BackgroundWriteCoalescer
+{
+    private final CuratorFrameworkImpl client;
+    private final int maxBatchSize;
+    private final int maxDelayMs;
+    private final ThreadFactory threadFactory;
+    private final List<Entry> pending = new ArrayList<>();     // guarded by sync
+    private final Object submitLock = new Object();
+    private volatile boolean hasPending = false;    // lets flush() skip both locks when there's nothing to submit
+    private volatile ScheduledExecutorService executorService;
+    private ScheduledFuture<?> scheduledFlush;  // guarded by sync
+
+    @VisibleForTesting
+    final AtomicLong debugMultiCount = new AtomicLong();
+
+    private static class Entry
+    {
+        private final OperationAndData<Object> operationAndData;
+        private final Op op;
+
+        private Entry(OperationAndData<Object> operationAndData, Op op)
+        {
+            this.operationAndData = operationAndData;
+            this.op = op;
+        }
+    }
+
+    private final BackgroundOperation<List<Entry>> multiOperation = new BackgroundOperation<List<Entry>>()
+    {
+        @Override
+        public void performBackgroundOperation(final OperationAndData<List<Entry>> operationAndData) throws Exception
+        {
+            final List<Entry> batch = operationAndData.getData();
+            List<Op> ops = new ArrayList<>(batch.size());
+            for ( Entry entry : batch )
+            {
+                ops.add(entry.op);
+            }
+
+            final OperationTrace trace = client.getZookeeperClient().startAdvancedTracer("BackgroundWriteCoalescer-Multi");
+            AsyncCallback.MultiCallback callback = new AsyncCallback.MultiCallback()
+            {
+                @Override
+                public void processResult(int rc, String path, Object ctx, List<OpResult> opResults)
+                {
+                    trace.setReturnCode(rc).commit();
+                    if ( rc == KeeperException.Code.OK.intValue() )
+                    {
+                        for ( int i = 0; i < batch.size(); ++i )
+                        {
+                            Entry entry = batch.get(i);
+                            getOperation(entry).coalescedOpSucceeded(entry.operationAndData, opResults.get(i));
+                        }
+                    }
+                    else
+                    {
+                        // gives the retry policy a chance to retry the whole batch (e.g. for connection loss)
+                        CuratorEvent event = new CuratorEventImpl(client, CuratorEventType.TRANSACTION, rc, path, null, ctx, null, null, null, null, null, null);
+                        client.processBackgroundOperation(operationAndData, event);
+                    }
+                }
+            };
+
+            try
+            {
+                debugMultiCount.incrementAndGet();
+                client.getZooKeeper().multi(ops, callback, null);
+            }
+            catch ( Throwable e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                int rc = (e instanceof KeeperException) ? ((KeeperException)e).code().intValue() : KeeperException.Code.SYSTEMERROR.intValue();
+                trace.setReturnCode(rc).commit();
+                performIndividually(batch, rc);
+            }
+        }
+    };
+
+    BackgroundWriteCoalescer(CuratorFrameworkImpl client, int maxBatchSize, int maxDelayMs, ThreadFactory threadFactory)
+    {
+        Preconditions.checkArgument(maxBatchSize > 1, "maxBatchSize must be greater than 1");
+        Preconditions.checkArgument(maxDelayMs >= 0, "maxDelayMs cannot be negative");
+
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.threadFactory = threadFactory;
+    }
+
+    void start()
+    {
+        executorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    void close()
+    {
+        flush();
+        if ( executorService != null )
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Add the operation to the current batch if it can be coalesced
+     *
+     * @param operationAndData the operation
+     * @return true if the operation was added to the batch, false if the caller must execute it
+     */
+    boolean offer(OperationAndData<?> operationAndData)
+    {
+        Op op = null;
+        if ( operationAndData.getOperation() instanceof CoalescableOperation )
+        {
+            op = getOperation(operationAndData).asCoalescedOp(operationAndData.getData());
+        }
+
+        if ( (op == null) || (client.getState() != CuratorFrameworkState.STARTED) )
+        {
+            flush();
+            return false;
+        }
+
+        boolean batchIsFull = false;
+        synchronized(this)
+        {
+            @SuppressWarnings("unchecked")
+            OperationAndData<Object> objectOperationAndData = (OperationAndData<Object>)operationAndData;
+            pending.add(new Entry(objectOperationAndData, op));
+            hasPending = true;
+            if ( pending.size() >= maxBatchSize )
+            {
+                batchIsFull = true;
+            }
+            else if ( pending.size() == 1 )
+            {
+                scheduledFlush = executorService.schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        flush();
+                    }
+                }, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if ( batchIsFull )
+        {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Submit the current batch, if any
+     */
+    void flush()
+    {
+        if ( !hasPending )
+        {
+            return;     // fast path for the non-coalescable operations that are executed while nothing is pending
+        }
+
+        // batches are submitted outside of the pending lock so that offer() never waits on ZooKeeper. The
+        // submit lock keeps batches in the order they were taken.
+        synchronized(submitLock)
+        {
+            List<Entry> batch;
+            synchronized(this)
+            {
+                if ( pending.isEmpty() )
+                {
+                    return;
+                }
+
+                if ( scheduledFlush != null )
+                {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                hasPending = false;
+            }
+
+            if ( batch.size() == 1 )
+            {
+                client.performBackgroundOperation(batch.get(0).operationAndData);
+            }
+            else
+            {
+                client.performBackgroundOperation(new OperationAndData<>(multiOperation, batch, newFallbackCallback(batch), null, null, null));
+            }
+        }
+    }
+
+    private BackgroundCallback newFallbackCallback(final List<Entry> batch)
+    {
+        return new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework dummy, CuratorEvent event)
+            {
+                performIndividually(batch, event.getResultCode());
+            }
+        };
+    }
+
+    /**
+     * @param multiResultCode the result code of the failed multi()
+     */
+    private void performIndividually(List<Entry> batch, int multiResultCode)
+    {
+        for ( Entry entry : batch )
+        {
+            // the operation traces its own execution - this records that it was re-executed and why
+            client.getZookeeperClient().startAdvancedTracer("BackgroundWriteCoalescer-Fallback").setPath(entry.op.getPath()).setReturnCode(multiResultCode).commit();
+            client.performBackgroundOperation(entry.operationAndData);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CoalescableOperation<Object> getOperation(OperationAndData<?> operationAndData)
+    {
+        return (CoalescableOperation<Object>)operationAndData.getOperation();
+    }
+
+    private static CoalescableOperation<Object> getOperation(Entry entry)
+    {
+        return getOperation(entry.operationAndData);
+    }
+}
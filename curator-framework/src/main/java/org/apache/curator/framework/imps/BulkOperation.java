@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.BulkResult;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.UnhandledErrorListener;
+import org.apache.curator.utils.ThreadUtils;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs a background operation (e.g. getData() or getChildren()) for many paths by pipelining
+ * the calls with at most <code>maxInFlight</code> outstanding requests. A new request is started
+ * as each outstanding request completes.
+ */
+class BulkOperation<T>
+{
+    private final CuratorFrameworkImpl client;
+    private final Operation operation;
+    private final Function<CuratorEvent, T> valueFromEvent;
+    private final int maxInFlight;
+    private final List<String> paths;
+    private final Iterator<String> pathsIterator;    // guarded by sync
+    private final ConcurrentMap<String, BulkResult<T>> results = new ConcurrentHashMap<>();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Map<String, BulkResult<T>>> future = new CompletableFuture<>();
+
+    /**
+     * Starts the operation for one path
+     */
+    @FunctionalInterface
+    interface Operation
+    {
+        void forPath(String path, Backgrounding backgrounding) throws Exception;
+    }
+
+    BulkOperation(CuratorFrameworkImpl client, Collection<String> paths, int maxInFlight, Operation operation, Function<CuratorEvent, T> valueFromEvent)
+    {
+        Preconditions.checkNotNull(paths, "paths cannot be null");
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0");
+
+        this.client = client;
+        this.operation = operation;
+        this.valueFromEvent = valueFromEvent;
+        this.maxInFlight = maxInFlight;
+        this.paths = ImmutableList.copyOf(new LinkedHashSet<>(paths));
+        pathsIterator = this.paths.iterator();
+        remaining = new AtomicInteger(this.paths.size());
+    }
+
+    /**
+     * Blocks until the given bulk operation completes
+     *
+     * @param client the client
+     * @param future the operation's future
+     * @return the results
+     * @throws Exception errors
+     */
+    static <T> Map<String, BulkResult<T>> await(CuratorFrameworkImpl client, Future<Map<String, BulkResult<T>>> future) throws Exception
+    {
+        for(;;)
+        {
+            try
+            {
+                return future.get(client.getZookeeperClient().getConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            catch ( TimeoutException e )
+            {
+                // operations are silently dropped if the client is closed - don't wait forever
+                if ( client.getState() != CuratorFrameworkState.STARTED )
+                {
+                    throw new IllegalStateException("Client was closed while processing paths");
+                }
+            }
+            catch ( ExecutionException e )
+            {
+                Throwables.propagateIfPossible(e.getCause(), Exception.class);
+                throw e;
+            }
+        }
+    }
+
+    CompletableFuture<Map<String, BulkResult<T>>> start()
+    {
+        if ( paths.isEmpty() )
+        {
+            future.complete(Collections.<String, BulkResult<T>>emptyMap());
+        }
+        else
+        {
+            for ( int i = 0; i < Math.min(maxInFlight, paths.size()); ++i )
+            {
+                startNext();
+            }
+        }
+        return future;
+    }
+
+    private void startNext()
+    {
+        // loop so that requests that fail immediately don't use up an in-flight slot
+        while ( startOne() )
+        {
+            // NOP
+        }
+    }
+
+    /**
+     * @return true if the request failed immediately and another request should be started in its place
+     */
+    private boolean startOne()
+    {
+        final String path;
+        synchronized(this)
+        {
+            if ( !pathsIterator.hasNext() )
+            {
+                return false;
+            }
+            path = pathsIterator.next();
+        }
+
+        BackgroundCallback callback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework dummy, CuratorEvent event)
+            {
+                if ( setResult(new BulkResult<>(path, event.getResultCode(), valueFromEvent.apply(event), event.getStat())) )
+                {
+                    startNext();
+                }
+            }
+        };
+        UnhandledErrorListener errorListener = new UnhandledErrorListener()
+        {
+            @Override
+            public void unhandledError(String message, Throwable e)
+            {
+                if ( setResult(new BulkResult<T>(path, asException(e))) )
+                {
+                    startNext();
+                }
+            }
+        };
+
+        try
+        {
+            operation.forPath(path, new Backgrounding(callback, errorListener));
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            return setResult(new BulkResult<T>(path, e));
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the result was set and there are more paths to process
+     */
+    private boolean setResult(BulkResult<T> result)
+    {
+        if ( results.putIfAbsent(result.getPath(), result) != null )
+        {
+            return false;
+        }
+
+        if ( remaining.decrementAndGet() == 0 )
+        {
+            Map<String, BulkResult<T>> orderedResults = new LinkedHashMap<>();
+            for ( String path : paths )
+            {
+                orderedResults.put(path, results.get(path));
+            }
+            future.complete(Collections.unmodifiableMap(orderedResults));
+            return false;
+        }
+        return true;
+    }
+
+    private static Exception asException(Throwable e)
+    {
+        return (e instanceof Exception) ? (Exception)e : new RuntimeException(e);
+    }
+}
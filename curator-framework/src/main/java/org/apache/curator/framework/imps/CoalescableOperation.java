@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+
+/**
+ * A background write operation that can be coalesced with others into a single ZooKeeper multi()
+ * by {@link BackgroundWriteCoalescer}
+ */
+interface CoalescableOperation<T>
+{
+    /**
+     * @param data the operation's data
+     * @return the operation as a multi() op or <code>null</code> if the operation cannot be coalesced
+     */
+    Op asCoalescedOp(T data);
+
+    /**
+     * Called when the multi() containing the operation has succeeded. Must deliver the
+     * result exactly as if the operation had been executed on its own.
+     *
+     * @param operationAndData the operation
+     * @param result the operation's result
+     */
+    void coalescedOpSucceeded(OperationAndData<T> operationAndData, OpResult result);
+}
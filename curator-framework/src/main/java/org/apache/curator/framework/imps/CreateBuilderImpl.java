@@ -35,6 +35,7 @@ import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
 import org.apache.zookeeper.server.DataTree;
@@ -45,7 +46,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, BackgroundOperation<PathAndBytes>, ErrorListenerPathAndBytesable<String>
+public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, BackgroundOperation<PathAndBytes>, CoalescableOperation<PathAndBytes>, ErrorListenerPathAndBytesable<String>
 {
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final CuratorFrameworkImpl client;
@@ -682,6 +683,23 @@ public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, Backgro
         }
     }
 
+    @Override
+    public Op asCoalescedOp(PathAndBytes data)
+    {
+        if ( protectedMode.doProtected() || createMode.isTTL() || (storingStat != null) || failNextCreateForTesting || failBeforeNextCreateForTesting )
+        {
+            return null;
+        }
+        return Op.create(data.getPath(), data.getData(), acling.getAclList(data.getPath()), createMode);
+    }
+
+    @Override
+    public void coalescedOpSucceeded(OperationAndData<PathAndBytes> operationAndData, OpResult result)
+    {
+        OpResult.CreateResult createResult = (OpResult.CreateResult)result;
+        sendBackgroundResponse(KeeperException.Code.OK.intValue(), operationAndData.getData().getPath(), backgrounding.getContext(), createResult.getPath(), createResult.getStat(), operationAndData);
+    }
+
     @Override
     public CreateProtectACLCreateModePathAndBytesable<String> storingStatIn(Stat stat) {
         storingStat = stat;
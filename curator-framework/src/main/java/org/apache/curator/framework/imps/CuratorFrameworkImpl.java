@@ -71,7 +71,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final StandardListenerManager<UnhandledErrorListener> unhandledErrorListeners;
     private final ThreadFactory threadFactory;
     private final int maxCloseWaitMs;
-    private final BlockingQueue<OperationAndData<?>> backgroundOperations;
+    private final BackgroundOperationDispatcher backgroundOperations;
+    private final BackgroundWriteCoalescer writeCoalescer;
     private final BlockingQueue<OperationAndData<?>> forcedSleepOperations;
     private final NamespaceImpl namespace;
     private final ConnectionStateManager connectionStateManager;
@@ -132,7 +133,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         internalConnectionHandler = new StandardInternalConnectionHandler();
         listeners = StandardListenerManager.standard();
         unhandledErrorListeners = StandardListenerManager.standard();
-        backgroundOperations = new DelayQueue<OperationAndData<?>>();
+        backgroundOperations = new BackgroundOperationDispatcher(builder.getBackgroundOperationThreads(), builder.useTimingWheelScheduler());
         forcedSleepOperations = new LinkedBlockingQueue<>();
         namespace = new NamespaceImpl(this, builder.getNamespace());
         threadFactory = getThreadFactory(builder);
@@ -156,6 +157,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
         ensembleTracker = builder.withEnsembleTracker() ? new EnsembleTracker(this, builder.getEnsembleProvider()) : null;
 
         runSafeService = makeRunSafeService(builder);
+
+        writeCoalescer = (builder.getCoalesceMaxBatchSize() > 1) ? new BackgroundWriteCoalescer(this, builder.getCoalesceMaxBatchSize(), builder.getCoalesceMaxDelayMs(), threadFactory) : null;
     }
 
     private Executor makeRunSafeService(CuratorFrameworkFactory.Builder builder)
@@ -253,6 +256,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         schemaSet = parent.schemaSet;
         ensembleTracker = null;
         runSafeService = parent.runSafeService;
+        writeCoalescer = parent.writeCoalescer;
     }
 
     @Override
@@ -333,16 +337,25 @@ public class CuratorFrameworkImpl implements CuratorFramework
 
             client.start();
 
-            executorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
-            executorService.submit(new Callable<Object>()
+            executorService = Executors.newFixedThreadPool(backgroundOperations.getThreadQty(), threadFactory);
+            for ( int i = 0; i < backgroundOperations.getThreadQty(); ++i )
             {
-                @Override
-                public Object call() throws Exception
+                final BackgroundOperationQueue queue = backgroundOperations.getQueue(i);
+                executorService.submit(new Callable<Object>()
                 {
-                    backgroundOperationsLoop();
-                    return null;
-                }
-            });
+                    @Override
+                    public Object call() throws Exception
+                    {
+                        backgroundOperationsLoop(queue);
+                        return null;
+                    }
+                });
+            }
+
+            if ( writeCoalescer != null )
+            {
+                writeCoalescer.start();
+            }
 
             if ( ensembleTracker != null )
             {
@@ -378,6 +391,11 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 }
             });
 
+            if ( writeCoalescer != null )
+            {
+                writeCoalescer.close();
+            }
+
             if ( executorService != null )
             {
                 executorService.shutdownNow();
@@ -630,7 +648,10 @@ public class CuratorFrameworkImpl implements CuratorFramework
         boolean isInitialExecution = (event == null);
         if ( isInitialExecution )
         {
-            performBackgroundOperation(operationAndData);
+            if ( (writeCoalescer == null) || !writeCoalescer.offer(operationAndData) )
+            {
+                performBackgroundOperation(operationAndData);
+            }
             return;
         }
 
@@ -817,6 +838,12 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return ensembleTracker;
     }
 
+    @VisibleForTesting
+    BackgroundWriteCoalescer getWriteCoalescer()
+    {
+        return writeCoalescer;
+    }
+
     @VisibleForTesting
     volatile CountDownLatch debugCheckBackgroundRetryLatch;
     @VisibleForTesting
@@ -935,7 +962,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         while ( false );
     }
 
-    private void backgroundOperationsLoop()
+    private void backgroundOperationsLoop(BackgroundOperationQueue queue)
     {
         try
         {
@@ -944,7 +971,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 OperationAndData<?> operationAndData;
                 try
                 {
-                    operationAndData = backgroundOperations.take();
+                    operationAndData = queue.take();
                     if ( debugListener != null )
                     {
                         debugListener.listen(operationAndData);
@@ -1032,11 +1059,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
         for ( OperationAndData<?> operation : drain )
         {
             operation.clearSleep();
-            if ( backgroundOperations.remove(operation) )   // due to the internals of DelayQueue, operation must be removed/re-added so that re-sorting occurs
-            {
-                backgroundOperations.offer(operation);
-            }
         }
+        backgroundOperations.resort(drain);
     }
 
     private void processEvent(final CuratorEvent curatorEvent)
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import java.util.Collection;
+import java.util.concurrent.DelayQueue;
+
+/**
+ * The default {@link BackgroundOperationQueue} backed by a {@link DelayQueue}
+ */
+class DelayedBackgroundOperationQueue implements BackgroundOperationQueue
+{
+    private final DelayQueue<OperationAndData<?>> queue = new DelayQueue<>();
+
+    @Override
+    public void offer(OperationAndData<?> operationAndData)
+    {
+        queue.offer(operationAndData);
+    }
+
+    @Override
+    public OperationAndData<?> take() throws InterruptedException
+    {
+        return queue.take();
+    }
+
+    @Override
+    public void resort(Collection<OperationAndData<?>> operations)
+    {
+        for ( OperationAndData<?> operation : operations )
+        {
+            if ( queue.remove(operation) )   // due to the internals of DelayQueue, operation must be removed/re-added so that re-sorting occurs
+            {
+                queue.offer(operation);
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return queue.size();
+    }
+}
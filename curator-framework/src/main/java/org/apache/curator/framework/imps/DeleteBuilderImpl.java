@@ -29,10 +29,11 @@ import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
-public class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>, ErrorListenerPathable<Void>
+public class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>, CoalescableOperation<String>, ErrorListenerPathable<Void>
 {
     private final CuratorFrameworkImpl client;
     private int version;
@@ -217,6 +218,23 @@ public class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<Str
         }
     }
 
+    @Override
+    public Op asCoalescedOp(String path)
+    {
+        if ( failNextDeleteForTesting || failBeforeNextDeleteForTesting )
+        {
+            return null;
+        }
+        return Op.delete(path, version);
+    }
+
+    @Override
+    public void coalescedOpSucceeded(OperationAndData<String> operationAndData, OpResult result)
+    {
+        CuratorEvent event = new CuratorEventImpl(client, CuratorEventType.DELETE, KeeperException.Code.OK.intValue(), operationAndData.getData(), null, backgrounding.getContext(), null, null, null, null, null, null);
+        client.processBackgroundOperation(operationAndData, event);
+    }
+
     private void backgroundDeleteChildrenThenNode(final OperationAndData<String> mainOperationAndData)
     {
         BackgroundOperation<String> operation = new BackgroundOperation<String>()
@@ -28,8 +28,11 @@ import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 public class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>, ErrorListenerPathable<Stat>, ACLableExistBuilderMain
@@ -209,6 +212,35 @@ public class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<Str
         return returnStat;
     }
 
+    @Override
+    public Map<String, BulkResult<Stat>> forPaths(Collection<String> paths) throws Exception
+    {
+        return forPaths(paths, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public Map<String, BulkResult<Stat>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+    {
+        return BulkOperation.await(client, forPathsAsync(paths, maxInFlight));
+    }
+
+    /**
+     * Pipelined existence check of many paths. Used by {@link #forPaths(Collection, int)} and the async APIs.
+     *
+     * @param paths paths to check
+     * @param maxInFlight maximum outstanding requests
+     * @return future that completes once all paths have been checked
+     * @since 5.2.0
+     */
+    public CompletableFuture<Map<String, BulkResult<Stat>>> forPathsAsync(Collection<String> paths, int maxInFlight)
+    {
+        return new BulkOperation<>(client, paths, maxInFlight, (path, backgrounding) -> {
+            ExistsBuilderImpl builder = new ExistsBuilderImpl(client, backgrounding, null, createParentsIfNeeded, createParentContainersIfNeeded);
+            builder.acling = acling;
+            builder.forPath(path);
+        }, CuratorEvent::getStat).start();
+    }
+
     private Stat pathInForeground(final String path) throws Exception
     {
         if ( createParentContainersIfNeeded || createParentsIfNeeded )
@@ -23,6 +23,8 @@ import org.apache.curator.RetryLoop;
 import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
 import org.apache.curator.framework.api.BackgroundPathable;
+import org.apache.curator.framework.api.BulkResult;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.CuratorEventType;
 import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.api.ErrorListenerPathable;
@@ -34,8 +36,11 @@ import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 public class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<String>, ErrorListenerPathable<List<String>>
@@ -221,6 +226,31 @@ public class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOpe
         return children;
     }
 
+    @Override
+    public Map<String, BulkResult<List<String>>> forPaths(Collection<String> paths) throws Exception
+    {
+        return forPaths(paths, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public Map<String, BulkResult<List<String>>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+    {
+        return BulkOperation.await(client, forPathsAsync(paths, maxInFlight));
+    }
+
+    /**
+     * Pipelined listing of many paths. Used by {@link #forPaths(Collection, int)} and the async APIs.
+     *
+     * @param paths paths to list
+     * @param maxInFlight maximum outstanding requests
+     * @return future that completes once all paths have been listed
+     * @since 5.2.0
+     */
+    public CompletableFuture<Map<String, BulkResult<List<String>>>> forPathsAsync(Collection<String> paths, int maxInFlight)
+    {
+        return new BulkOperation<>(client, paths, maxInFlight, (path, backgrounding) -> new GetChildrenBuilderImpl(client, null, backgrounding, null).forPath(path), CuratorEvent::getChildren).start();
+    }
+
     private List<String> pathInForeground(final String path) throws Exception
     {
         OperationTrace       trace = client.getZookeeperClient().startAdvancedTracer("GetChildrenBuilderImpl-Foreground");
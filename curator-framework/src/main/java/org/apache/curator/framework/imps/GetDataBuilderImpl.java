@@ -29,7 +29,10 @@ import org.apache.zookeeper.data.Stat;
 import org.apache.zookeeper.server.DataTree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 public class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>, ErrorListenerPathable<byte[]>
@@ -107,6 +110,18 @@ public class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<S
                 return GetDataBuilderImpl.this.forPath(path);
             }
 
+            @Override
+            public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths) throws Exception
+            {
+                return GetDataBuilderImpl.this.forPaths(paths);
+            }
+
+            @Override
+            public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+            {
+                return GetDataBuilderImpl.this.forPaths(paths, maxInFlight);
+            }
+
             @Override
             public WatchPathable<byte[]> storingStatIn(Stat stat)
             {
@@ -306,6 +321,31 @@ public class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<S
         return responseData;
     }
 
+    @Override
+    public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths) throws Exception
+    {
+        return forPaths(paths, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+    {
+        return BulkOperation.await(client, forPathsAsync(paths, maxInFlight));
+    }
+
+    /**
+     * Pipelined read of many paths. Used by {@link #forPaths(Collection, int)} and the async APIs.
+     *
+     * @param paths paths to read
+     * @param maxInFlight maximum outstanding requests
+     * @return future that completes once all paths have been read
+     * @since 5.2.0
+     */
+    public CompletableFuture<Map<String, BulkResult<byte[]>>> forPathsAsync(Collection<String> paths, int maxInFlight)
+    {
+        return new BulkOperation<>(client, paths, maxInFlight, (path, backgrounding) -> new GetDataBuilderImpl(client, null, null, backgrounding, decompress).forPath(path), CuratorEvent::getData).start();
+    }
+
     private byte[] pathInForeground(final String path) throws Exception
     {
         OperationTrace   trace = client.getZookeeperClient().startAdvancedTracer("GetDataBuilderImpl-Foreground");
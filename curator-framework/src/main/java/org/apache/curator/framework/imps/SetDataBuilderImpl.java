@@ -27,13 +27,14 @@ import org.apache.curator.framework.api.transaction.TransactionSetDataBuilder;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.ZooDefs;
 import org.apache.zookeeper.data.Stat;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
-public class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndBytes>, ErrorListenerPathAndBytesable<Stat>
+public class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndBytes>, CoalescableOperation<PathAndBytes>, ErrorListenerPathAndBytesable<Stat>
 {
     private final CuratorFrameworkImpl      client;
     private Backgrounding                   backgrounding;
@@ -316,6 +317,24 @@ public class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<P
         }
     }
 
+    @Override
+    public Op asCoalescedOp(PathAndBytes data)
+    {
+        if ( failNextSetForTesting || failBeforeNextSetForTesting )
+        {
+            return null;
+        }
+        return Op.setData(data.getPath(), data.getData(), version);
+    }
+
+    @Override
+    public void coalescedOpSucceeded(OperationAndData<PathAndBytes> operationAndData, OpResult result)
+    {
+        Stat stat = ((OpResult.SetDataResult)result).getStat();
+        CuratorEvent event = new CuratorEventImpl(client, CuratorEventType.SET_DATA, KeeperException.Code.OK.intValue(), operationAndData.getData().getPath(), null, backgrounding.getContext(), stat, null, null, null, null, null);
+        client.processBackgroundOperation(operationAndData, event);
+    }
+
     @Override
     public Stat forPath(String path) throws Exception
     {
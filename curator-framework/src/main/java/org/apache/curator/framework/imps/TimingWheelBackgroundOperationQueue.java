@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ *     A {@link BackgroundOperationQueue} that schedules delayed operations in a hashed timing wheel.
+ *     Inserting, removing and re-scheduling an operation are O(1) (as opposed to O(log n) for
+ *     a {@link java.util.concurrent.DelayQueue}) and the lock is only held for the duration of
+ *     the O(1) bucket change. Operations whose delay has expired are moved to an unbounded ready
+ *     queue from which {@link #take()} returns them.
+ * </p>
+ *
+ * <p>
+ *     Delays are rounded up to the wheel's tick duration so operations may execute up to one
+ *     tick later than requested. The wheel is advanced by the thread calling {@link #take()}.
+ * </p>
+ */
+class TimingWheelBackgroundOperationQueue implements BackgroundOperationQueue
+{
+    private final long tickMs;
+    private final long startMs;
+    private final List<Set<OperationAndData<?>>> buckets;
+    private final Map<OperationAndData<?>, Long> deadlineTicks = new HashMap<>();
+    private final BlockingQueue<OperationAndData<?>> ready = new LinkedBlockingQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger wakeupCount = new AtomicInteger(0);    // number of WAKEUPs in the ready queue - so that size() doesn't scan it
+    private long currentTick = 0;
+
+    // offered to the ready queue to wake up a taker that is waiting on an empty wheel
+    private static final OperationAndData<Void> WAKEUP = new OperationAndData<>(null, null, null, null, null, false);
+
+    static final int DEFAULT_TICK_MS = 10;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    TimingWheelBackgroundOperationQueue()
+    {
+        this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE);
+    }
+
+    TimingWheelBackgroundOperationQueue(int tickMs, int wheelSize)
+    {
+        Preconditions.checkArgument(tickMs > 0, "tickMs must be greater than 0");
+        Preconditions.checkArgument(wheelSize > 0, "wheelSize must be greater than 0");
+
+        this.tickMs = tickMs;
+        startMs = System.currentTimeMillis();
+        buckets = new ArrayList<>(wheelSize);
+        for ( int i = 0; i < wheelSize; ++i )
+        {
+            buckets.add(new HashSet<OperationAndData<?>>());
+        }
+    }
+
+    @Override
+    public void offer(OperationAndData<?> operationAndData)
+    {
+        long delayMs = operationAndData.getDelay(TimeUnit.MILLISECONDS);
+        if ( delayMs <= 0 )
+        {
+            ready.offer(operationAndData);
+            return;
+        }
+
+        boolean wasEmpty;
+        lock.lock();
+        try
+        {
+            wasEmpty = deadlineTicks.isEmpty();
+            schedule(operationAndData, delayMs);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if ( wasEmpty )
+        {
+            wakeupCount.incrementAndGet();
+            ready.offer(WAKEUP);
+        }
+    }
+
+    @Override
+    public OperationAndData<?> take() throws InterruptedException
+    {
+        for(;;)
+        {
+            boolean wheelIsEmpty = advance();
+            OperationAndData<?> operationAndData = wheelIsEmpty ? ready.take() : ready.poll(tickMs, TimeUnit.MILLISECONDS);
+            if ( operationAndData == WAKEUP )
+            {
+                wakeupCount.decrementAndGet();
+            }
+            else if ( operationAndData != null )
+            {
+                return operationAndData;
+            }
+        }
+    }
+
+    @Override
+    public void resort(Collection<OperationAndData<?>> operations)
+    {
+        List<OperationAndData<?>> unscheduled = new ArrayList<>(operations.size());
+        lock.lock();
+        try
+        {
+            for ( OperationAndData<?> operationAndData : operations )
+            {
+                Long deadlineTick = deadlineTicks.remove(operationAndData);
+                if ( deadlineTick != null )
+                {
+                    bucketFor(deadlineTick).remove(operationAndData);
+                    unscheduled.add(operationAndData);
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        for ( OperationAndData<?> operationAndData : unscheduled )
+        {
+            offer(operationAndData);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            return deadlineTicks.size() + readySize();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private int readySize()
+    {
+        // the count is incremented before a WAKEUP is offered and decremented after it's taken so it can briefly be too high
+        return Math.max(ready.size() - wakeupCount.get(), 0);
+    }
+
+    private void schedule(OperationAndData<?> operationAndData, long delayMs)
+    {
+        long deadlineTick = (System.currentTimeMillis() + delayMs - startMs + tickMs - 1) / tickMs;
+        if ( deadlineTick <= currentTick )
+        {
+            deadlineTick = currentTick + 1;
+        }
+        Long previousDeadlineTick = deadlineTicks.put(operationAndData, deadlineTick);
+        if ( previousDeadlineTick != null )
+        {
+            bucketFor(previousDeadlineTick).remove(operationAndData);
+        }
+        bucketFor(deadlineTick).add(operationAndData);
+    }
+
+    /**
+     * Move all operations whose deadline has passed to the ready queue
+     *
+     * @return true if there are no more scheduled operations in the wheel
+     */
+    private boolean advance()
+    {
+        long nowTick = (System.currentTimeMillis() - startMs) / tickMs;
+        lock.lock();
+        try
+        {
+            if ( nowTick > currentTick )
+            {
+                // there's no need to visit a bucket more than once
+                long fromTick = Math.max(currentTick + 1, nowTick - buckets.size() + 1);
+                for ( long tick = fromTick; tick <= nowTick; ++tick )
+                {
+                    Iterator<OperationAndData<?>> iterator = bucketFor(tick).iterator();
+                    while ( iterator.hasNext() )
+                    {
+                        OperationAndData<?> operationAndData = iterator.next();
+                        if ( deadlineTicks.get(operationAndData) <= nowTick )
+                        {
+                            iterator.remove();
+                            deadlineTicks.remove(operationAndData);
+                            ready.offer(operationAndData);
+                        }
+                    }
+                }
+                currentTick = nowTick;
+            }
+            return deadlineTicks.isEmpty();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private Set<OperationAndData<?>> bucketFor(long tick)
+    {
+        return buckets.get((int)(tick % buckets.size()));
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Maps;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.zookeeper.KeeperException;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TestBackgroundWriteCoalescing extends BaseClassForTests
+{
+    private final Timing timing = new Timing();
+
+    @Test
+    public void testBatchSize() throws Exception
+    {
+        final int QTY = 10;
+
+        CuratorFramework client = newClient(QTY, (int)TimeUnit.MINUTES.toMillis(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/test");
+
+            final CountDownLatch latch = new CountDownLatch(QTY);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+
+            assertTrue(timing.awaitLatch(latch));
+            assertEquals(((CuratorFrameworkImpl)client).getWriteCoalescer().debugMultiCount.get(), 1);
+            for ( int i = 0; i < QTY; ++i )
+            {
+                assertEquals(new String(client.getData().forPath("/test/" + i)), Integer.toString(i));
+            }
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testMaxDelay() throws Exception
+    {
+        CuratorFramework client = newClient(100, 100);
+        try
+        {
+            client.start();
+
+            final BlockingQueue<CuratorEvent> events = new ArrayBlockingQueue<>(10);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+            client.create().inBackground(callback).forPath("/one");
+            client.create().inBackground(callback).forPath("/two");
+            client.setData().inBackground(callback).forPath("/one", "hey".getBytes());
+            client.delete().inBackground(callback).forPath("/two");
+
+            Map<String, CuratorEvent> eventsByKey = Maps.newHashMap();
+            for ( int i = 0; i < 4; ++i )
+            {
+                CuratorEvent event = events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS);
+                assertNotNull(event);
+                assertEquals(event.getResultCode(), KeeperException.Code.OK.intValue());
+                eventsByKey.put(event.getType() + event.getPath(), event);
+            }
+            assertEquals(eventsByKey.get("CREATE/one").getName(), "/one");
+            assertNotNull(eventsByKey.get("SET_DATA/one").getStat());
+            assertNotNull(eventsByKey.get("DELETE/two"));
+            assertEquals(((CuratorFrameworkImpl)client).getWriteCoalescer().debugMultiCount.get(), 1);
+
+            assertEquals(new String(client.getData().forPath("/one")), "hey");
+            assertNull(client.checkExists().forPath("/two"));
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testFailedBatchFallsBackToIndividualOperations() throws Exception
+    {
+        CuratorFramework client = newClient(2, (int)TimeUnit.MINUTES.toMillis(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/exists");
+
+            final BlockingQueue<CuratorEvent> events = new ArrayBlockingQueue<>(10);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+            client.create().inBackground(callback).forPath("/exists");
+            client.create().inBackground(callback).forPath("/new");
+
+            Map<String, Integer> resultCodes = Maps.newHashMap();
+            for ( int i = 0; i < 2; ++i )
+            {
+                CuratorEvent event = events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS);
+                assertNotNull(event);
+                resultCodes.put(event.getPath(), event.getResultCode());
+            }
+            assertEquals(resultCodes.get("/exists").intValue(), KeeperException.Code.NODEEXISTS.intValue());
+            assertEquals(resultCodes.get("/new").intValue(), KeeperException.Code.OK.intValue());
+            assertNotNull(client.checkExists().forPath("/new"));
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testOrderingWithNonCoalescedOperations() throws Exception
+    {
+        CuratorFramework client = newClient(100, (int)TimeUnit.MINUTES.toMillis(1));
+        try
+        {
+            client.start();
+
+            final BlockingQueue<CuratorEvent> events = new ArrayBlockingQueue<>(10);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+            client.create().inBackground(callback).forPath("/test", "data".getBytes());
+            client.getData().inBackground(callback).forPath("/test");   // must flush the pending create first
+
+            CuratorEvent createEvent = events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS);
+            CuratorEvent getDataEvent = events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS);
+            assertNotNull(createEvent);
+            assertNotNull(getDataEvent);
+            assertEquals(getDataEvent.getResultCode(), KeeperException.Code.OK.intValue());
+            assertEquals(new String(getDataEvent.getData()), "data");
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    private CuratorFramework newClient(int maxBatchSize, int maxDelayMs)
+    {
+        return CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .coalesceBackgroundWrites(maxBatchSize, maxDelayMs)
+            .build();
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BulkResult;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class TestBulkOperations extends BaseClassForTests
+{
+    @Test
+    public void testBasic() throws Exception
+    {
+        final int QTY = 250;
+
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            List<String> paths = Lists.newArrayList();
+            for ( int i = 0; i < QTY; ++i )
+            {
+                String path = "/test/" + i;
+                client.create().creatingParentsIfNeeded().forPath(path, Integer.toString(i).getBytes());
+                paths.add(path);
+            }
+            paths.add("/test/missing");
+
+            Map<String, BulkResult<byte[]>> results = client.getData().forPaths(paths, 10);
+            assertEquals(new ArrayList<>(results.keySet()), paths);
+            for ( int i = 0; i < QTY; ++i )
+            {
+                BulkResult<byte[]> result = results.get("/test/" + i);
+                assertTrue(result.isSuccess());
+                assertNull(result.getException());
+                assertEquals(new String(result.getValue()), Integer.toString(i));
+                assertNotNull(result.getStat());
+            }
+
+            BulkResult<byte[]> missing = results.get("/test/missing");
+            assertEquals(missing.getResultCode(), KeeperException.Code.NONODE.intValue());
+            assertNull(missing.getValue());
+            assertTrue(missing.getException() instanceof KeeperException.NoNodeException);
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testGetChildren() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        try
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/one/a");
+            client.create().creatingParentsIfNeeded().forPath("/one/b");
+            client.create().forPath("/two");
+
+            Map<String, BulkResult<List<String>>> results = client.getChildren().forPaths(Lists.newArrayList("/one", "/two", "/missing"), 2);
+            assertEquals(new ArrayList<>(results.keySet()), Lists.newArrayList("/one", "/two", "/missing"));
+            assertEquals(Sets.newHashSet(results.get("/one").getValue()), Sets.newHashSet("a", "b"));
+            assertEquals(results.get("/one").getStat().getNumChildren(), 2);
+            assertTrue(results.get("/two").isSuccess());
+            assertTrue(results.get("/two").getValue().isEmpty());
+            assertTrue(results.get("/missing").getException() instanceof KeeperException.NoNodeException);
+
+            assertTrue(client.getChildren().forPaths(Collections.<String>emptyList()).isEmpty());
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testCheckExists() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            client.create().forPath("/one", "one".getBytes());
+
+            Map<String, BulkResult<Stat>> results = client.checkExists().forPaths(Lists.newArrayList("/one", "/missing"));
+            assertTrue(results.get("/one").isSuccess());
+            assertEquals(results.get("/one").getValue().getDataLength(), 3);
+            assertEquals(results.get("/missing").getResultCode(), KeeperException.Code.NONODE.intValue());
+            assertNull(results.get("/missing").getValue());
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testDecompressedAndNamespaced() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        try
+        {
+            client.start();
+            client.create().compressed().forPath("/one", "one".getBytes());
+            client.create().compressed().forPath("/two", "two".getBytes());
+
+            Map<String, BulkResult<byte[]>> results = client.getData().decompressed().forPaths(Lists.newArrayList("/one", "/two"));
+            assertEquals(new String(results.get("/one").getValue()), "one");
+            assertEquals(new String(results.get("/two").getValue()), "two");
+
+            assertTrue(client.getData().forPaths(Collections.<String>emptyList()).isEmpty());
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+}
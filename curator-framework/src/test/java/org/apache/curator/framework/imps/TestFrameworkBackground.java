@@ -21,9 +21,12 @@ package org.apache.curator.framework.imps;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.ACLProvider;
@@ -44,6 +47,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -216,6 +220,84 @@ public class TestFrameworkBackground extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testMultipleBackgroundThreads() throws Exception
+    {
+        final int QTY = 20;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(10, 100))
+            .backgroundOperationThreads(4)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            final Set<String> threadNames = Sets.newConcurrentHashSet();
+            ((CuratorFrameworkImpl)client).debugListener = new CuratorFrameworkImpl.DebugBackgroundListener()
+            {
+                @Override
+                public void listen(OperationAndData<?> data)
+                {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+            };
+
+            final CountDownLatch latch = new CountDownLatch(QTY);
+            BackgroundCallback callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == Code.OK.intValue() )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+
+            server.stop();
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test" + i);
+            }
+            timing.sleepABit();
+            server.restart();
+
+            assertTrue(timing.awaitLatch(latch));
+            for ( int i = 0; i < QTY; ++i )
+            {
+                assertNotNull(client.checkExists().forPath("/test" + i));
+            }
+            assertTrue(threadNames.size() > 1, threadNames.toString());
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testBackgroundOperationSharding()
+    {
+        BackgroundOperationDispatcher dispatcher = new BackgroundOperationDispatcher(4, false);
+        Set<BackgroundOperationQueue> usedQueues = Sets.newIdentityHashSet();
+        for ( int i = 0; i < 100; ++i )
+        {
+            String path = "/test" + i;
+            OperationAndData<String> first = new OperationAndData<>(null, path, null, null, null, null);
+            OperationAndData<String> second = new OperationAndData<>(null, path, null, null, null, null);
+            assertSame(dispatcher.queueFor(first), dispatcher.queueFor(second));
+            usedQueues.add(dispatcher.queueFor(first));
+        }
+        assertEquals(usedQueues.size(), 4);
+    }
+
     @Test
     public void testBasic() throws Exception
     {
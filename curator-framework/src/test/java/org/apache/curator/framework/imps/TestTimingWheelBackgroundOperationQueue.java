@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.imps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestTimingWheelBackgroundOperationQueue
+{
+    @Test
+    public void testOrdering() throws Exception
+    {
+        BackgroundOperationQueue queue = new TimingWheelBackgroundOperationQueue();
+        long start = System.currentTimeMillis();
+
+        OperationAndData<String> slow = newOperation("/slow", 300);
+        OperationAndData<String> medium = newOperation("/medium", 100);
+        OperationAndData<String> now = newOperation("/now", 0);
+        queue.offer(slow);
+        queue.offer(medium);
+        queue.offer(now);
+        assertEquals(queue.size(), 3);
+
+        assertSame(queue.take(), now);
+        assertSame(queue.take(), medium);
+        assertTrue((System.currentTimeMillis() - start) >= 100);
+        assertSame(queue.take(), slow);
+        assertTrue((System.currentTimeMillis() - start) >= 300);
+        assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void testDelayLongerThanWheel() throws Exception
+    {
+        BackgroundOperationQueue queue = new TimingWheelBackgroundOperationQueue(1, 8);
+        long start = System.currentTimeMillis();
+
+        OperationAndData<String> operation = newOperation("/test", 100);
+        queue.offer(operation);
+        assertSame(queue.take(), operation);
+        assertTrue((System.currentTimeMillis() - start) >= 100);
+    }
+
+    @Test
+    public void testResort() throws Exception
+    {
+        BackgroundOperationQueue queue = new TimingWheelBackgroundOperationQueue();
+
+        OperationAndData<String> operation = newOperation("/test", TimeUnit.HOURS.toMillis(1));
+        queue.offer(operation);
+        operation.clearSleep();
+        queue.resort(Collections.<OperationAndData<?>>singletonList(operation));
+
+        long start = System.currentTimeMillis();
+        assertSame(queue.take(), operation);
+        assertTrue((System.currentTimeMillis() - start) < 1000);
+    }
+
+    @Test
+    public void testBulkResortOfManyPendingOperations() throws Exception
+    {
+        final int QTY = 100000;
+        checkBulkResort(new TimingWheelBackgroundOperationQueue(), QTY);
+        checkBulkResort(new DelayedBackgroundOperationQueue(), QTY / 10);   // DelayQueue resort is much slower
+    }
+
+    private void checkBulkResort(BackgroundOperationQueue queue, int qty) throws Exception
+    {
+        Collection<OperationAndData<?>> operations = new ArrayList<>(qty);
+        for ( int i = 0; i < qty; ++i )
+        {
+            OperationAndData<String> operation = newOperation("/test" + i, TimeUnit.HOURS.toMillis(1));
+            operations.add(operation);
+            queue.offer(operation);
+        }
+        assertEquals(queue.size(), qty);
+
+        for ( OperationAndData<?> operation : operations )
+        {
+            operation.clearSleep();
+        }
+        queue.resort(operations);
+
+        List<OperationAndData<?>> taken = new ArrayList<>(qty);
+        for ( int i = 0; i < qty; ++i )
+        {
+            taken.add(queue.take());
+        }
+        assertEquals(taken.size(), qty);
+        assertEquals(queue.size(), 0);
+    }
+
+    private static OperationAndData<String> newOperation(String path, long delayMs) throws InterruptedException
+    {
+        OperationAndData<String> operation = new OperationAndData<>(null, path, null, null, null, false);
+        if ( delayMs > 0 )
+        {
+            operation.sleepFor(delayMs, TimeUnit.MILLISECONDS);
+        }
+        return operation;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.atomic;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.utils.CloseableScheduledExecutorService;
+import org.apache.curator.utils.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Uses a {@link DistributedAtomicLong} and accumulates additions locally for better performance. Deltas
+ * passed to {@link #add(long)} are buffered in memory and flushed to the distributed number as a single
+ * addition either periodically or when the buffered delta reaches a threshold.</p>
+ *
+ * <p>The distributed number lags behind the local additions by up to the flush interval. Additions
+ * that have not been flushed are lost if the process dies. If a flush does not succeed, the delta is
+ * kept and retried with the next flush.</p>
+ */
+public class AccumulatingAtomicLong implements Closeable
+{
+    private final Logger                        log = LoggerFactory.getLogger(getClass());
+    private final DistributedAtomicLong         number;
+    private final long                          flushThreshold;
+    private final long                          flushIntervalMs;
+    private final CloseableScheduledExecutorService executorService;
+    private final LongAdder                     pending = new LongAdder();
+    private final AtomicBoolean                 flushQueued = new AtomicBoolean(false);
+    private final AtomicReference<State>        state = new AtomicReference<>(State.LATENT);
+    private final AtomicStats                   totalStats = new AtomicStats();  // guarded by this
+    private volatile AtomicStats                lastFlushStats = new AtomicStats();
+    private volatile long                       flushCount = 0;
+    private volatile long                       failedFlushCount = 0;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * @param number the number to use
+     * @param flushThreshold flush as soon as the absolute value of the buffered delta reaches this amount or 0 to only flush periodically
+     * @param flushInterval max time additions are buffered
+     * @param unit time unit
+     */
+    public AccumulatingAtomicLong(DistributedAtomicLong number, long flushThreshold, long flushInterval, TimeUnit unit)
+    {
+        this(number, flushThreshold, flushInterval, unit, ThreadUtils.newSingleThreadScheduledExecutor("AccumulatingAtomicLong"), true);
+    }
+
+    /**
+     * @param number the number to use
+     * @param flushThreshold flush as soon as the absolute value of the buffered delta reaches this amount or 0 to only flush periodically
+     * @param flushInterval max time additions are buffered
+     * @param unit time unit
+     * @param executorService executor used for flushing
+     */
+    public AccumulatingAtomicLong(DistributedAtomicLong number, long flushThreshold, long flushInterval, TimeUnit unit, ScheduledExecutorService executorService)
+    {
+        this(number, flushThreshold, flushInterval, unit, executorService, false);
+    }
+
+    private AccumulatingAtomicLong(DistributedAtomicLong number, long flushThreshold, long flushInterval, TimeUnit unit, ScheduledExecutorService executorService, boolean shutdownOnClose)
+    {
+        Preconditions.checkArgument(flushThreshold >= 0, "flushThreshold cannot be negative");
+        Preconditions.checkArgument(flushInterval > 0, "flushInterval must be greater than 0");
+        this.number = Preconditions.checkNotNull(number, "number cannot be null");
+        this.flushThreshold = flushThreshold;
+        this.flushIntervalMs = unit.toMillis(flushInterval);
+        this.executorService = new CloseableScheduledExecutorService(executorService, shutdownOnClose);
+    }
+
+    /**
+     * Start periodic flushing
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+        executorService.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops periodic flushing and flushes any buffered additions
+     */
+    @Override
+    public void close()
+    {
+        if ( state.getAndSet(State.CLOSED) != State.CLOSED )
+        {
+            executorService.close();
+            flushQuietly();
+        }
+    }
+
+    /**
+     * Add 1 to the buffered delta
+     */
+    public void increment()
+    {
+        add(1);
+    }
+
+    /**
+     * Subtract 1 from the buffered delta
+     */
+    public void decrement()
+    {
+        add(-1);
+    }
+
+    /**
+     * Add delta to the buffered delta. If the threshold is reached, a flush is queued.
+     *
+     * @param delta amount to add
+     */
+    public void add(long delta)
+    {
+        pending.add(delta);
+        if ( (flushThreshold > 0) && (Math.abs(pending.sum()) >= flushThreshold) && (state.get() == State.STARTED) && flushQueued.compareAndSet(false, true) )
+        {
+            executorService.submit(() -> {
+                flushQueued.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * Flush the buffered delta to the distributed number now. Remember to always
+     * check {@link AtomicValue#succeeded()}. If the flush did not succeed, the delta remains buffered.
+     *
+     * @return value info of the flush or null if there was nothing to flush
+     * @throws Exception ZooKeeper errors
+     */
+    public synchronized AtomicValue<Long> flush() throws Exception
+    {
+        long delta = pending.sumThenReset();
+        if ( delta == 0 )
+        {
+            return null;
+        }
+
+        AtomicValue<Long> result;
+        try
+        {
+            result = number.add(delta);
+        }
+        catch ( Exception e )
+        {
+            pending.add(delta);
+            ++failedFlushCount;
+            throw e;
+        }
+
+        if ( !result.succeeded() )
+        {
+            pending.add(delta);
+            ++failedFlushCount;
+        }
+        ++flushCount;
+        lastFlushStats = result.getStats();
+        totalStats.add(result.getStats());
+        return result;
+    }
+
+    /**
+     * Return the buffered delta that has not yet been flushed
+     *
+     * @return delta
+     */
+    public long getPendingDelta()
+    {
+        return pending.sum();
+    }
+
+    /**
+     * Return the number of flushes attempted (successful or not, excluding errors)
+     *
+     * @return qty
+     */
+    public long getFlushCount()
+    {
+        return flushCount;
+    }
+
+    /**
+     * Return the number of flushes that did not succeed or failed with an error
+     *
+     * @return qty
+     */
+    public long getFailedFlushCount()
+    {
+        return failedFlushCount;
+    }
+
+    /**
+     * Return the stats of the most recent flush. The sum of the optimistic and promoted times is
+     * the flush latency. Optimistic tries greater than 1 indicate conflicts with other writers.
+     *
+     * @return stats
+     */
+    public AtomicStats getLastFlushStats()
+    {
+        return lastFlushStats;
+    }
+
+    /**
+     * Return the stats of all flushes so far added together
+     *
+     * @return stats
+     */
+    public synchronized AtomicStats getTotalStats()
+    {
+        AtomicStats copy = new AtomicStats();
+        copy.add(totalStats);
+        return copy;
+    }
+
+    private void flushQuietly()
+    {
+        try
+        {
+            AtomicValue<Long> result = flush();
+            if ( (result != null) && !result.succeeded() )
+            {
+                log.warn("Flush did not succeed. Will retry with the next flush.");
+            }
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not flush", e);
+        }
+    }
+}
@@ -87,4 +87,12 @@ public class AtomicStats
     {
         this.promotedTimeMs = promotedTimeMs;
     }
+
+    void add(AtomicStats stats)
+    {
+        optimisticTries += stats.optimisticTries;
+        promotedLockTries += stats.promotedLockTries;
+        optimisticTimeMs += stats.optimisticTimeMs;
+        promotedTimeMs += stats.promotedTimeMs;
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.curator.RetryPolicy;
 import org.apache.curator.retry.RetryNTimes;
 import java.util.concurrent.TimeUnit;
 import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
 
 /**
  * Abstraction of arguments for mutex promotion. Use {@link #builder()} to create.
@@ -123,6 +124,11 @@ public class PromotedToLock
         return retryPolicy;
     }
 
+    PromotedToLock forStripe(String stripeName)
+    {
+        return new PromotedToLock(ZKPaths.makePath(path, stripeName), maxLockTime, maxLockTimeUnit, retryPolicy);
+    }
+
     private PromotedToLock(String path, long maxLockTime, TimeUnit maxLockTimeUnit, RetryPolicy retryPolicy)
     {
         this.path = path;
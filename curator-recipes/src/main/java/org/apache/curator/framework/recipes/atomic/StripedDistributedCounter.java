@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.atomic;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A counter for high write rates. Instead of a single node, the count is spread over a number of
+ * stripe nodes (children of the counter path) that are each updated via a {@link DistributedAtomicLong}.
+ * A writer is assigned to a stripe based on its thread and process so that concurrent writers rarely
+ * contend for the same node. Reads sum the values of all stripes.</p>
+ *
+ * <p>Reads are not atomic with respect to concurrent writes - i.e. the count returned is the sum of the stripes as
+ * they were read. Optionally, {@link #start()} can be called to maintain a cached view of the stripes. Once the cache
+ * has loaded the stripes, {@link #get()} is served from the cache and costs no ZooKeeper reads (but may be slightly stale).</p>
+ *
+ * <p>As with {@link DistributedAtomicLong}, you must <b>always</b> check {@link AtomicValue#succeeded()}.
+ * If the update of the writer's stripe fails, the other stripes are tried before giving up.</p>
+ */
+public class StripedDistributedCounter implements Closeable
+{
+    private final CuratorFramework          client;
+    private final String                    counterPath;
+    private final DistributedAtomicLong[]   stripes;
+    private final int                       processSeed = ThreadLocalRandom.current().nextInt();
+    private final AtomicReference<CuratorCache> cache = new AtomicReference<>();
+    private volatile CuratorCache           initializedCache = null;
+
+    static final String STRIPE_PREFIX = "stripe-";
+
+    /**
+     * Creates in optimistic mode only - i.e. the promotion to a mutex is not done
+     *
+     * @param client the client
+     * @param counterPath path to hold the stripes
+     * @param stripeQty the number of stripes to spread writes over
+     * @param retryPolicy the retry policy to use for each stripe
+     */
+    public StripedDistributedCounter(CuratorFramework client, String counterPath, int stripeQty, RetryPolicy retryPolicy)
+    {
+        this(client, counterPath, stripeQty, retryPolicy, null);
+    }
+
+    /**
+     * Creates in mutex promotion mode. See {@link DistributedAtomicLong#DistributedAtomicLong(CuratorFramework, String, RetryPolicy, PromotedToLock)}.
+     * Note: each stripe uses its own lock (the promoted lock path is made per stripe).
+     *
+     * @param client the client
+     * @param counterPath path to hold the stripes
+     * @param stripeQty the number of stripes to spread writes over
+     * @param retryPolicy the retry policy to use for each stripe
+     * @param promotedToLock the arguments for the mutex promotion
+     */
+    public StripedDistributedCounter(CuratorFramework client, String counterPath, int stripeQty, RetryPolicy retryPolicy, PromotedToLock promotedToLock)
+    {
+        Preconditions.checkArgument(stripeQty > 0, "stripeQty must be greater than 0");
+        this.client = Preconditions.checkNotNull(client, "client cannot be null");
+        this.counterPath = PathUtils.validatePath(counterPath);
+
+        stripes = new DistributedAtomicLong[stripeQty];
+        for ( int i = 0; i < stripeQty; ++i )
+        {
+            String stripePath = ZKPaths.makePath(counterPath, STRIPE_PREFIX + i);
+            PromotedToLock stripePromotedToLock = (promotedToLock != null) ? promotedToLock.forStripe(STRIPE_PREFIX + i) : null;
+            stripes[i] = new DistributedAtomicLong(client, stripePath, retryPolicy, stripePromotedToLock);
+        }
+    }
+
+    /**
+     * Start a cached view of the stripes. Once the cache has loaded the stripes, {@link #get()} sums the
+     * cached stripes instead of reading them from ZooKeeper. Until then, {@link #get()} reads from ZooKeeper.
+     * The cached view can be started again after {@link #close()}.
+     */
+    public void start()
+    {
+        CuratorCache newCache = CuratorCache.build(client, counterPath);
+        Preconditions.checkState(cache.compareAndSet(null, newCache), "Already started");
+        newCache.listenable().addListener(CuratorCacheListener.builder().forInitialized(() -> initializedCache = newCache).build());
+        newCache.start();
+    }
+
+    /**
+     * Closes the cached view if it was started
+     */
+    @Override
+    public void close()
+    {
+        CuratorCache localCache = cache.getAndSet(null);
+        if ( localCache != null )
+        {
+            initializedCache = null;
+            localCache.close();
+        }
+    }
+
+    /**
+     * Return the current count - the sum of all stripes
+     *
+     * @return count
+     * @throws Exception ZooKeeper errors
+     */
+    public long get() throws Exception
+    {
+        CuratorCache localCache = cache.get();
+        if ( (localCache != null) && (localCache == initializedCache) )   // a partially loaded cache would under count - e.g. after a restart
+        {
+            return localCache.stream()
+                .filter(data -> isStripe(data.getPath()))
+                .map(ChildData::getData)
+                .mapToLong(this::bytesToValue)
+                .sum();
+        }
+
+        List<String> children;
+        try
+        {
+            children = client.getChildren().forPath(counterPath);
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            return 0;
+        }
+
+        long sum = 0;
+        for ( String child : children )
+        {
+            if ( child.startsWith(STRIPE_PREFIX) )
+            {
+                try
+                {
+                    sum += bytesToValue(client.getData().forPath(ZKPaths.makePath(counterPath, child)));
+                }
+                catch ( KeeperException.NoNodeException ignore )
+                {
+                    // stripe was deleted - treat as 0
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Add 1 to the count. Remember to always check {@link AtomicValue#succeeded()}. Note: the pre and post
+     * values are those of the stripe that was updated, not of the total count.
+     *
+     * @return value info of the updated stripe
+     * @throws Exception ZooKeeper errors
+     */
+    public AtomicValue<Long> increment() throws Exception
+    {
+        return add(1L);
+    }
+
+    /**
+     * Subtract 1 from the count. Remember to always check {@link AtomicValue#succeeded()}. Note: the pre and post
+     * values are those of the stripe that was updated, not of the total count.
+     *
+     * @return value info of the updated stripe
+     * @throws Exception ZooKeeper errors
+     */
+    public AtomicValue<Long> decrement() throws Exception
+    {
+        return add(-1L);
+    }
+
+    /**
+     * Add delta to the count. Remember to always check {@link AtomicValue#succeeded()}. Note: the pre and post
+     * values are those of the stripe that was updated, not of the total count.
+     *
+     * @param delta amount to add
+     * @return value info of the updated stripe
+     * @throws Exception ZooKeeper errors
+     */
+    public AtomicValue<Long> add(long delta) throws Exception
+    {
+        int                 index = stripeIndex();
+        AtomicValue<Long>   result = null;
+        for ( int i = 0; i < stripes.length; ++i )
+        {
+            result = stripes[(index + i) % stripes.length].add(delta);
+            if ( result.succeeded() )
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of stripes
+     *
+     * @return qty
+     */
+    public int getStripeQty()
+    {
+        return stripes.length;
+    }
+
+    private int stripeIndex()
+    {
+        // murmur3 finalizer - spreads sequential thread ids over the stripes
+        int hash = (int)Thread.currentThread().getId() ^ processSeed;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private boolean isStripe(String path)
+    {
+        ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(path);
+        return pathAndNode.getPath().equals(counterPath) && pathAndNode.getNode().startsWith(STRIPE_PREFIX);
+    }
+
+    private long bytesToValue(byte[] data)
+    {
+        return stripes[0].bytesToValue(data);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+/**
+ * <p>
+ *     A {@link CuratorCacheStorage} that always keeps the full structure (paths and stats) of the
+ *     cached tree but only retains the data bytes of recently used nodes. Once the total size of the
+ *     retained data exceeds the configured budget, the data of the least recently used nodes is evicted.
+ * </p>
+ *
+ * <p>
+ *     When the storage is used by a {@link CuratorCache}, {@link #get(String)} for a node whose data has
+ *     been evicted reads the data from ZooKeeper in the foreground. I.e. {@code get()} - and the cache's
+ *     {@link CuratorCache#get(String)} - may block and should not be called from cache listeners, watchers
+ *     or background callbacks. Only {@code get()} re-reads evicted data: {@link #stream()} and the cache's
+ *     {@link CuratorCache#children(String)} and {@link CuratorCache#subtree(String, int)} never load data -
+ *     nodes whose data has been evicted are returned with {@code null} data.
+ * </p>
+ *
+ * <p>
+ *     A storage instance can only be used by one {@link CuratorCache} at a time. Building a second cache
+ *     with the same storage fails with an {@link IllegalStateException} until the first cache is closed.
+ * </p>
+ */
+public interface BoundedCuratorCacheStorage extends CuratorCacheStorage
+{
+    /**
+     * Return the number of {@link #get(String)} calls that found the node's data in storage
+     *
+     * @return qty
+     */
+    long getHitCount();
+
+    /**
+     * Return the number of {@link #get(String)} calls for nodes whose data had been evicted
+     *
+     * @return qty
+     */
+    long getMissCount();
+
+    /**
+     * Return the number of times node data has been evicted
+     *
+     * @return qty
+     */
+    long getEvictionCount();
+
+    /**
+     * Return the total size of the data bytes currently retained
+     *
+     * @return size in bytes
+     */
+    long getDataBytes();
+
+    /**
+     * Return the budget for retained data bytes
+     *
+     * @return size in bytes
+     */
+    long getMaxDataBytes();
+}
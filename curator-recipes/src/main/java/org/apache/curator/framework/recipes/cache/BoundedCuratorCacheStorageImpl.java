@@ -0,0 +1,233 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.base.Preconditions;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+class BoundedCuratorCacheStorageImpl implements BoundedCuratorCacheStorage, LoadingCuratorCacheStorage
+{
+    private final long maxDataBytes;
+    private final Map<String, ChildData> dataMap = new ConcurrentHashMap<>();
+    private final Set<String> evictedPaths = ConcurrentHashMap.newKeySet();
+    private final LinkedHashMap<String, Integer> lru = new LinkedHashMap<>(16, 0.75f, true);   // guarded by lru - path -> data length
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private volatile long dataBytes = 0;    // guarded by lru for writes
+    private final AtomicReference<Function<String, Optional<ChildData>>> dataLoader = new AtomicReference<>(null);
+
+    BoundedCuratorCacheStorageImpl(long maxDataBytes)
+    {
+        Preconditions.checkArgument(maxDataBytes >= 0, "maxDataBytes cannot be negative");
+        this.maxDataBytes = maxDataBytes;
+    }
+
+    @Override
+    public void bindDataLoader(Function<String, Optional<ChildData>> dataLoader)
+    {
+        Preconditions.checkNotNull(dataLoader, "dataLoader cannot be null");
+        Preconditions.checkState(this.dataLoader.compareAndSet(null, dataLoader), "The storage is already used by another CuratorCache");
+    }
+
+    @Override
+    public void unbindDataLoader(Function<String, Optional<ChildData>> dataLoader)
+    {
+        this.dataLoader.compareAndSet(dataLoader, null);
+    }
+
+    @Override
+    public Optional<ChildData> put(ChildData data)
+    {
+        synchronized(lru)
+        {
+            ChildData previous = dataMap.put(data.getPath(), data);
+            untrack(data.getPath());
+            if ( (data.getData() == null) && (data.getStat() != null) && (data.getStat().getDataLength() > 0) )
+            {
+                evictedPaths.add(data.getPath());   // data not known - e.g. restored from a snapshot written while it was evicted
+            }
+            else
+            {
+                evictedPaths.remove(data.getPath());
+                track(data);
+            }
+            return Optional.ofNullable(previous);
+        }
+    }
+
+    @Override
+    public Optional<ChildData> remove(String path)
+    {
+        synchronized(lru)
+        {
+            ChildData previous = dataMap.remove(path);
+            evictedPaths.remove(path);
+            untrack(path);
+            return Optional.ofNullable(previous);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized(lru)
+        {
+            dataMap.clear();
+            evictedPaths.clear();
+            lru.clear();
+            dataBytes = 0;
+        }
+    }
+
+    @Override
+    public Optional<ChildData> get(String path)
+    {
+        ChildData childData = dataMap.get(path);
+        if ( childData == null )
+        {
+            return Optional.empty();
+        }
+
+        if ( !evictedPaths.contains(path) )
+        {
+            hitCount.increment();
+            synchronized(lru)
+            {
+                lru.get(path);  // mark as recently used
+            }
+            return Optional.of(childData);
+        }
+
+        missCount.increment();
+        Function<String, Optional<ChildData>> localDataLoader = dataLoader.get();
+        Optional<ChildData> loaded = (localDataLoader != null) ? localDataLoader.apply(path) : Optional.empty();
+        if ( !loaded.isPresent() )
+        {
+            return Optional.of(childData);
+        }
+
+        synchronized(lru)
+        {
+            // only re-admit if the node hasn't changed in the meantime - otherwise the cache will soon be updated
+            ChildData current = dataMap.get(path);
+            if ( (current != null) && evictedPaths.contains(path) && (current.getStat().getMzxid() == loaded.get().getStat().getMzxid()) )
+            {
+                dataMap.put(path, loaded.get());
+                evictedPaths.remove(path);
+                track(loaded.get());
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public Optional<ChildData> getWithoutLoading(String path)
+    {
+        return Optional.ofNullable(dataMap.get(path));
+    }
+
+    @Override
+    public int size()
+    {
+        return dataMap.size();
+    }
+
+    @Override
+    public Stream<ChildData> stream()
+    {
+        return dataMap.values().stream();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public long getDataBytes()
+    {
+        return dataBytes;
+    }
+
+    @Override
+    public long getMaxDataBytes()
+    {
+        return maxDataBytes;
+    }
+
+    private void track(ChildData data)
+    {
+        if ( data.getData() == null )
+        {
+            return;
+        }
+
+        lru.put(data.getPath(), data.getData().length);
+        dataBytes += data.getData().length;
+
+        Iterator<Map.Entry<String, Integer>> iterator = lru.entrySet().iterator();
+        while ( (dataBytes > maxDataBytes) && iterator.hasNext() )
+        {
+            Map.Entry<String, Integer> eldest = iterator.next();
+            iterator.remove();
+            dataBytes -= eldest.getValue();
+
+            ChildData evicted = dataMap.get(eldest.getKey());
+            if ( evicted != null )
+            {
+                dataMap.put(eldest.getKey(), new ChildData(evicted.getPath(), evicted.getStat(), null));
+                evictedPaths.add(eldest.getKey());
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private void untrack(String path)
+    {
+        Integer length = lru.remove(path);
+        if ( length != null )
+        {
+            dataBytes -= length;
+        }
+    }
+}
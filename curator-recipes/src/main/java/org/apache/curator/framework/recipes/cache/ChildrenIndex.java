@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.curator.utils.ZKPaths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of parent path to the full paths of its children. Used by {@link CuratorCacheImpl} so that
+ * children/subtree queries don't need to scan the entire storage.
+ */
+class ChildrenIndex
+{
+    private final Map<String, Set<String>> childrenByParent = new ConcurrentHashMap<>();
+
+    void add(String path)
+    {
+        if ( path.equals(ZKPaths.PATH_SEPARATOR) )
+        {
+            return;
+        }
+        // add inside compute() so that a concurrent remove() of the last child can't drop the set in between
+        childrenByParent.compute(parentOf(path), (__, children) -> {
+            if ( children == null )
+            {
+                children = ConcurrentHashMap.newKeySet();
+            }
+            children.add(path);
+            return children;
+        });
+    }
+
+    void remove(String path)
+    {
+        if ( path.equals(ZKPaths.PATH_SEPARATOR) )
+        {
+            return;
+        }
+        childrenByParent.computeIfPresent(parentOf(path), (__, children) -> {
+            children.remove(path);
+            return children.isEmpty() ? null : children;
+        });
+    }
+
+    void clear()
+    {
+        childrenByParent.clear();
+    }
+
+    /**
+     * @param parentPath parent
+     * @return full paths of the current children of the parent
+     */
+    Set<String> children(String parentPath)
+    {
+        Set<String> children = childrenByParent.get(parentPath);
+        return (children != null) ? Collections.unmodifiableSet(children) : Collections.emptySet();
+    }
+
+    /**
+     * @param path root of the subtree
+     * @param maxDepth maximum depth below the root
+     * @return full paths of the root and its descendants breadth first
+     */
+    List<String> subtree(String path, int maxDepth)
+    {
+        List<String> paths = new ArrayList<>();
+        paths.add(path);
+
+        Deque<String> currentLevel = new ArrayDeque<>();
+        currentLevel.add(path);
+        for ( int depth = 1; (depth <= maxDepth) && !currentLevel.isEmpty(); ++depth )
+        {
+            Deque<String> nextLevel = new ArrayDeque<>();
+            for ( String parent : currentLevel )
+            {
+                Set<String> children = childrenByParent.get(parent);
+                if ( children != null )
+                {
+                    paths.addAll(children);
+                    nextLevel.addAll(children);
+                }
+            }
+            currentLevel = nextLevel;
+        }
+        return paths;
+    }
+
+    private static String parentOf(String path)
+    {
+        return ZKPaths.getPathAndNode(path).getPath();
+    }
+}
@@ -0,0 +1,668 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ *     Storage that trades some CPU for a much smaller heap footprint than
+ *     {@link StandardCuratorCacheStorage}. Paths are kept in a prefix trie of
+ *     interned path segments, the fields of each node's {@link Stat} are kept in primitive
+ *     arrays indexed by a slot number and the data bytes are copied into direct (off-heap)
+ *     slabs. {@link ChildData} instances are only materialized on {@link #get(String)},
+ *     {@link #stream()} or when a previous entry is returned from {@link #put(ChildData)}/{@link #remove(String)}.
+ * </p>
+ *
+ * <p>
+ *     Slabs that no longer contain any live data are released. When the dead space in the
+ *     remaining slabs exceeds the live data the live data is copied into new slabs.
+ * </p>
+ */
+class CompactCuratorCacheStorage implements CuratorCacheStorage
+{
+    static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_SLOT = -1;
+    private static final long NO_DATA = -1;
+
+    // long Stat fields - stored at (slot * LONG_FIELD_QTY) + field
+    private static final int CZXID = 0;
+    private static final int MZXID = 1;
+    private static final int CTIME = 2;
+    private static final int MTIME = 3;
+    private static final int EPHEMERAL_OWNER = 4;
+    private static final int PZXID = 5;
+    private static final int LONG_FIELD_QTY = 6;
+
+    // int Stat fields - stored at (slot * INT_FIELD_QTY) + field
+    private static final int VERSION = 0;
+    private static final int CVERSION = 1;
+    private static final int AVERSION = 2;
+    private static final int DATA_LENGTH = 3;
+    private static final int NUM_CHILDREN = 4;
+    private static final int INT_FIELD_QTY = 5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Interner<String> segmentInterner = Interners.newWeakInterner();
+    private final boolean cacheBytes;
+    private final int slabSize;
+
+    // all guarded by lock
+    private PathNode root;
+    private PathNode[] nodes;
+    private long[] longFields;
+    private int[] intFields;
+    private long[] dataLocations;
+    private int[] dataLengths;
+    private int[] freeSlots;
+    private int freeSlotQty;
+    private int slotHighWater;
+    private int size;
+    private Slabs slabs;
+
+    private static class PathNode
+    {
+        private final String segment;
+        private final PathNode parent;
+        private Map<String, PathNode> children = null;
+        private int slot = NO_SLOT;
+
+        PathNode(String segment, PathNode parent)
+        {
+            this.segment = segment;
+            this.parent = parent;
+        }
+    }
+
+    CompactCuratorCacheStorage(boolean cacheBytes)
+    {
+        this(cacheBytes, DEFAULT_SLAB_SIZE);
+    }
+
+    CompactCuratorCacheStorage(boolean cacheBytes, int slabSize)
+    {
+        Preconditions.checkArgument(slabSize > 0, "slabSize must be greater than 0");
+        this.cacheBytes = cacheBytes;
+        this.slabSize = slabSize;
+        reset();
+    }
+
+    @Override
+    public Optional<ChildData> put(ChildData data)
+    {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try
+        {
+            PathNode node = findOrCreateNode(data.getPath());
+            ChildData previous = null;
+            if ( node.slot == NO_SLOT )
+            {
+                node.slot = allocateSlot(node);
+                ++size;
+            }
+            else
+            {
+                previous = materialize(node);
+                freeData(node.slot);
+            }
+
+            setStat(node.slot, data.getStat());
+            byte[] bytes = cacheBytes ? data.getData() : null;
+            dataLengths[node.slot] = (bytes != null) ? bytes.length : -1;
+            dataLocations[node.slot] = ((bytes != null) && (bytes.length > 0)) ? slabs.write(bytes) : NO_DATA;
+
+            compactIfNeeded();
+            return Optional.ofNullable(previous);
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<ChildData> remove(String path)
+    {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try
+        {
+            PathNode node = findNode(path);
+            if ( (node == null) || (node.slot == NO_SLOT) )
+            {
+                return Optional.empty();
+            }
+
+            ChildData previous = materialize(node);
+            freeData(node.slot);
+            releaseSlot(node.slot);
+            node.slot = NO_SLOT;
+            --size;
+            prune(node);
+
+            compactIfNeeded();
+            return Optional.of(previous);
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try
+        {
+            // detach existing nodes so that any in-progress streams see them as removed
+            for ( int i = 0; i < slotHighWater; ++i )
+            {
+                if ( nodes[i] != null )
+                {
+                    nodes[i].slot = NO_SLOT;
+                }
+            }
+            reset();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<ChildData> get(String path)
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            PathNode node = findNode(path);
+            return ((node != null) && (node.slot != NO_SLOT)) ? Optional.of(materialize(node)) : Optional.empty();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            return size;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Note: the set of nodes is captured when this method is called but each {@link ChildData}
+     * is only materialized as the stream is consumed. Nodes removed in the meantime are skipped.
+     */
+    @Override
+    public Stream<ChildData> stream()
+    {
+        List<PathNode> snapshot;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            snapshot = new ArrayList<>(size);
+            for ( int i = 0; i < slotHighWater; ++i )
+            {
+                if ( nodes[i] != null )
+                {
+                    snapshot.add(nodes[i]);
+                }
+            }
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+        return snapshot.stream().map(this::materializeIfPresent).filter(Objects::nonNull);
+    }
+
+    @VisibleForTesting
+    long debugOffHeapBytes()
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            return slabs.allocatedBytes();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    int debugSlabQty()
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            return slabs.slabQty();
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    String debugSegment(String path)
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            PathNode node = findNode(path);
+            return (node != null) ? node.segment : null;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    String debugSegmentKey(String path)
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            PathNode node = findNode(path);
+            if ( (node == null) || (node.parent == null) )
+            {
+                return null;
+            }
+            for ( Map.Entry<String, PathNode> entry : node.parent.children.entrySet() )
+            {
+                if ( entry.getValue() == node )
+                {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    private void reset()
+    {
+        root = new PathNode("", null);
+        nodes = new PathNode[INITIAL_CAPACITY];
+        longFields = new long[INITIAL_CAPACITY * LONG_FIELD_QTY];
+        intFields = new int[INITIAL_CAPACITY * INT_FIELD_QTY];
+        dataLocations = new long[INITIAL_CAPACITY];
+        dataLengths = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        freeSlotQty = 0;
+        slotHighWater = 0;
+        size = 0;
+        slabs = new Slabs(slabSize);
+    }
+
+    private PathNode findNode(String path)
+    {
+        PathNode node = root;
+        for ( String segment : ZKPaths.split(path) )
+        {
+            node = (node.children != null) ? node.children.get(segment) : null;
+            if ( node == null )
+            {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private PathNode findOrCreateNode(String path)
+    {
+        PathNode node = root;
+        for ( String segment : ZKPaths.split(path) )
+        {
+            if ( node.children == null )
+            {
+                node.children = new HashMap<>(4);
+            }
+            PathNode child = node.children.get(segment);
+            if ( child == null )
+            {
+                String interned = segmentInterner.intern(segment);    // the same instance is both the key and the name
+                child = new PathNode(interned, node);
+                node.children.put(interned, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private void prune(PathNode node)
+    {
+        while ( (node.parent != null) && (node.slot == NO_SLOT) && ((node.children == null) || node.children.isEmpty()) )
+        {
+            node.parent.children.remove(node.segment);
+            node = node.parent;
+        }
+    }
+
+    private static String pathOf(PathNode node)
+    {
+        if ( node.parent == null )
+        {
+            return ZKPaths.PATH_SEPARATOR;
+        }
+
+        Deque<String> segments = new ArrayDeque<>();
+        int length = 0;
+        for ( PathNode n = node; n.parent != null; n = n.parent )
+        {
+            segments.push(n.segment);
+            length += n.segment.length() + 1;
+        }
+        StringBuilder path = new StringBuilder(length);
+        segments.forEach(segment -> path.append(ZKPaths.PATH_SEPARATOR).append(segment));
+        return path.toString();
+    }
+
+    private ChildData materializeIfPresent(PathNode node)
+    {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try
+        {
+            return (node.slot != NO_SLOT) ? materialize(node) : null;
+        }
+        finally
+        {
+            readLock.unlock();
+        }
+    }
+
+    private ChildData materialize(PathNode node)
+    {
+        int slot = node.slot;
+        int dataLength = dataLengths[slot];
+        byte[] data;
+        if ( dataLength < 0 )
+        {
+            data = null;
+        }
+        else if ( dataLength == 0 )
+        {
+            data = new byte[0];
+        }
+        else
+        {
+            data = slabs.read(dataLocations[slot], dataLength);
+        }
+        return new ChildData(pathOf(node), getStat(slot), data);
+    }
+
+    private Stat getStat(int slot)
+    {
+        int l = slot * LONG_FIELD_QTY;
+        int i = slot * INT_FIELD_QTY;
+        return new Stat(
+            longFields[l + CZXID],
+            longFields[l + MZXID],
+            longFields[l + CTIME],
+            longFields[l + MTIME],
+            intFields[i + VERSION],
+            intFields[i + CVERSION],
+            intFields[i + AVERSION],
+            longFields[l + EPHEMERAL_OWNER],
+            intFields[i + DATA_LENGTH],
+            intFields[i + NUM_CHILDREN],
+            longFields[l + PZXID]
+        );
+    }
+
+    private void setStat(int slot, Stat stat)
+    {
+        int l = slot * LONG_FIELD_QTY;
+        int i = slot * INT_FIELD_QTY;
+        longFields[l + CZXID] = stat.getCzxid();
+        longFields[l + MZXID] = stat.getMzxid();
+        longFields[l + CTIME] = stat.getCtime();
+        longFields[l + MTIME] = stat.getMtime();
+        longFields[l + EPHEMERAL_OWNER] = stat.getEphemeralOwner();
+        longFields[l + PZXID] = stat.getPzxid();
+        intFields[i + VERSION] = stat.getVersion();
+        intFields[i + CVERSION] = stat.getCversion();
+        intFields[i + AVERSION] = stat.getAversion();
+        intFields[i + DATA_LENGTH] = stat.getDataLength();
+        intFields[i + NUM_CHILDREN] = stat.getNumChildren();
+    }
+
+    private int allocateSlot(PathNode node)
+    {
+        int slot;
+        if ( freeSlotQty > 0 )
+        {
+            slot = freeSlots[--freeSlotQty];
+        }
+        else
+        {
+            if ( slotHighWater == nodes.length )
+            {
+                int newCapacity = nodes.length * 2;
+                nodes = Arrays.copyOf(nodes, newCapacity);
+                longFields = Arrays.copyOf(longFields, newCapacity * LONG_FIELD_QTY);
+                intFields = Arrays.copyOf(intFields, newCapacity * INT_FIELD_QTY);
+                dataLocations = Arrays.copyOf(dataLocations, newCapacity);
+                dataLengths = Arrays.copyOf(dataLengths, newCapacity);
+                freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+            }
+            slot = slotHighWater++;
+        }
+        nodes[slot] = node;
+        return slot;
+    }
+
+    private void releaseSlot(int slot)
+    {
+        nodes[slot] = null;
+        dataLocations[slot] = NO_DATA;
+        dataLengths[slot] = -1;
+        freeSlots[freeSlotQty++] = slot;
+    }
+
+    private void freeData(int slot)
+    {
+        if ( dataLocations[slot] != NO_DATA )
+        {
+            slabs.free(dataLocations[slot], dataLengths[slot]);
+            dataLocations[slot] = NO_DATA;
+        }
+    }
+
+    private void compactIfNeeded()
+    {
+        if ( !slabs.needsCompaction() )
+        {
+            return;
+        }
+
+        Slabs newSlabs = new Slabs(slabSize);
+        for ( int slot = 0; slot < slotHighWater; ++slot )
+        {
+            if ( (nodes[slot] != null) && (dataLocations[slot] != NO_DATA) )
+            {
+                dataLocations[slot] = newSlabs.write(slabs.read(dataLocations[slot], dataLengths[slot]));
+            }
+        }
+        slabs = newSlabs;
+    }
+
+    /**
+     * Bump allocator over direct ByteBuffers. A location is encoded as {@code (slabIndex << 32) | offset}.
+     * Instances are not thread safe - access is guarded by the storage's lock.
+     */
+    private static class Slabs
+    {
+        private final int slabSize;
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private final List<Integer> liveBytes = new ArrayList<>();
+        private final Deque<Integer> freeIndexes = new ArrayDeque<>();
+        private int current = -1;
+        private long totalLiveBytes = 0;
+        private long totalUsedBytes = 0;
+        private long totalAllocatedBytes = 0;
+
+        Slabs(int slabSize)
+        {
+            this.slabSize = slabSize;
+        }
+
+        long write(byte[] bytes)
+        {
+            int index;
+            if ( bytes.length > slabSize )
+            {
+                index = newSlab(bytes.length);  // oversized values get a dedicated slab
+            }
+            else
+            {
+                if ( (current < 0) || (slabs.get(current).remaining() < bytes.length) )
+                {
+                    current = newSlab(slabSize);
+                }
+                index = current;
+            }
+
+            ByteBuffer slab = slabs.get(index);
+            int offset = slab.position();
+            slab.put(bytes);
+            liveBytes.set(index, liveBytes.get(index) + bytes.length);
+            totalLiveBytes += bytes.length;
+            totalUsedBytes += bytes.length;
+            return ((long)index << 32) | offset;
+        }
+
+        byte[] read(long location, int length)
+        {
+            byte[] bytes = new byte[length];
+            ByteBuffer slab = slabs.get(slabIndex(location)).duplicate();
+            slab.position(slabOffset(location));
+            slab.get(bytes);
+            return bytes;
+        }
+
+        void free(long location, int length)
+        {
+            int index = slabIndex(location);
+            int live = liveBytes.get(index) - length;
+            liveBytes.set(index, live);
+            totalLiveBytes -= length;
+            if ( (live == 0) && (index != current) )
+            {
+                ByteBuffer slab = slabs.get(index);
+                totalUsedBytes -= slab.position();
+                totalAllocatedBytes -= slab.capacity();
+                slabs.set(index, null);
+                freeIndexes.push(index);
+            }
+        }
+
+        boolean needsCompaction()
+        {
+            long deadBytes = totalUsedBytes - totalLiveBytes;
+            return (deadBytes > slabSize) && (deadBytes > totalLiveBytes);
+        }
+
+        long allocatedBytes()
+        {
+            return totalAllocatedBytes;
+        }
+
+        int slabQty()
+        {
+            return slabs.size() - freeIndexes.size();
+        }
+
+        private int newSlab(int capacity)
+        {
+            ByteBuffer slab = ByteBuffer.allocateDirect(capacity);
+            totalAllocatedBytes += capacity;
+            if ( !freeIndexes.isEmpty() )
+            {
+                int index = freeIndexes.pop();
+                slabs.set(index, slab);
+                liveBytes.set(index, 0);
+                return index;
+            }
+            slabs.add(slab);
+            liveBytes.add(0);
+            return slabs.size() - 1;
+        }
+
+        private static int slabIndex(long location)
+        {
+            return (int)(location >>> 32);
+        }
+
+        private static int slabOffset(long location)
+        {
+            return (int)location;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.StandardListenerManager;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -111,6 +112,13 @@ class CompatibleCuratorCacheBridge implements CuratorCacheBridge, TreeCacheListe
         return StreamSupport.stream(iterable.spliterator(), false);
     }
 
+    @Override
+    public Stream<ChildData> children(String parentPath)
+    {
+        Map<String, ChildData> children = cache.getCurrentChildren(parentPath);
+        return (children != null) ? children.values().stream() : Stream.empty();
+    }
+
     @Override
     public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception
     {
@@ -52,6 +52,49 @@ public interface CuratorCacheAccessor
      */
     Stream<ChildData> stream();
 
+    /**
+     * Return a stream over the entries that are direct children of the given path. The default
+     * implementation filters {@link #stream()} via {@link #parentPathFilter(String)}. {@link CuratorCache}
+     * maintains an index of children so that this is proportional to the number of children
+     * rather than to the size of the cache.
+     *
+     * @param parentPath the parent path
+     * @return stream over the children of the parent path
+     * @since 5.2.0
+     */
+    default Stream<ChildData> children(String parentPath)
+    {
+        return stream().filter(parentPathFilter(parentPath));
+    }
+
+    /**
+     * Return a stream over the entry at the given path (if any) and all of its descendants
+     *
+     * @param path the root of the subtree
+     * @return stream over the subtree
+     * @since 5.2.0
+     */
+    default Stream<ChildData> subtree(String path)
+    {
+        return subtree(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return a stream over the entry at the given path (if any) and its descendants that are at most
+     * {@code maxDepth} levels below it. i.e. a {@code maxDepth} of {@code 0} returns only the entry at
+     * the given path, {@code 1} additionally returns its children, etc. The default implementation filters
+     * {@link #stream()}. {@link CuratorCache} walks its index of children instead.
+     *
+     * @param path the root of the subtree
+     * @param maxDepth maximum depth below the given path
+     * @return stream over the subtree
+     * @since 5.2.0
+     */
+    default Stream<ChildData> subtree(String path, int maxDepth)
+    {
+        return stream().filter(subtreeFilter(path, maxDepth));
+    }
+
     /**
      * Filter for a ChildData stream. Only ChildDatas with the given parent path
      * pass the filter. This is useful to stream one level below a given path in the cache.
@@ -72,4 +115,27 @@ public interface CuratorCacheAccessor
             return pathAndNode.getPath().equals(parentPath);
         };
     }
+
+    /**
+     * Filter for a ChildData stream. Only ChildDatas at the given path or at most {@code maxDepth}
+     * levels below it pass the filter.
+     *
+     * @param path the root of the subtree
+     * @param maxDepth maximum depth below the given path
+     * @return filter
+     * @since 5.2.0
+     */
+    static Predicate<ChildData> subtreeFilter(String path, int maxDepth)
+    {
+        String prefix = path.endsWith(ZKPaths.PATH_SEPARATOR) ? path : (path + ZKPaths.PATH_SEPARATOR);
+        int baseDepth = ZKPaths.split(path).size();
+        return d -> {
+            String childPath = d.getPath();
+            if ( childPath.equals(path) )
+            {
+                return true;
+            }
+            return childPath.startsWith(prefix) && ((ZKPaths.split(childPath).size() - baseDepth) <= maxDepth);
+        };
+    }
 }
@@ -19,6 +19,8 @@
 
 package org.apache.curator.framework.recipes.cache;
 
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public interface CuratorCacheBuilder
@@ -45,6 +47,67 @@ public interface CuratorCacheBuilder
      */
     CuratorCacheBuilder withExceptionHandler(Consumer<Exception> exceptionHandler);
 
+    /**
+     * <p>
+     *     Use a local snapshot file to speed up cold starts. When the cache is closed (after it has been
+     *     initialized) the paths, stats and data of the cached nodes are written to the file. When the cache
+     *     is started, the snapshot is loaded into storage (generating {@link CuratorCacheListener.Type#NODE_CREATED}
+     *     events as usual) and is then reconciled against ZooKeeper by comparing each node's mzxid/cversion so
+     *     that only changed nodes are re-read.
+     * </p>
+     *
+     * <p>
+     *     Note: the snapshot is only as secure as the local file system - it contains the cached data.
+     * </p>
+     *
+     * @param snapshotFile snapshot file (need not exist)
+     * @return this
+     * @since 5.2.0
+     */
+    CuratorCacheBuilder withSnapshotFile(Path snapshotFile);
+
+    /**
+     * After a connection loss the cache is rebuilt incrementally: the stat of every cached node is
+     * compared with ZooKeeper and only changed nodes are re-read. When many clients reconnect at the same
+     * time (e.g. after an ensemble restart) these rebuilds can still hit the ensemble simultaneously. Use this
+     * to delay each rebuild by a random amount of time up to the given maximum.
+     *
+     * @param maxJitterMs maximum delay before rebuilding or {@code 0} for no delay (the default)
+     * @return this
+     * @since 5.2.0
+     */
+    CuratorCacheBuilder withRebuildJitterMs(int maxJitterMs);
+
+    /**
+     * Limit the rate at which cached nodes are checked against ZooKeeper when rebuilding the cache after
+     * a connection loss or a snapshot restore. Nodes whose versions have changed are still re-read as they are found.
+     *
+     * @param maxChecksPerSecond maximum checks per second or {@code 0} for no limit (the default)
+     * @return this
+     * @since 5.2.0
+     */
+    CuratorCacheBuilder withRebuildRateLimit(double maxChecksPerSecond);
+
+    /**
+     * <p>
+     *     Deliver node events to listeners in batches. The events of each window are folded per path
+     *     so that listeners only see the net change of each node - e.g. a node that is created and then
+     *     changed is reported as a single {@link CuratorCacheListener.Type#NODE_CREATED} with the latest data
+     *     and a node that is created and then deleted is not reported at all. All events of a window are
+     *     delivered with a single executor task.
+     * </p>
+     *
+     * <p>
+     *     Pending events are delivered before {@link CuratorCacheListener#initialized()} is called.
+     * </p>
+     *
+     * @param window the window or {@code 0} to deliver every event individually (the default)
+     * @param unit window unit
+     * @return this
+     * @since 5.2.0
+     */
+    CuratorCacheBuilder withEventCoalescing(long window, TimeUnit unit);
+
     /**
      * Return a new Curator Cache based on the builder methods that have been called
      *
@@ -19,7 +19,10 @@
 
 package org.apache.curator.framework.recipes.cache;
 
+import com.google.common.base.Preconditions;
 import org.apache.curator.framework.CuratorFramework;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 class CuratorCacheBuilderImpl implements CuratorCacheBuilder
@@ -29,6 +32,10 @@ class CuratorCacheBuilderImpl implements CuratorCacheBuilder
     private CuratorCacheStorage storage;
     private Consumer<Exception> exceptionHandler;
     private CuratorCache.Options[] options;
+    private Path snapshotFile;
+    private int rebuildJitterMs = 0;
+    private double rebuildMaxChecksPerSecond = 0;
+    private long coalesceWindowMs = 0;
 
     CuratorCacheBuilderImpl(CuratorFramework client, String path)
     {
@@ -57,9 +64,40 @@ class CuratorCacheBuilderImpl implements CuratorCacheBuilder
         return this;
     }
 
+    @Override
+    public CuratorCacheBuilder withSnapshotFile(Path snapshotFile)
+    {
+        this.snapshotFile = snapshotFile;
+        return this;
+    }
+
+    @Override
+    public CuratorCacheBuilder withRebuildJitterMs(int maxJitterMs)
+    {
+        Preconditions.checkArgument(maxJitterMs >= 0, "maxJitterMs cannot be negative");
+        this.rebuildJitterMs = maxJitterMs;
+        return this;
+    }
+
+    @Override
+    public CuratorCacheBuilder withRebuildRateLimit(double maxChecksPerSecond)
+    {
+        Preconditions.checkArgument(maxChecksPerSecond >= 0, "maxChecksPerSecond cannot be negative");
+        this.rebuildMaxChecksPerSecond = maxChecksPerSecond;
+        return this;
+    }
+
+    @Override
+    public CuratorCacheBuilder withEventCoalescing(long window, TimeUnit unit)
+    {
+        Preconditions.checkArgument(window >= 0, "window cannot be negative");
+        this.coalesceWindowMs = unit.toMillis(window);
+        return this;
+    }
+
     @Override
     public CuratorCache build()
     {
-        return new CuratorCacheImpl(client, storage, path, options, exceptionHandler);
+        return new CuratorCacheImpl(client, storage, path, options, exceptionHandler, snapshotFile, rebuildJitterMs, rebuildMaxChecksPerSecond, coalesceWindowMs);
     }
 }
\ No newline at end of file
@@ -34,11 +34,20 @@ import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static org.apache.curator.framework.recipes.cache.CuratorCacheListener.Type.*;
@@ -58,7 +67,18 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
     private final boolean clearOnClose;
     private final StandardListenerManager<CuratorCacheListener> listenerManager = StandardListenerManager.standard();
     private final Consumer<Exception> exceptionHandler;
-    private final OutstandingOps outstandingOps = new OutstandingOps(() -> callListeners(CuratorCacheListener::initialized));
+    private final Path snapshotFile;
+    private final ChildrenIndex childrenIndex = new ChildrenIndex();
+    private final Function<String, Optional<ChildData>> dataLoader = this::loadData;
+    private final int rebuildJitterMs;
+    private final long rebuildIntervalNanos;
+    private final ScheduledExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+    private final OutstandingOps outstandingOps = new OutstandingOps(this::initialized);
+    private final long coalesceWindowMs;
+    private final EventCoalescer eventCoalescer;
+    private final ScheduledExecutorService coalesceExecutor;
+    private volatile boolean isInitialized = false;
 
     private enum State
     {
@@ -68,6 +88,11 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
     }
 
     CuratorCacheImpl(CuratorFramework client, CuratorCacheStorage storage, String path, Options[] optionsArg, Consumer<Exception> exceptionHandler)
+    {
+        this(client, storage, path, optionsArg, exceptionHandler, null, 0, 0, 0);
+    }
+
+    CuratorCacheImpl(CuratorFramework client, CuratorCacheStorage storage, String path, Options[] optionsArg, Consumer<Exception> exceptionHandler, Path snapshotFile, int rebuildJitterMs, double rebuildMaxChecksPerSecond, long coalesceWindowMs)
     {
         Set<Options> options = (optionsArg != null) ? Sets.newHashSet(optionsArg) : Collections.emptySet();
         this.client = client;
@@ -76,30 +101,67 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         recursive = !options.contains(Options.SINGLE_NODE_CACHE);
         compressedData = options.contains(Options.COMPRESSED_DATA);
         clearOnClose = !options.contains(Options.DO_NOT_CLEAR_ON_CLOSE);
+        if ( this.storage instanceof LoadingCuratorCacheStorage )
+        {
+            ((LoadingCuratorCacheStorage)this.storage).bindDataLoader(dataLoader);
+        }
         persistentWatcher = new PersistentWatcher(client, path, recursive);
         persistentWatcher.getListenable().addListener(this::processEvent);
         persistentWatcher.getResetListenable().addListener(this::rebuild);
         this.exceptionHandler = (exceptionHandler != null) ? exceptionHandler : e -> log.error("CuratorCache error", e);
+        this.snapshotFile = snapshotFile;
+        this.rebuildJitterMs = rebuildJitterMs;
+        rebuildIntervalNanos = (rebuildMaxChecksPerSecond > 0) ? (long)(TimeUnit.SECONDS.toNanos(1) / rebuildMaxChecksPerSecond) : 0;
+        rebuildExecutor = ((rebuildJitterMs > 0) || (rebuildIntervalNanos > 0)) ? ThreadUtils.newSingleThreadScheduledExecutor("CuratorCache-rebuild") : null;
+        this.coalesceWindowMs = coalesceWindowMs;
+        eventCoalescer = (coalesceWindowMs > 0) ? new EventCoalescer() : null;
+        coalesceExecutor = (coalesceWindowMs > 0) ? ThreadUtils.newSingleThreadScheduledExecutor("CuratorCache-coalesce") : null;
     }
 
     @Override
     public void start()
     {
         Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Already started");
+        storage.stream().map(ChildData::getPath).forEach(childrenIndex::add);   // storage might not be empty
+        if ( snapshotFile != null )
+        {
+            restoreSnapshot();
+        }
         persistentWatcher.start();
     }
 
     @Override
     public void close()
     {
+        if ( (eventCoalescer != null) && (state.get() == State.STARTED) )
+        {
+            flushEvents();
+        }
         if ( state.compareAndSet(State.STARTED, State.CLOSED) )
         {
             persistentWatcher.close();
+            if ( rebuildExecutor != null )
+            {
+                rebuildExecutor.shutdownNow();
+            }
+            if ( coalesceExecutor != null )
+            {
+                coalesceExecutor.shutdownNow();
+            }
+            if ( snapshotFile != null )
+            {
+                writeSnapshot();
+            }
             if ( clearOnClose )
             {
                 storage.clear();
+                childrenIndex.clear();
             }
         }
+        if ( storage instanceof LoadingCuratorCacheStorage )
+        {
+            ((LoadingCuratorCacheStorage)storage).unbindDataLoader(dataLoader);   // the storage can now be used by another cache
+        }
     }
 
     @Override
@@ -132,6 +194,34 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         return storage.stream();
     }
 
+    @Override
+    public Stream<ChildData> children(String parentPath)
+    {
+        return childrenIndex.children(parentPath).stream()
+            .map(this::getWithoutLoading)
+            .filter(Optional::isPresent)
+            .map(Optional::get);
+    }
+
+    @Override
+    public Stream<ChildData> subtree(String path, int maxDepth)
+    {
+        return childrenIndex.subtree(path, maxDepth).stream()
+            .map(this::getWithoutLoading)
+            .filter(Optional::isPresent)
+            .map(Optional::get);
+    }
+
+    private Optional<ChildData> getWithoutLoading(String path)
+    {
+        // like stream(), children() and subtree() must not block to re-read evicted data
+        if ( storage instanceof LoadingCuratorCacheStorage )
+        {
+            return ((LoadingCuratorCacheStorage)storage).getWithoutLoading(path);
+        }
+        return storage.get(path);
+    }
+
     @VisibleForTesting
     CuratorCacheStorage storage()
     {
@@ -145,16 +235,69 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
             return;
         }
 
-        // rebuild from the root first
-        nodeChanged(path);
+        if ( (rebuildExecutor == null) || (storage.size() == 0) )
+        {
+            doRebuild();
+        }
+        else if ( rebuildScheduled.compareAndSet(false, true) )
+        {
+            // spread the rebuilds of a fleet of clients that all reconnected at the same time
+            long delayMs = (rebuildJitterMs > 0) ? ThreadLocalRandom.current().nextLong(rebuildJitterMs) : 0;
+            rebuildExecutor.schedule(() -> {
+                rebuildScheduled.set(false);
+                doRebuild();
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuild incrementally - every cached node is reconciled via {@link #reconcile(String, Stat)} so
+     * that only nodes that have changed are re-read. When storage is empty this is a complete load
+     * starting at the root.
+     */
+    private void doRebuild()
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return;
+        }
+
+        outstandingOps.increment();    // the walk might be slow (rate limited) - don't let initialized() fire early
+        try
+        {
+            boolean rootIsCached = false;
+            long nextCheckNanos = System.nanoTime();
+            Iterator<ChildData> iterator = storage.stream().iterator();
+            while ( iterator.hasNext() && (state.get() == State.STARTED) )
+            {
+                if ( rebuildIntervalNanos > 0 )
+                {
+                    long waitNanos = nextCheckNanos - System.nanoTime();
+                    if ( waitNanos > 0 )
+                    {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    nextCheckNanos = Math.max(nextCheckNanos, System.nanoTime() - rebuildIntervalNanos) + rebuildIntervalNanos;
+                }
+
+                ChildData data = iterator.next();
+                rootIsCached = rootIsCached || data.getPath().equals(path);
+                reconcile(data.getPath(), data.getStat());
+            }
 
-        // rebuild remaining nodes - note: this may cause some nodes to be queried twice
-        // (though versions checks will minimize that). If someone can think of a better
-        // way let us know
-        storage.stream()
-            .map(ChildData::getPath)
-            .filter(p -> !p.equals(path))
-            .forEach(this::nodeChanged);
+            if ( !rootIsCached )
+            {
+                nodeChanged(path);
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            outstandingOps.decrement();
+        }
     }
 
     private void processEvent(WatchedEvent event)
@@ -222,7 +365,122 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         }
     }
 
+    private void restoreSnapshot()
+    {
+        try
+        {
+            List<ChildData> entries = CuratorCacheSnapshot.read(snapshotFile, path);
+            entries.forEach(this::putStorage);  // the first rebuild will reconcile them
+            log.debug("Restored {} nodes from snapshot {}", entries.size(), snapshotFile);
+        }
+        catch ( Exception e )
+        {
+            // fall back to a complete load
+            handleException(e);
+        }
+    }
+
+    private void writeSnapshot()
+    {
+        if ( !isInitialized )
+        {
+            // a partial snapshot can't be reconciled correctly
+            return;
+        }
+
+        try
+        {
+            CuratorCacheSnapshot.write(snapshotFile, path, storage.stream());
+        }
+        catch ( Exception e )
+        {
+            handleException(e);
+        }
+    }
+
+    /**
+     * Compare the cached stat of a node (e.g. restored from a snapshot or cached before a connection loss)
+     * with the current stat in ZooKeeper and only re-read what has changed. Any new children of the node
+     * are loaded completely. Deleted nodes are found by their own reconcile.
+     */
+    private void reconcile(String fromPath, Stat cachedStat)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return;
+        }
+
+        try
+        {
+            BackgroundCallback callback = (__, event) -> {
+                if ( event.getResultCode() == OK.intValue() )
+                {
+                    Stat stat = event.getStat();
+                    if ( stat.getMzxid() != cachedStat.getMzxid() )
+                    {
+                        nodeChanged(fromPath, false);
+                    }
+                    // the child count check catches nodes whose children were never loaded (e.g. the connection was lost during the initial load)
+                    if ( recursive && ((stat.getCversion() != cachedStat.getCversion()) || (stat.getNumChildren() != childrenIndex.children(fromPath).size())) )
+                    {
+                        loadNewChildren(fromPath);
+                    }
+                }
+                else if ( event.getResultCode() == NONODE.intValue() )
+                {
+                    removeStorage(fromPath);
+                }
+                else
+                {
+                    handleException(event);
+                }
+                outstandingOps.decrement();
+            };
+
+            outstandingOps.increment();
+            client.checkExists().inBackground(callback).forPath(fromPath);
+        }
+        catch ( Exception e )
+        {
+            handleException(e);
+        }
+    }
+
+    private void loadNewChildren(String fromPath)
+    {
+        try
+        {
+            BackgroundCallback callback = (__, event) -> {
+                if ( event.getResultCode() == OK.intValue() )
+                {
+                    Set<String> cachedChildren = childrenIndex.children(fromPath);
+                    event.getChildren().stream()
+                        .map(child -> ZKPaths.makePath(fromPath, child))
+                        .filter(childPath -> !cachedChildren.contains(childPath))
+                        .forEach(this::nodeChanged);
+                }
+                else if ( event.getResultCode() != NONODE.intValue() )
+                {
+                    handleException(event);
+                }
+                outstandingOps.decrement();
+            };
+
+            outstandingOps.increment();
+            client.getChildren().inBackground(callback).forPath(fromPath);
+        }
+        catch ( Exception e )
+        {
+            handleException(e);
+        }
+    }
+
     private void nodeChanged(String fromPath)
+    {
+        nodeChanged(fromPath, true);
+    }
+
+    private void nodeChanged(String fromPath, boolean checkChildren)
     {
         if ( state.get() != State.STARTED )
         {
@@ -235,7 +493,10 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
                 if ( event.getResultCode() == OK.intValue() )
                 {
                     Optional<ChildData> childData = putStorage(new ChildData(event.getPath(), event.getStat(), event.getData()));
-                    checkChildrenChanged(event.getPath(), childData.map(ChildData::getStat).orElse(null), event.getStat());
+                    if ( checkChildren )
+                    {
+                        checkChildrenChanged(event.getPath(), childData.map(ChildData::getStat).orElse(null), event.getStat());
+                    }
                 }
                 else if ( event.getResultCode() == NONODE.intValue() )
                 {
@@ -264,6 +525,30 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         }
     }
 
+    private Optional<ChildData> loadData(String fromPath)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return Optional.empty();
+        }
+
+        try
+        {
+            Stat stat = new Stat();
+            byte[] data = compressedData ? client.getData().decompressed().storingStatIn(stat).forPath(fromPath) : client.getData().storingStatIn(stat).forPath(fromPath);
+            return Optional.of(new ChildData(fromPath, stat, data));
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            // the NodeDeleted event will remove it from storage
+        }
+        catch ( Exception e )
+        {
+            handleException(e);
+        }
+        return Optional.empty();
+    }
+
     private Optional<ChildData> putStorage(ChildData data)
     {
         Optional<ChildData> previousData = storage.put(data);
@@ -271,19 +556,63 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         {
             if ( previousData.get().getStat().getVersion() != data.getStat().getVersion() )
             {
-                callListeners(l -> l.event(NODE_CHANGED, previousData.get(), data));
+                nodeEvent(NODE_CHANGED, previousData.get(), data);
             }
         }
         else
         {
-            callListeners(l -> l.event(NODE_CREATED, null, data));
+            childrenIndex.add(data.getPath());
+            nodeEvent(NODE_CREATED, null, data);
         }
         return previousData;
     }
 
     private void removeStorage(String path)
     {
-        storage.remove(path).ifPresent(previousData -> callListeners(l -> l.event(NODE_DELETED, previousData, null)));
+        childrenIndex.remove(path);
+        storage.remove(path).ifPresent(previousData -> nodeEvent(NODE_DELETED, previousData, null));
+    }
+
+    private void initialized()
+    {
+        isInitialized = true;
+        if ( eventCoalescer != null )
+        {
+            flushEvents();  // listeners must see the initial nodes before initialized()
+        }
+        callListeners(CuratorCacheListener::initialized);
+    }
+
+    private void nodeEvent(CuratorCacheListener.Type type, ChildData oldData, ChildData data)
+    {
+        if ( eventCoalescer == null )
+        {
+            callListeners(l -> l.event(type, oldData, data));
+        }
+        else if ( eventCoalescer.add(type, oldData, data) && (state.get() == State.STARTED) )
+        {
+            try
+            {
+                coalesceExecutor.schedule(this::flushEvents, coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+            catch ( RejectedExecutionException ignore )
+            {
+                // closed concurrently - listeners aren't called after close anyway
+            }
+        }
+    }
+
+    private void flushEvents()
+    {
+        // lock so that windows are delivered in order
+        synchronized(eventCoalescer)
+        {
+            List<EventCoalescer.Event> events = eventCoalescer.drain();
+            if ( !events.isEmpty() )
+            {
+                callListeners(l -> events.forEach(event -> l.event(event.type, event.oldData, event.data)));
+            }
+        }
     }
 
     private void callListeners(Consumer<CuratorCacheListener> proc)
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.zookeeper.data.Stat;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads/writes the local snapshot file used by {@link CuratorCacheImpl} to speed up cold starts.
+ * The file contains the cache's root path and the path, stat and data of every entry.
+ */
+class CuratorCacheSnapshot
+{
+    private static final int MAGIC = 0x43434853;    // "CCHS"
+    private static final int VERSION = 1;
+
+    /**
+     * Write the entries to the file. The snapshot is written to a temp file first that is then
+     * moved into place so that a partially written snapshot is never read.
+     *
+     * @param file snapshot file
+     * @param rootPath the cache's root path
+     * @param entries the entries to write
+     * @throws IOException errors
+     */
+    static void write(Path file, String rootPath, Stream<ChildData> entries) throws IOException
+    {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))) )
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(rootPath);
+
+            Iterator<ChildData> iterator = entries.iterator();
+            while ( iterator.hasNext() )
+            {
+                ChildData entry = iterator.next();
+                out.writeBoolean(true);
+                out.writeUTF(entry.getPath());
+                writeStat(out, entry.getStat());
+                byte[] data = entry.getData();
+                out.writeInt((data != null) ? data.length : -1);
+                if ( data != null )
+                {
+                    out.write(data);
+                }
+            }
+            out.writeBoolean(false);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the entries in the file
+     *
+     * @param file snapshot file
+     * @param rootPath the cache's root path
+     * @return the entries or an empty list if the file does not exist or was written for a different root path
+     * @throws IOException errors
+     */
+    static List<ChildData> read(Path file, String rootPath) throws IOException
+    {
+        List<ChildData> entries = new ArrayList<>();
+        if ( !Files.exists(file) )
+        {
+            return entries;
+        }
+
+        try ( DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))) )
+        {
+            if ( (in.readInt() != MAGIC) || (in.readInt() != VERSION) )
+            {
+                throw new IOException("Not a CuratorCache snapshot file: " + file);
+            }
+            if ( !in.readUTF().equals(rootPath) )
+            {
+                return entries;
+            }
+
+            while ( in.readBoolean() )
+            {
+                String path = in.readUTF();
+                Stat stat = readStat(in);
+                int length = in.readInt();
+                byte[] data = null;
+                if ( length >= 0 )
+                {
+                    data = new byte[length];
+                    in.readFully(data);
+                }
+                entries.add(new ChildData(path, stat, data));
+            }
+        }
+        return entries;
+    }
+
+    private static void writeStat(DataOutputStream out, Stat stat) throws IOException
+    {
+        out.writeLong(stat.getCzxid());
+        out.writeLong(stat.getMzxid());
+        out.writeLong(stat.getCtime());
+        out.writeLong(stat.getMtime());
+        out.writeInt(stat.getVersion());
+        out.writeInt(stat.getCversion());
+        out.writeInt(stat.getAversion());
+        out.writeLong(stat.getEphemeralOwner());
+        out.writeInt(stat.getDataLength());
+        out.writeInt(stat.getNumChildren());
+        out.writeLong(stat.getPzxid());
+    }
+
+    private static Stat readStat(DataInputStream in) throws IOException
+    {
+        return new Stat(
+            in.readLong(),  // czxid
+            in.readLong(),  // mzxid
+            in.readLong(),  // ctime
+            in.readLong(),  // mtime
+            in.readInt(),   // version
+            in.readInt(),   // cversion
+            in.readInt(),   // aversion
+            in.readLong(),  // ephemeralOwner
+            in.readInt(),   // dataLength
+            in.readInt(),   // numChildren
+            in.readLong()   // pzxid
+        );
+    }
+
+    private CuratorCacheSnapshot()
+    {
+    }
+}
@@ -47,6 +47,33 @@ public interface CuratorCacheStorage extends CuratorCacheAccessor
         return new StandardCuratorCacheStorage(false);
     }
 
+    /**
+     * Return a new storage instance optimized for very large caches. Paths are kept in a prefix
+     * trie, stats are kept in primitive arrays and the data bytes are kept off-heap in direct
+     * buffers. {@link ChildData} instances are created on demand so reads are somewhat slower
+     * than {@link #standard()} but the heap used per node is much smaller.
+     *
+     * @return compact storage instance
+     * @since 5.2.0
+     */
+    static CuratorCacheStorage compact()
+    {
+        return new CompactCuratorCacheStorage(true);
+    }
+
+    /**
+     * Return a new storage instance that keeps all paths and stats but only retains the data bytes
+     * of the most recently used nodes. See {@link BoundedCuratorCacheStorage} for details.
+     *
+     * @param maxDataBytes budget for the total size of the retained data bytes
+     * @return bounded storage instance
+     * @since 5.2.0
+     */
+    static BoundedCuratorCacheStorage bounded(long maxDataBytes)
+    {
+        return new BoundedCuratorCacheStorageImpl(maxDataBytes);
+    }
+
     /**
      * Add an entry to storage and return any previous entry at that path
      *
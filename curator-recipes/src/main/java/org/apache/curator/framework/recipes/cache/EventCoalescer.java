@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds the node events of a time window per path so that listeners only see the net change of each node.
+ * Used by {@link CuratorCacheImpl} and {@link TreeCache} when event coalescing is enabled. Paths are
+ * reported in the order of their first event in the window.
+ */
+class EventCoalescer
+{
+    private final Map<String, Event> pending = new LinkedHashMap<>();   // guarded by this
+    private boolean flushScheduled = false;    // guarded by this
+
+    static class Event
+    {
+        final Type type;
+        final ChildData oldData;
+        final ChildData data;
+
+        Event(Type type, ChildData oldData, ChildData data)
+        {
+            this.type = type;
+            this.oldData = oldData;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Add an event to the current window
+     *
+     * @param type event type
+     * @param oldData the old data or null
+     * @param data the new data or null
+     * @return true if this is the first event of the window - i.e. the caller must schedule a flush
+     */
+    synchronized boolean add(Type type, ChildData oldData, ChildData data)
+    {
+        String  path = (data != null) ? data.getPath() : oldData.getPath();
+        Event   folded = fold(pending.get(path), type, oldData, data);
+        if ( folded != null )
+        {
+            pending.put(path, folded);  // re-putting keeps the path's original position
+        }
+        else
+        {
+            pending.remove(path);
+        }
+
+        if ( flushScheduled )
+        {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * Remove and return the events of the current window
+     *
+     * @return folded events
+     */
+    synchronized List<Event> drain()
+    {
+        List<Event> events = new ArrayList<>(pending.values());
+        pending.clear();
+        flushScheduled = false;
+        return events;
+    }
+
+    private static Event fold(Event previous, Type type, ChildData oldData, ChildData data)
+    {
+        if ( previous == null )
+        {
+            return new Event(type, oldData, data);
+        }
+
+        switch ( previous.type )
+        {
+            case NODE_CREATED:
+            {
+                // a node that is created and deleted within the window is never reported
+                return (type == Type.NODE_DELETED) ? null : new Event(Type.NODE_CREATED, null, data);
+            }
+
+            case NODE_CHANGED:
+            {
+                return (type == Type.NODE_DELETED) ? new Event(Type.NODE_DELETED, previous.oldData, null) : new Event(Type.NODE_CHANGED, previous.oldData, data);
+            }
+
+            default:
+            case NODE_DELETED:
+            {
+                // deleted and re-created is reported as a change
+                return (type == Type.NODE_DELETED) ? previous : new Event(Type.NODE_CHANGED, previous.oldData, data);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Storage that can re-read data it has dropped (e.g. {@link BoundedCuratorCacheStorage}). The owning
+ * {@link CuratorCacheImpl} binds its loader - a storage instance can only be bound to one cache at a time.
+ */
+interface LoadingCuratorCacheStorage extends CuratorCacheStorage
+{
+    /**
+     * Bind the storage to a cache so that dropped data can be re-read
+     *
+     * @param dataLoader reads the current node from ZooKeeper or returns empty if it can't be read
+     * @throws IllegalStateException if the storage is already bound to another cache
+     */
+    void bindDataLoader(Function<String, Optional<ChildData>> dataLoader);
+
+    /**
+     * Unbind the given loader so that the storage can be used by another cache. Does nothing if the
+     * storage is bound to a different loader.
+     *
+     * @param dataLoader loader passed to {@link #bindDataLoader(Function)}
+     */
+    void unbindDataLoader(Function<String, Optional<ChildData>> dataLoader);
+
+    /**
+     * Same as {@link #get(String)} but never loads dropped data and never blocks - nodes whose data has
+     * been dropped are returned with {@code null} data
+     *
+     * @param path path to get
+     * @return entry or {@code empty()}
+     */
+    Optional<ChildData> getWithoutLoading(String path);
+}
@@ -29,6 +29,7 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.EnsureContainers;
 import org.apache.curator.framework.WatcherRemoveCuratorFramework;
 import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.StandardListenerManager;
@@ -46,6 +47,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -54,6 +56,7 @@ import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -82,6 +85,8 @@ public class PathChildrenCache implements Closeable
     private final Set<Operation> operationsQuantizer = Sets.newSetFromMap(Maps.<Operation, Boolean>newConcurrentMap());
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
     private final EnsureContainers ensureContainers;
+    private final Set<String> pendingDataReads = Sets.newConcurrentHashSet();
+    private volatile long lastChildrenPzxid = -1;
 
     private enum State
     {
@@ -130,6 +135,9 @@ public class PathChildrenCache implements Closeable
     @VisibleForTesting
     volatile Exchanger<Object> rebuildTestExchanger;
 
+    @VisibleForTesting
+    final AtomicLong debugUnchangedChildrenCount = new AtomicLong();
+
     private volatile ConnectionStateListener connectionStateListener = new ConnectionStateListener()
     {
         @Override
@@ -331,10 +339,41 @@ public class PathChildrenCache implements Closeable
         clear();
 
         List<String> children = client.getChildren().forPath(path);
+        List<String> fullPaths = new ArrayList<String>(children.size());
         for ( String child : children )
         {
-            String fullPath = ZKPaths.makePath(path, child);
-            internalRebuildNode(fullPath);
+            fullPaths.add(ZKPaths.makePath(path, child));
+        }
+
+        // pipeline the reads instead of reading each child in turn - only the stats are needed if data isn't cached
+        Map<String, ? extends BulkResult<?>> results;
+        if ( !cacheData )
+        {
+            results = client.checkExists().forPaths(fullPaths);
+        }
+        else if ( dataIsCompressed )
+        {
+            results = client.getData().decompressed().forPaths(fullPaths);
+        }
+        else
+        {
+            results = client.getData().forPaths(fullPaths);
+        }
+        for ( BulkResult<?> result : results.values() )
+        {
+            if ( result.isSuccess() )
+            {
+                currentData.put(result.getPath(), new ChildData(result.getPath(), result.getStat(), cacheData ? (byte[])result.getValue() : null));
+            }
+            else if ( result.getResultCode() == KeeperException.Code.NONODE.intValue() )
+            {
+                // node no longer exists - remove it
+                currentData.remove(result.getPath());
+            }
+            else
+            {
+                throw result.getException();
+            }
 
             if ( rebuildTestExchanger != null )
             {
@@ -479,6 +518,7 @@ public class PathChildrenCache implements Closeable
     public void clear()
     {
         currentData.clear();
+        lastChildrenPzxid = -1;
     }
 
     enum RefreshMode
@@ -504,7 +544,7 @@ public class PathChildrenCache implements Closeable
                 }
                 if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
                 {
-                    processChildren(event.getChildren(), mode);
+                    processChildren(event.getChildren(), event.getStat(), mode);
                 }
                 else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
                 {
@@ -548,6 +588,7 @@ public class PathChildrenCache implements Closeable
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
+                pendingDataReads.remove(fullPath);
                 if ( reRemoveWatchersOnBackgroundClosed() )
                 {
                     return;
@@ -681,32 +722,75 @@ public class PathChildrenCache implements Closeable
         }
     }
 
-    private void processChildren(List<String> children, RefreshMode mode) throws Exception
+    private void processChildren(List<String> children, Stat stat, RefreshMode mode) throws Exception
     {
-        Set<String> removedNodes = Sets.newHashSet(currentData.keySet());
-        for ( String child : children ) {
-            removedNodes.remove(ZKPaths.makePath(path, child));
+        /*
+            The parent's pzxid only changes when children are added or removed. So, if it's unchanged
+            since the last refresh, the membership is unchanged and there is nothing to reconcile.
+            The pzxid is used instead of the cversion as the cversion restarts if the parent is re-created.
+            A child whose read failed is neither cached nor pending though - it must still be read
+         */
+        if ( (mode == RefreshMode.STANDARD) && (stat != null) && (stat.getPzxid() == lastChildrenPzxid) && allChildrenKnown(children) )
+        {
+            debugUnchangedChildrenCount.incrementAndGet();
+            return;
         }
 
-        for ( String fullPath : removedNodes )
+        Set<String> newNodes = Sets.newHashSetWithExpectedSize(children.size());
+        for ( String child : children )
         {
-            remove(fullPath);
+            newNodes.add(ZKPaths.makePath(path, child));
+        }
+
+        for ( String fullPath : currentData.keySet() )
+        {
+            if ( !newNodes.contains(fullPath) )
+            {
+                remove(fullPath);
+            }
         }
 
         for ( String name : children )
         {
             String fullPath = ZKPaths.makePath(path, name);
 
-            if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || !currentData.containsKey(fullPath) )
+            // only read new children - and only once even if refreshes arrive while the read is outstanding
+            if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || (!currentData.containsKey(fullPath) && !pendingDataReads.contains(fullPath)) )
             {
-                getDataAndStat(fullPath);
+                pendingDataReads.add(fullPath);
+                try
+                {
+                    getDataAndStat(fullPath);
+                }
+                catch ( Exception e )
+                {
+                    pendingDataReads.remove(fullPath);
+                    throw e;
+                }
             }
 
             updateInitialSet(name, NULL_CHILD_DATA);
         }
+        if ( stat != null )
+        {
+            lastChildrenPzxid = stat.getPzxid();
+        }
         maybeOfferInitializedEvent(initialSet.get());
     }
 
+    private boolean allChildrenKnown(List<String> children)
+    {
+        for ( String name : children )
+        {
+            String fullPath = ZKPaths.makePath(path, name);
+            if ( !currentData.containsKey(fullPath) && !pendingDataReads.contains(fullPath) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void applyNewData(String fullPath, int resultCode, Stat stat, byte[] bytes)
     {
         if ( resultCode == KeeperException.Code.OK.intValue() ) // otherwise - node must have dropped or something - we should be getting another event
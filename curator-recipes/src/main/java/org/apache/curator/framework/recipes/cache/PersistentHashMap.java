@@ -0,0 +1,414 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable hash array mapped trie. Every modification returns a new map that shares
+ * all unchanged nodes with the original so that modifications are O(log32 n) and the original
+ * can still be read safely by any thread. Used by {@link TreeCacheSnapshot}.
+ */
+final class PersistentHashMap<V> implements Iterable<Map.Entry<String, V>>
+{
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?> EMPTY = new PersistentHashMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private static final class Leaf<V> extends AbstractMap.SimpleImmutableEntry<String, V>
+    {
+        final int hash;
+
+        Leaf(int hash, String key, V value)
+        {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Slots are {@link Leaf}s or child nodes. A node with a zero bitmap is a collision node: its slots
+     * are the leaves of keys that have the same hash.
+     */
+    private static final class Node
+    {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots)
+        {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        boolean isCollision()
+        {
+            return (bitmap == 0) && (slots.length > 0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentHashMap<V> empty()
+    {
+        return (PersistentHashMap<V>)EMPTY;
+    }
+
+    private PersistentHashMap(Node root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(String key)
+    {
+        Leaf<V> leaf = (Leaf<V>)find(root, 0, hash(key), key);
+        return (leaf != null) ? leaf.getValue() : null;
+    }
+
+    /**
+     * @param key key
+     * @param value new value
+     * @return a map with the key set to the value - this map if the key already had the value
+     */
+    PersistentHashMap<V> plus(String key, V value)
+    {
+        Leaf<V> leaf = new Leaf<>(hash(key), key, value);
+        Node newRoot = plus(root, 0, leaf);
+        if ( newRoot == root )
+        {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, (find(root, 0, leaf.hash, key) != null) ? size : (size + 1));
+    }
+
+    /**
+     * @param key key
+     * @return a map without the key - this map if it doesn't contain the key
+     */
+    PersistentHashMap<V> minus(String key)
+    {
+        Object newRoot = minus(root, 0, hash(key), key);
+        if ( newRoot == root )
+        {
+            return this;
+        }
+        if ( newRoot == null )
+        {
+            return empty();
+        }
+        return new PersistentHashMap<>((Node)newRoot, size - 1);    // the root is never collapsed into a leaf
+    }
+
+    /**
+     * Iterates the entries in hash order without copying
+     *
+     * @return iterator
+     */
+    @Override
+    public Iterator<Map.Entry<String, V>> iterator()
+    {
+        return new Iterator<Map.Entry<String, V>>()
+        {
+            private final Deque<Object[]> slotsStack = new ArrayDeque<>();
+            private final Deque<Integer> indexStack = new ArrayDeque<>();
+            private Leaf<V> next;
+
+            {
+                push(root);
+                next = advance();
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<String, V> next()
+            {
+                if ( next == null )
+                {
+                    throw new NoSuchElementException();
+                }
+                Leaf<V> result = next;
+                next = advance();
+                return result;
+            }
+
+            private void push(Node node)
+            {
+                slotsStack.push(node.slots);
+                indexStack.push(0);
+            }
+
+            @SuppressWarnings("unchecked")
+            private Leaf<V> advance()
+            {
+                while ( !slotsStack.isEmpty() )
+                {
+                    Object[] slots = slotsStack.peek();
+                    int index = indexStack.pop();
+                    if ( index >= slots.length )
+                    {
+                        slotsStack.pop();
+                        continue;
+                    }
+                    indexStack.push(index + 1);
+
+                    Object slot = slots[index];
+                    if ( slot instanceof Leaf )
+                    {
+                        return (Leaf<V>)slot;
+                    }
+                    push((Node)slot);
+                }
+                return null;
+            }
+        };
+    }
+
+    private static Object find(Node node, int shift, int hash, String key)
+    {
+        while ( node != null )
+        {
+            if ( node.isCollision() )
+            {
+                for ( Object slot : node.slots )
+                {
+                    if ( ((Leaf<?>)slot).getKey().equals(key) )
+                    {
+                        return slot;
+                    }
+                }
+                return null;
+            }
+
+            int bit = bit(hash, shift);
+            if ( (node.bitmap & bit) == 0 )
+            {
+                return null;
+            }
+            Object slot = node.slots[index(node.bitmap, bit)];
+            if ( slot instanceof Leaf )
+            {
+                Leaf<?> leaf = (Leaf<?>)slot;
+                return ((leaf.hash == hash) && leaf.getKey().equals(key)) ? leaf : null;
+            }
+            node = (Node)slot;
+            shift += BITS;
+        }
+        return null;
+    }
+
+    private static Node plus(Node node, int shift, Leaf<?> leaf)
+    {
+        if ( node.isCollision() )
+        {
+            int collisionHash = ((Leaf<?>)node.slots[0]).hash;
+            if ( collisionHash != leaf.hash )
+            {
+                return split(shift, node, collisionHash, leaf);
+            }
+            for ( int i = 0; i < node.slots.length; ++i )
+            {
+                Leaf<?> existing = (Leaf<?>)node.slots[i];
+                if ( existing.getKey().equals(leaf.getKey()) )
+                {
+                    return (existing.getValue() == leaf.getValue()) ? node : new Node(0, replace(node.slots, i, leaf));
+                }
+            }
+            Object[] slots = Arrays.copyOf(node.slots, node.slots.length + 1);
+            slots[node.slots.length] = leaf;
+            return new Node(0, slots);
+        }
+
+        int bit = bit(leaf.hash, shift);
+        int index = index(node.bitmap, bit);
+        if ( (node.bitmap & bit) == 0 )
+        {
+            return new Node(node.bitmap | bit, insert(node.slots, index, leaf));
+        }
+
+        Object slot = node.slots[index];
+        if ( slot instanceof Leaf )
+        {
+            Leaf<?> existing = (Leaf<?>)slot;
+            if ( existing.getKey().equals(leaf.getKey()) )
+            {
+                return (existing.getValue() == leaf.getValue()) ? node : new Node(node.bitmap, replace(node.slots, index, leaf));
+            }
+            return new Node(node.bitmap, replace(node.slots, index, merge(shift + BITS, existing, leaf)));
+        }
+
+        Node child = (Node)slot;
+        Node newChild = plus(child, shift + BITS, leaf);
+        return (newChild == child) ? node : new Node(node.bitmap, replace(node.slots, index, newChild));
+    }
+
+    /**
+     * @return the new node, a single leaf if only one leaf remains or null if the node is empty
+     */
+    private static Object minus(Node node, int shift, int hash, String key)
+    {
+        if ( node.isCollision() )
+        {
+            for ( int i = 0; i < node.slots.length; ++i )
+            {
+                if ( ((Leaf<?>)node.slots[i]).getKey().equals(key) )
+                {
+                    Object[] slots = remove(node.slots, i);
+                    return (slots.length == 1) ? slots[0] : new Node(0, slots);
+                }
+            }
+            return node;
+        }
+
+        int bit = bit(hash, shift);
+        if ( (node.bitmap & bit) == 0 )
+        {
+            return node;
+        }
+        int index = index(node.bitmap, bit);
+        Object slot = node.slots[index];
+        Object newSlot;
+        if ( slot instanceof Leaf )
+        {
+            if ( !((Leaf<?>)slot).getKey().equals(key) )
+            {
+                return node;
+            }
+            newSlot = null;
+        }
+        else
+        {
+            newSlot = minus((Node)slot, shift + BITS, hash, key);
+            if ( newSlot == slot )
+            {
+                return node;
+            }
+        }
+
+        if ( newSlot != null )
+        {
+            if ( (shift > 0) && (node.slots.length == 1) && (newSlot instanceof Leaf) )
+            {
+                return newSlot;
+            }
+            return new Node(node.bitmap, replace(node.slots, index, newSlot));
+        }
+        if ( node.slots.length == 1 )
+        {
+            return null;
+        }
+        if ( (shift > 0) && (node.slots.length == 2) && (node.slots[index ^ 1] instanceof Leaf) )
+        {
+            return node.slots[index ^ 1];   // collapse so that the remaining leaf moves up
+        }
+        return new Node(node.bitmap & ~bit, remove(node.slots, index));
+    }
+
+    private static Node merge(int shift, Leaf<?> a, Leaf<?> b)
+    {
+        if ( a.hash == b.hash )
+        {
+            return new Node(0, new Object[]{a, b});
+        }
+        int bitA = bit(a.hash, shift);
+        int bitB = bit(b.hash, shift);
+        if ( bitA == bitB )
+        {
+            return new Node(bitA, new Object[]{merge(shift + BITS, a, b)});
+        }
+        return new Node(bitA | bitB, (Integer.compareUnsigned(bitA, bitB) < 0) ? new Object[]{a, b} : new Object[]{b, a});
+    }
+
+    private static Node split(int shift, Node collision, int collisionHash, Leaf<?> leaf)
+    {
+        int bitCollision = bit(collisionHash, shift);
+        int bitLeaf = bit(leaf.hash, shift);
+        if ( bitCollision == bitLeaf )
+        {
+            return new Node(bitCollision, new Object[]{split(shift + BITS, collision, collisionHash, leaf)});
+        }
+        return new Node(bitCollision | bitLeaf, (Integer.compareUnsigned(bitCollision, bitLeaf) < 0) ? new Object[]{collision, leaf} : new Object[]{leaf, collision});
+    }
+
+    private static int hash(String key)
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift)
+    {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit)
+    {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static Object[] replace(Object[] slots, int index, Object slot)
+    {
+        Object[] copy = slots.clone();
+        copy[index] = slot;
+        return copy;
+    }
+
+    private static Object[] insert(Object[] slots, int index, Object slot)
+    {
+        Object[] copy = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        copy[index] = slot;
+        System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+        return copy;
+    }
+
+    private static Object[] remove(Object[] slots, int index)
+    {
+        Object[] copy = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+        return copy;
+    }
+}
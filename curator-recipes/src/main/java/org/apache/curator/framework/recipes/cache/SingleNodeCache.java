@@ -0,0 +1,345 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.curator.framework.listen.StandardListenerManager;
+import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A replacement for {@link NodeCache} that keeps the data from a single node locally cached using a
+ * ZooKeeper 3.6+ non-recursive persistent watch. Unlike {@link NodeCache}, which must set a new watch
+ * with every read, the watch is set once and stays set through connection lapses. Thus:</p>
+ *
+ * <ul>
+ *     <li>Data is read only when the node is created or changed - deletes are applied without a read</li>
+ *     <li>No changes are missed between an event and the re-registration of the watch</li>
+ *     <li>When the watch is re-established after a connection lapse, the node's stat is compared to
+ *     the cached stat and data is only read if the node has changed</li>
+ * </ul>
+ *
+ * <p><b>IMPORTANT</b> - it's not possible to stay transactionally in sync. Users of this class must
+ * be prepared for false-positives and false-negatives. Additionally, always use the version number
+ * when updating data to avoid overwriting another process' change.</p>
+ *
+ * @since 5.2.0
+ */
+public class SingleNodeCache implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final String path;
+    private final boolean dataIsCompressed;
+    private final PersistentWatcher persistentWatcher;
+    private final AtomicReference<ChildData> data = new AtomicReference<>(null);
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private final StandardListenerManager<NodeCacheListener> listeners = StandardListenerManager.standard();
+    private final AtomicLong dataReads = new AtomicLong(0);
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private final BackgroundCallback backgroundCallback = new BackgroundCallback()
+    {
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+        {
+            processBackgroundResult(event);
+        }
+    };
+
+    /**
+     * @param client curator client
+     * @param path the full path to the node to cache
+     */
+    public SingleNodeCache(CuratorFramework client, String path)
+    {
+        this(client, path, false);
+    }
+
+    /**
+     * @param client curator client
+     * @param path the full path to the node to cache
+     * @param dataIsCompressed if true, data in the path is compressed
+     */
+    public SingleNodeCache(CuratorFramework client, String path, boolean dataIsCompressed)
+    {
+        this.client = Preconditions.checkNotNull(client, "client cannot be null");
+        this.path = PathUtils.validatePath(path);
+        this.dataIsCompressed = dataIsCompressed;
+        persistentWatcher = new PersistentWatcher(client, path, false);
+        persistentWatcher.getListenable().addListener(this::processEvent);
+        persistentWatcher.getResetListenable().addListener(this::watcherReset);
+    }
+
+    /**
+     * Start the cache. The cache is not started automatically. You must call this method.
+     *
+     * @throws Exception errors
+     */
+    public void start() throws Exception
+    {
+        start(false);
+    }
+
+    /**
+     * Same as {@link #start()} but gives the option of doing an initial build
+     *
+     * @param buildInitial if true, {@link #rebuild()} will be called before this method
+     *                     returns in order to get an initial view of the node
+     * @throws Exception errors
+     */
+    public void start(boolean buildInitial) throws Exception
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+
+        if ( buildInitial )
+        {
+            rebuild();
+        }
+        persistentWatcher.start();
+    }
+
+    @Override
+    public void close()
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            persistentWatcher.close();
+            listeners.clear();
+        }
+    }
+
+    /**
+     * Return the cache listenable
+     *
+     * @return listenable
+     */
+    public Listenable<NodeCacheListener> getListenable()
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Closed");
+
+        return listeners;
+    }
+
+    /**
+     * NOTE: this is a BLOCKING method. Read the node's current data WITHOUT generating any events
+     * to send to listeners.
+     *
+     * @throws Exception errors
+     */
+    public void rebuild() throws Exception
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "Not started");
+
+        try
+        {
+            Stat    stat = new Stat();
+            byte[]  bytes = dataIsCompressed ? client.getData().decompressed().storingStatIn(stat).forPath(path) : client.getData().storingStatIn(stat).forPath(path);
+            dataReads.incrementAndGet();
+            data.set(new ChildData(path, stat, bytes));
+        }
+        catch ( KeeperException.NoNodeException e )
+        {
+            data.set(null);
+        }
+    }
+
+    /**
+     * Return the current data. There are no guarantees of accuracy. This is
+     * merely the most recent view of the data. If the node does not exist,
+     * this returns null
+     *
+     * @return data or null
+     */
+    public ChildData getCurrentData()
+    {
+        return data.get();
+    }
+
+    /**
+     * Return the path this cache is watching
+     *
+     * @return path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    @VisibleForTesting
+    long getDataReadCount()
+    {
+        return dataReads.get();
+    }
+
+    private void processEvent(WatchedEvent event)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return;
+        }
+
+        switch ( event.getType() )
+        {
+            case NodeCreated:
+            case NodeDataChanged:
+            {
+                readData();
+                break;
+            }
+
+            case NodeDeleted:
+            {
+                setNewData(null);
+                break;
+            }
+        }
+    }
+
+    private void watcherReset()
+    {
+        // changes may have been missed while the watch wasn't set - only read the data if the node has changed
+        try
+        {
+            client.checkExists().inBackground(backgroundCallback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            handleException(e);
+        }
+    }
+
+    private void readData()
+    {
+        try
+        {
+            if ( dataIsCompressed )
+            {
+                client.getData().decompressed().inBackground(backgroundCallback).forPath(path);
+            }
+            else
+            {
+                client.getData().inBackground(backgroundCallback).forPath(path);
+            }
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            handleException(e);
+        }
+    }
+
+    private void processBackgroundResult(CuratorEvent event)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return;
+        }
+
+        switch ( event.getType() )
+        {
+            case GET_DATA:
+            {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    dataReads.incrementAndGet();
+                    ChildData currentData = data.get();
+                    if ( (currentData == null) || (event.getStat().getMzxid() > currentData.getStat().getMzxid()) )  // ignore stale reads
+                    {
+                        setNewData(new ChildData(path, event.getStat(), event.getData()));
+                    }
+                }
+                else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                {
+                    setNewData(null);
+                }
+                break;
+            }
+
+            case EXISTS:
+            {
+                if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                {
+                    setNewData(null);
+                }
+                else if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    ChildData currentData = data.get();
+                    if ( (currentData == null) || (currentData.getStat().getMzxid() != event.getStat().getMzxid()) )
+                    {
+                        readData();
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private void setNewData(ChildData newData)
+    {
+        ChildData   previousData = data.getAndSet(newData);
+        if ( !Objects.equal(previousData, newData) )
+        {
+            listeners.forEach(listener -> {
+                try
+                {
+                    listener.nodeChanged();
+                }
+                catch ( Exception e )
+                {
+                    ThreadUtils.checkInterrupted(e);
+                    log.error("Calling listener", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Default behavior is just to log the exception
+     *
+     * @param e the exception
+     */
+    protected void handleException(Throwable e)
+    {
+        log.error("", e);
+    }
+}
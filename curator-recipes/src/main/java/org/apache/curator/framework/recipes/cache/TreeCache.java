@@ -51,11 +51,16 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -93,6 +98,9 @@ public class TreeCache implements Closeable
         private boolean createParentNodes = false;
         private boolean disableZkWatches = false;
         private TreeCacheSelector selector = new DefaultTreeCacheSelector();
+        private int maxOutstandingReads = Integer.MAX_VALUE;
+        private long coalesceWindowMs = 0;
+        private boolean persistentSnapshots = false;
 
         private Builder(CuratorFramework client, String path)
         {
@@ -110,7 +118,7 @@ public class TreeCache implements Closeable
             {
                 executor = Executors.newSingleThreadExecutor(defaultThreadFactory);
             }
-            return new TreeCache(client, path, cacheData, dataIsCompressed, maxDepth, executor, createParentNodes, disableZkWatches, selector);
+            return new TreeCache(client, path, cacheData, dataIsCompressed, maxDepth, executor, createParentNodes, disableZkWatches, selector, maxOutstandingReads, coalesceWindowMs, persistentSnapshots);
         }
 
         /**
@@ -196,6 +204,62 @@ public class TreeCache implements Closeable
             this.selector = selector;
             return this;
         }
+
+        /**
+         * By default, TreeCache sends the reads for every node it discovers immediately. For large trees
+         * this can queue a huge number of requests. Use this method to limit the number of reads that are
+         * outstanding at any one time. Further reads are queued and sent in the order that nodes were
+         * discovered - i.e. the tree is loaded breadth first. See {@link #getPendingReadCount()}
+         * and {@link #getCompletedReadCount()} to track the progress of the initial load.
+         *
+         * @param maxOutstandingReads maximum number of outstanding reads
+         * @return this for chaining
+         * @since 5.2.0
+         */
+        public Builder setMaxOutstandingReads(int maxOutstandingReads)
+        {
+            Preconditions.checkArgument(maxOutstandingReads > 0, "maxOutstandingReads must be a positive number");
+            this.maxOutstandingReads = maxOutstandingReads;
+            return this;
+        }
+
+        /**
+         * By default, TreeCache publishes every node event individually. Use this method to publish
+         * node events in batches instead. The {@link TreeCacheEvent.Type#NODE_ADDED}, {@link TreeCacheEvent.Type#NODE_UPDATED}
+         * and {@link TreeCacheEvent.Type#NODE_REMOVED} events of each window are folded per path so that listeners
+         * only see the net change of each node - e.g. a node that is added and then removed within the window
+         * is not published at all. All events of a window are published with a single executor task.
+         * Pending node events are always published before any other event (e.g. {@link TreeCacheEvent.Type#INITIALIZED}).
+         *
+         * @param window the window or {@code 0} to publish every event individually
+         * @param unit window unit
+         * @return this for chaining
+         * @since 5.2.0
+         */
+        public Builder setEventCoalescingWindow(long window, TimeUnit unit)
+        {
+            Preconditions.checkArgument(window >= 0, "window cannot be negative");
+            this.coalesceWindowMs = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * By default, TreeCache copies the requested nodes on every read and {@link TreeCache#snapshot()} must copy
+         * the entire tree. Use this method to maintain the cached nodes as a persistent immutable tree instead.
+         * Each change then produces a new tree that shares all unchanged nodes with the previous one so that
+         * {@link TreeCache#snapshot()} is O(1) and {@link TreeCache#getCurrentChildren(String)},
+         * {@link TreeCache#iterator()} and {@link TreeCache#size()} read a consistent view without copying.
+         * The trade off is an allocation per path element for each change.
+         *
+         * @param persistentSnapshots true to maintain the persistent tree
+         * @return this for chaining
+         * @since 5.2.0
+         */
+        public Builder setPersistentSnapshots(boolean persistentSnapshots)
+        {
+            this.persistentSnapshots = persistentSnapshots;
+            return this;
+        }
     }
 
     /**
@@ -273,7 +337,7 @@ public class TreeCache implements Closeable
         {
             if ( treeState.get() == TreeState.STARTED )
             {
-                maybeWatch(client.getChildren()).forPath(path);
+                submitRead(() -> maybeWatch(client.getChildren()).forPath(path));
             }
         }
 
@@ -283,11 +347,11 @@ public class TreeCache implements Closeable
             {
                 if ( dataIsCompressed )
                 {
-                    maybeWatch(client.getData().decompressed()).forPath(path);
+                    submitRead(() -> maybeWatch(client.getData().decompressed()).forPath(path));
                 }
                 else
                 {
-                    maybeWatch(client.getData()).forPath(path);
+                    submitRead(() -> maybeWatch(client.getData()).forPath(path));
                 }
             }
         }
@@ -326,6 +390,7 @@ public class TreeCache implements Closeable
             {
                 return;
             }
+            updateSnapshot(this);
             ConcurrentMap<String, TreeNode> childMap = childrenUpdater.getAndSet(this, null);
             if ( childMap != null )
             {
@@ -350,7 +415,7 @@ public class TreeCache implements Closeable
             if ( parent == null )
             {
                 // Root node; use an exist query to watch for existence.
-                maybeWatch(client.checkExists()).forPath(path);
+                submitRead(() -> maybeWatch(client.checkExists()).forPath(path));
             }
             else
             {
@@ -397,6 +462,7 @@ public class TreeCache implements Closeable
         public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
         {
             LOG.debug("processResult: {}", event);
+            readCompleted();
             Stat newStat = event.getStat();
             switch ( event.getType() )
             {
@@ -417,7 +483,10 @@ public class TreeCache implements Closeable
                     {
                         // Only update stat if mzxid is same, otherwise we might obscure
                         // GET_DATA event updates.
-                        childDataUpdater.compareAndSet(this, oldChildData, new ChildData(oldChildData.getPath(), newStat, oldChildData.getData()));
+                        if ( childDataUpdater.compareAndSet(this, oldChildData, new ChildData(oldChildData.getPath(), newStat, oldChildData.getData())) )
+                        {
+                            updateSnapshot(this);
+                        }
                     }
 
                     if ( event.getChildren().isEmpty() )
@@ -483,6 +552,7 @@ public class TreeCache implements Closeable
                         }
                         if ( childDataUpdater.compareAndSet(this, oldChildData, toUpdate) )
                         {
+                            updateSnapshot(this);
                             if ( isLive(oldChildData) )
                             {
                                 publishEvent(TreeCacheEvent.Type.NODE_UPDATED, toPublish, oldChildData);
@@ -535,6 +605,27 @@ public class TreeCache implements Closeable
      */
     private final AtomicBoolean isInitialized = new AtomicBoolean(false);
 
+    /**
+     * A read that is sent once the number of outstanding reads allows it
+     */
+    @FunctionalInterface
+    private interface Read
+    {
+        void send() throws Exception;
+    }
+
+    private final int maxOutstandingReads;
+    private final Queue<Read> queuedReads = new ConcurrentLinkedQueue<Read>();
+    private final AtomicInteger queuedReadCount = new AtomicInteger(0);
+    private final AtomicInteger outstandingReads = new AtomicInteger(0);
+    private final AtomicLong completedReads = new AtomicLong(0);
+
+    private final long coalesceWindowMs;
+    private final EventCoalescer eventCoalescer;
+    private final ScheduledExecutorService coalesceExecutor;
+
+    private final AtomicReference<TreeCacheSnapshot> currentSnapshot;    // null if persistent snapshots are disabled
+
     private final TreeNode root;
     private final WatcherRemoveCuratorFramework client;
     private final ExecutorService executorService;
@@ -571,7 +662,7 @@ public class TreeCache implements Closeable
      */
     public TreeCache(CuratorFramework client, String path)
     {
-        this(client, path, true, false, Integer.MAX_VALUE, Executors.newSingleThreadExecutor(defaultThreadFactory), false, false, new DefaultTreeCacheSelector());
+        this(client, path, true, false, Integer.MAX_VALUE, Executors.newSingleThreadExecutor(defaultThreadFactory), false, false, new DefaultTreeCacheSelector(), Integer.MAX_VALUE, 0, false);
     }
 
     /**
@@ -583,8 +674,11 @@ public class TreeCache implements Closeable
      * @param createParentNodes true to create parent nodes as containers
      * @param disableZkWatches true to disable Zookeeper watches
      * @param selector         the selector to use
+     * @param maxOutstandingReads maximum number of outstanding reads
+     * @param coalesceWindowMs window in which node events are folded or 0
+     * @param persistentSnapshots if true, the cached nodes are also maintained as a persistent immutable tree
      */
-    TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, final ExecutorService executorService, boolean createParentNodes, boolean disableZkWatches, TreeCacheSelector selector)
+    TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, final ExecutorService executorService, boolean createParentNodes, boolean disableZkWatches, TreeCacheSelector selector, int maxOutstandingReads, long coalesceWindowMs, boolean persistentSnapshots)
     {
         this.createParentNodes = createParentNodes;
         this.selector = Preconditions.checkNotNull(selector, "selector cannot be null");
@@ -596,6 +690,11 @@ public class TreeCache implements Closeable
         this.maxDepth = maxDepth;
         this.disableZkWatches = disableZkWatches;
         this.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+        this.maxOutstandingReads = maxOutstandingReads;
+        this.coalesceWindowMs = coalesceWindowMs;
+        eventCoalescer = (coalesceWindowMs > 0) ? new EventCoalescer() : null;
+        coalesceExecutor = (coalesceWindowMs > 0) ? ThreadUtils.newSingleThreadScheduledExecutor("TreeCache-coalesce") : null;
+        currentSnapshot = persistentSnapshots ? new AtomicReference<>(new TreeCacheSnapshot(root.path)) : null;
     }
 
     /**
@@ -631,6 +730,14 @@ public class TreeCache implements Closeable
             client.getConnectionStateListenable().removeListener(connectionStateListener);
             listeners.clear();
             executorService.shutdown();
+            if ( coalesceExecutor != null )
+            {
+                coalesceExecutor.shutdownNow();
+            }
+            while ( queuedReads.poll() != null )
+            {
+                queuedReadCount.decrementAndGet();
+            }
             try
             {
                 root.wasDeleted();
@@ -664,6 +771,87 @@ public class TreeCache implements Closeable
         return errorListeners;
     }
 
+    /**
+     * Return the number of reads that have been queued or sent but not completed yet. Together with
+     * {@link #getCompletedReadCount()} this can be used to track the progress of the initial load.
+     *
+     * @return count
+     * @since 5.2.0
+     */
+    public int getPendingReadCount()
+    {
+        return queuedReadCount.get() + outstandingReads.get();
+    }
+
+    /**
+     * Return the total number of reads that have completed
+     *
+     * @return count
+     * @since 5.2.0
+     */
+    public long getCompletedReadCount()
+    {
+        return completedReads.get();
+    }
+
+    private void submitRead(Read read)
+    {
+        queuedReadCount.incrementAndGet();
+        queuedReads.add(read);
+        sendQueuedReads();
+    }
+
+    private void readCompleted()
+    {
+        completedReads.incrementAndGet();
+        outstandingReads.decrementAndGet();
+        sendQueuedReads();
+    }
+
+    private void sendQueuedReads()
+    {
+        for(;;)
+        {
+            int     current = outstandingReads.get();
+            if ( current >= maxOutstandingReads )
+            {
+                return;
+            }
+            if ( !outstandingReads.compareAndSet(current, current + 1) )
+            {
+                continue;
+            }
+
+            Read    read = queuedReads.poll();
+            if ( read == null )
+            {
+                outstandingReads.decrementAndGet();
+                if ( queuedReads.isEmpty() )
+                {
+                    return;
+                }
+                continue;   // a read was queued while the slot was taken
+            }
+            queuedReadCount.decrementAndGet();
+
+            if ( treeState.get() != TreeState.STARTED )
+            {
+                outstandingReads.decrementAndGet();
+                continue;
+            }
+            try
+            {
+                read.send();
+            }
+            catch ( Exception e )
+            {
+                outstandingReads.decrementAndGet();
+                ThreadUtils.checkInterrupted(e);
+                handleException(e);
+            }
+        }
+    }
+
     private TreeNode find(String findPath)
     {
         PathUtils.validatePath(findPath);
@@ -709,6 +897,11 @@ public class TreeCache implements Closeable
      */
     public Map<String, ChildData> getCurrentChildren(String fullPath)
     {
+        if ( currentSnapshot != null )
+        {
+            return currentSnapshot.get().getCurrentChildren(fullPath);
+        }
+
         TreeNode node = find(fullPath);
         if ( node == null || !isLive(node.childData) )
         {
@@ -749,6 +942,11 @@ public class TreeCache implements Closeable
      */
     public ChildData getCurrentData(String fullPath)
     {
+        if ( currentSnapshot != null )
+        {
+            return currentSnapshot.get().getCurrentData(fullPath);
+        }
+
         TreeNode node = find(fullPath);
         if ( node == null )
         {
@@ -766,6 +964,10 @@ public class TreeCache implements Closeable
      */
     public Iterator<ChildData> iterator()
     {
+        if ( currentSnapshot != null )
+        {
+            return currentSnapshot.get().iterator();
+        }
         return new TreeCacheIterator(root);
     }
 
@@ -777,9 +979,53 @@ public class TreeCache implements Closeable
      */
     public int size()
     {
+        if ( currentSnapshot != null )
+        {
+            return currentSnapshot.get().size();
+        }
         return size(root);
     }
 
+    /**
+     * Return an immutable, consistent view of all nodes in the cache. This is O(1) if persistent
+     * snapshots are enabled (see {@link Builder#setPersistentSnapshots(boolean)}). Otherwise, the
+     * snapshot is built by copying the current nodes.
+     *
+     * @return snapshot
+     * @since 5.2.0
+     */
+    public TreeCacheSnapshot snapshot()
+    {
+        if ( currentSnapshot != null )
+        {
+            return currentSnapshot.get();
+        }
+
+        TreeCacheSnapshot snapshot = new TreeCacheSnapshot(root.path);
+        Iterator<ChildData> iterator = new TreeCacheIterator(root);
+        while ( iterator.hasNext() )
+        {
+            snapshot = snapshot.put(iterator.next());
+        }
+        return snapshot;
+    }
+
+    private void updateSnapshot(TreeNode node)
+    {
+        if ( currentSnapshot == null )
+        {
+            return;
+        }
+
+        // re-read the node under the lock so that the snapshot always ends up with the node's latest state
+        synchronized(currentSnapshot)
+        {
+            ChildData data = node.childData;
+            TreeCacheSnapshot snapshot = currentSnapshot.get();
+            currentSnapshot.set(isLive(data) ? snapshot.put(data) : snapshot.remove(node.path));
+        }
+    }
+
     private int size(TreeNode node)
     {
         int size;
@@ -885,12 +1131,108 @@ public class TreeCache implements Closeable
 
     private void publishEvent(TreeCacheEvent.Type type)
     {
-        publishEvent(new TreeCacheEvent(type, null));
+        if ( eventCoalescer != null )
+        {
+            synchronized(eventCoalescer)
+            {
+                flushEvents();  // pending node events must be published first
+                publishEvent(new TreeCacheEvent(type, null));
+            }
+        }
+        else
+        {
+            publishEvent(new TreeCacheEvent(type, null));
+        }
     }
 
     private void publishEvent(TreeCacheEvent.Type type, ChildData data, ChildData oldData)
     {
-        publishEvent(new TreeCacheEvent(type, data, oldData));
+        if ( eventCoalescer == null )
+        {
+            publishEvent(new TreeCacheEvent(type, data, oldData));
+            return;
+        }
+
+        boolean needsFlush;
+        switch ( type )
+        {
+            case NODE_ADDED:
+            {
+                needsFlush = eventCoalescer.add(CuratorCacheListener.Type.NODE_CREATED, null, data);
+                break;
+            }
+
+            case NODE_UPDATED:
+            {
+                needsFlush = eventCoalescer.add(CuratorCacheListener.Type.NODE_CHANGED, oldData, data);
+                break;
+            }
+
+            default:
+            {
+                needsFlush = eventCoalescer.add(CuratorCacheListener.Type.NODE_DELETED, data, null);
+                break;
+            }
+        }
+        if ( needsFlush && (treeState.get() == TreeState.STARTED) )
+        {
+            coalesceExecutor.schedule(this::flushEvents, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushEvents()
+    {
+        // lock so that windows are published in order
+        synchronized(eventCoalescer)
+        {
+            final List<EventCoalescer.Event> events = eventCoalescer.drain();
+            if ( events.isEmpty() || (treeState.get() == TreeState.CLOSED) )
+            {
+                return;
+            }
+
+            LOG.debug("publishEvents: {} coalesced events", events.size());
+            executorService.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for ( EventCoalescer.Event event : events )
+                    {
+                        try
+                        {
+                            callListeners(toTreeCacheEvent(event));
+                        }
+                        catch ( Exception e )
+                        {
+                            ThreadUtils.checkInterrupted(e);
+                            handleException(e);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private static TreeCacheEvent toTreeCacheEvent(EventCoalescer.Event event)
+    {
+        switch ( event.type )
+        {
+            case NODE_CREATED:
+            {
+                return new TreeCacheEvent(TreeCacheEvent.Type.NODE_ADDED, event.data, null);
+            }
+
+            case NODE_CHANGED:
+            {
+                return new TreeCacheEvent(TreeCacheEvent.Type.NODE_UPDATED, event.data, event.oldData);
+            }
+
+            default:
+            {
+                return new TreeCacheEvent(TreeCacheEvent.Type.NODE_REMOVED, event.oldData, null);
+            }
+        }
     }
 
     private void publishEvent(final TreeCacheEvent event)
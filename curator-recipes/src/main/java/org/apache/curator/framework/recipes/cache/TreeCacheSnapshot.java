@@ -0,0 +1,391 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ *     An immutable, consistent view of the nodes of a {@link TreeCache} at one point in time.
+ *     See {@link TreeCache#snapshot()}.
+ * </p>
+ *
+ * <p>
+ *     Snapshots are persistent data structures: each change to the cache produces a new snapshot that
+ *     shares all unchanged parts of the tree with the previous one. Thus, taking a snapshot is O(1) and
+ *     reading a snapshot never copies or locks - not even {@link #getCurrentChildren(String)}.
+ * </p>
+ *
+ * @since 5.2.0
+ */
+public class TreeCacheSnapshot implements Iterable<ChildData>
+{
+    private final List<String> rootElements;
+    private final Node root;
+
+    /**
+     * A node of the tree. Nodes without data are placeholders for parents whose data hasn't been read yet.
+     */
+    private static final class Node
+    {
+        final ChildData data;
+        final PersistentHashMap<Node> children;
+        final int size;     // number of nodes with data in this subtree
+
+        Node(ChildData data, PersistentHashMap<Node> children, int size)
+        {
+            this.data = data;
+            this.children = children;
+            this.size = size;
+        }
+    }
+
+    private static final Node EMPTY = new Node(null, PersistentHashMap.empty(), 0);
+
+    TreeCacheSnapshot(String rootPath)
+    {
+        this(ZKPaths.split(rootPath), EMPTY);
+    }
+
+    private TreeCacheSnapshot(List<String> rootElements, Node root)
+    {
+        this.rootElements = rootElements;
+        this.root = root;
+    }
+
+    /**
+     * Return the data for the given path as of this snapshot
+     *
+     * @param fullPath full path to the node to check
+     * @return data or null if there is no node at the path
+     */
+    public ChildData getCurrentData(String fullPath)
+    {
+        Node node = find(fullPath);
+        return (node != null) ? node.data : null;
+    }
+
+    /**
+     * Return the children at the given path, mapped by child name, as of this snapshot. The
+     * returned map is a read only view of the snapshot.
+     *
+     * @param fullPath full path to the node to check
+     * @return a possibly-empty map of children or null if there is no node at the path
+     */
+    public Map<String, ChildData> getCurrentChildren(String fullPath)
+    {
+        Node node = find(fullPath);
+        if ( (node == null) || (node.data == null) )
+        {
+            return null;
+        }
+        return new ChildrenView(node.children);
+    }
+
+    /**
+     * Return the number of nodes in this snapshot
+     *
+     * @return size
+     */
+    public int size()
+    {
+        return root.size;
+    }
+
+    /**
+     * Return a depth first iterator over all nodes of this snapshot
+     *
+     * @return iterator
+     */
+    @Override
+    public Iterator<ChildData> iterator()
+    {
+        return new Iterator<ChildData>()
+        {
+            private final Deque<Iterator<Map.Entry<String, Node>>> stack = new ArrayDeque<>();
+            private ChildData next = root.data;
+
+            {
+                stack.push(root.children.iterator());
+                if ( next == null )
+                {
+                    next = advance();
+                }
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public ChildData next()
+            {
+                if ( next == null )
+                {
+                    throw new NoSuchElementException();
+                }
+                ChildData result = next;
+                next = advance();
+                return result;
+            }
+
+            private ChildData advance()
+            {
+                while ( !stack.isEmpty() )
+                {
+                    Iterator<Map.Entry<String, Node>> iterator = stack.peek();
+                    if ( !iterator.hasNext() )
+                    {
+                        stack.pop();
+                        continue;
+                    }
+                    Node node = iterator.next().getValue();
+                    stack.push(node.children.iterator());
+                    if ( node.data != null )
+                    {
+                        return node.data;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * @param data new data of a node
+     * @return a snapshot with the node set to the data
+     */
+    TreeCacheSnapshot put(ChildData data)
+    {
+        List<String> elements = relativeElements(data.getPath());
+        if ( elements == null )
+        {
+            return this;
+        }
+        Node newRoot = put(root, elements, 0, data);
+        return (newRoot == root) ? this : new TreeCacheSnapshot(rootElements, newRoot);
+    }
+
+    /**
+     * @param path path of a node
+     * @return a snapshot without the node and its descendants
+     */
+    TreeCacheSnapshot remove(String path)
+    {
+        List<String> elements = relativeElements(path);
+        if ( elements == null )
+        {
+            return this;
+        }
+        Node newRoot = remove(root, elements, 0);
+        if ( newRoot == root )
+        {
+            return this;
+        }
+        return new TreeCacheSnapshot(rootElements, (newRoot != null) ? newRoot : EMPTY);
+    }
+
+    private static Node put(Node node, List<String> elements, int index, ChildData data)
+    {
+        if ( node == null )
+        {
+            node = EMPTY;
+        }
+        if ( index == elements.size() )
+        {
+            if ( node.data == data )
+            {
+                return node;
+            }
+            return new Node(data, node.children, node.size + ((node.data == null) ? 1 : 0));
+        }
+
+        String name = elements.get(index);
+        Node child = node.children.get(name);
+        Node newChild = put(child, elements, index + 1, data);
+        if ( newChild == child )
+        {
+            return node;
+        }
+        int sizeDelta = newChild.size - ((child != null) ? child.size : 0);
+        return new Node(node.data, node.children.plus(name, newChild), node.size + sizeDelta);
+    }
+
+    /**
+     * @return the new node or null if it's removed
+     */
+    private static Node remove(Node node, List<String> elements, int index)
+    {
+        if ( index == elements.size() )
+        {
+            return null;
+        }
+
+        String name = elements.get(index);
+        Node child = node.children.get(name);
+        if ( child == null )
+        {
+            return node;
+        }
+        Node newChild = remove(child, elements, index + 1);
+        if ( newChild == child )
+        {
+            return node;
+        }
+
+        PersistentHashMap<Node> newChildren = (newChild != null) ? node.children.plus(name, newChild) : node.children.minus(name);
+        if ( (node.data == null) && newChildren.isEmpty() )
+        {
+            return null;    // placeholder is no longer needed
+        }
+        int sizeDelta = ((newChild != null) ? newChild.size : 0) - child.size;
+        return new Node(node.data, newChildren, node.size + sizeDelta);
+    }
+
+    private Node find(String fullPath)
+    {
+        List<String> elements = relativeElements(PathUtils.validatePath(fullPath));
+        if ( elements == null )
+        {
+            return null;
+        }
+
+        Node node = root;
+        for ( String name : elements )
+        {
+            node = node.children.get(name);
+            if ( node == null )
+            {
+                return null;
+            }
+        }
+        return (node.data != null) ? node : null;
+    }
+
+    /**
+     * @return the path elements below the root or null if the path isn't in the tree
+     */
+    private List<String> relativeElements(String path)
+    {
+        List<String> elements = ZKPaths.split(path);
+        if ( (elements.size() < rootElements.size()) || !elements.subList(0, rootElements.size()).equals(rootElements) )
+        {
+            return null;
+        }
+        return elements.subList(rootElements.size(), elements.size());
+    }
+
+    private static class ChildrenView extends AbstractMap<String, ChildData>
+    {
+        private final PersistentHashMap<Node> children;
+
+        ChildrenView(PersistentHashMap<Node> children)
+        {
+            this.children = children;
+        }
+
+        @Override
+        public ChildData get(Object key)
+        {
+            Node child = (key instanceof String) ? children.get((String)key) : null;
+            return (child != null) ? child.data : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, ChildData>> entrySet()
+        {
+            return new AbstractSet<Entry<String, ChildData>>()
+            {
+                @Override
+                public Iterator<Entry<String, ChildData>> iterator()
+                {
+                    Iterator<Entry<String, Node>> iterator = children.iterator();
+                    return new Iterator<Entry<String, ChildData>>()
+                    {
+                        private Entry<String, ChildData> next = advance();
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, ChildData> next()
+                        {
+                            if ( next == null )
+                            {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, ChildData> result = next;
+                            next = advance();
+                            return result;
+                        }
+
+                        private Entry<String, ChildData> advance()
+                        {
+                            while ( iterator.hasNext() )
+                            {
+                                Entry<String, Node> entry = iterator.next();
+                                if ( entry.getValue().data != null )    // skip placeholders
+                                {
+                                    return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().data);
+                                }
+                            }
+                            return null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    int size = 0;
+                    for ( Entry<String, Node> entry : children )
+                    {
+                        if ( entry.getValue().data != null )
+                        {
+                            ++size;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+}
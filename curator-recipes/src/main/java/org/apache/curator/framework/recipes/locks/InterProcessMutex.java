@@ -19,11 +19,14 @@
 
 package org.apache.curator.framework.recipes.locks;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.curator.framework.CuratorFramework;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -33,24 +36,27 @@ import org.apache.curator.utils.PathUtils;
 /**
  * A re-entrant mutex that works across JVMs. Uses Zookeeper to hold the lock. All processes in all JVMs that
  * use the same lock path will achieve an inter-process critical section. Further, this mutex is
- * "fair" - each user will get the mutex in the order requested (from ZK's point of view)
+ * "fair" - each user will get the mutex in the order requested (from ZK's point of view).
+ * The blocking methods are re-entrant per thread. The asynchronous methods are re-entrant per
+ * owner, an arbitrary object supplied by the caller.
  */
 public class InterProcessMutex implements InterProcessLock, Revocable<InterProcessMutex>
 {
     private final LockInternals internals;
     private final String basePath;
 
-    private final ConcurrentMap<Thread, LockData> threadData = Maps.newConcurrentMap();
+    private final ConcurrentMap<Object, LockData> ownerData = Maps.newConcurrentMap();
+    private final ConcurrentMap<Object, CompletableFuture<String>> pendingAsyncAcquires = Maps.newConcurrentMap();
 
     private static class LockData
     {
-        final Thread owningThread;
+        final Object owner;
         final String lockPath;
         final AtomicInteger lockCount = new AtomicInteger(1);
 
-        private LockData(Thread owningThread, String lockPath)
+        private LockData(Object owner, String lockPath)
         {
-            this.owningThread = owningThread;
+            this.owner = owner;
             this.lockPath = lockPath;
         }
     }
@@ -109,14 +115,90 @@ public class InterProcessMutex implements InterProcessLock, Revocable<InterProce
     }
 
     /**
-     * Returns true if the mutex is acquired by a thread in this JVM
+     * Acquire the mutex without blocking. The same owner can call acquireAsync re-entrantly - the calling
+     * thread is not relevant. Waiting for the mutex does not use a thread: the previous lock node is
+     * watched and the mutex is re-checked in the background. Each acquisition that completes with true
+     * must be balanced by a call to {@link #release(Object)}. The lock node is created in the background
+     * (see {@link LockInternalsDriver#createsTheLockAsync(CuratorFramework, String, byte[])}) so this method
+     * never blocks and can be called from watchers and background callbacks.
+     *
+     * @param owner the owner of the acquisition
+     * @param time time to wait or -1 to wait forever
+     * @param unit time unit or <code>null</code> to wait forever
+     * @return stage that completes with true if the mutex was acquired, false if not (the time expired or the
+     * client was closed) or exceptionally with ZK errors
+     * @since 5.2.0
+     */
+    public CompletionStage<Boolean> acquireAsync(Object owner, long time, TimeUnit unit)
+    {
+        Preconditions.checkNotNull(owner, "owner cannot be null");
+
+        if ( reenter(owner) )
+        {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        CompletableFuture<String> pending = pendingAsyncAcquires.putIfAbsent(owner, attempt);
+        if ( pending != null )
+        {
+            // an acquisition by this owner is in progress - once it's done, either re-enter or try again. This
+            // runs on the thread that completed the acquisition which is fine as acquireAsync() doesn't block
+            final long startNanos = System.nanoTime();
+            return pending.handle((lockPath, e) -> null).thenCompose(__ -> {
+                long remaining = (unit != null) ? Math.max(unit.toNanos(time) - (System.nanoTime() - startNanos), 0) : -1;
+                return acquireAsync(owner, remaining, (unit != null) ? TimeUnit.NANOSECONDS : null);
+            });
+        }
+
+        // the in progress acquisition may have completed before the putIfAbsent above
+        if ( reenter(owner) )
+        {
+            pendingAsyncAcquires.remove(owner, attempt);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        internals.attemptLockAsync(time, unit, getLockNodeBytes()).whenComplete((lockPath, e) -> {
+            if ( lockPath != null )
+            {
+                ownerData.put(owner, new LockData(owner, lockPath));
+            }
+            pendingAsyncAcquires.remove(owner, attempt);
+            if ( e != null )
+            {
+                attempt.completeExceptionally(e);
+            }
+            else
+            {
+                attempt.complete(lockPath);
+            }
+        });
+        return attempt.thenApply(lockPath -> lockPath != null);
+    }
+
+    /**
+     * Same as {@link #acquireAsync(Object, long, TimeUnit)} using the calling thread as the owner.
+     * I.e. the acquisition can be released via {@link #release()} on the calling thread.
+     *
+     * @param time time to wait or -1 to wait forever
+     * @param unit time unit or <code>null</code> to wait forever
+     * @return stage that completes with true if the mutex was acquired, false if not
+     * @since 5.2.0
+     */
+    public CompletionStage<Boolean> acquireAsync(long time, TimeUnit unit)
+    {
+        return acquireAsync(Thread.currentThread(), time, unit);
+    }
+
+    /**
+     * Returns true if the mutex is acquired by a thread or owner in this JVM
      *
      * @return true/false
      */
     @Override
     public boolean isAcquiredInThisProcess()
     {
-        return (threadData.size() > 0);
+        return (ownerData.size() > 0);
     }
 
     /**
@@ -127,14 +209,27 @@ public class InterProcessMutex implements InterProcessLock, Revocable<InterProce
      */
     @Override
     public void release() throws Exception
+    {
+        release(Thread.currentThread());
+    }
+
+    /**
+     * Perform one release of an acquisition made by the given owner via {@link #acquireAsync(Object, long, TimeUnit)}.
+     * If the owner had made multiple acquisitions, the mutex will still be held when this method returns.
+     *
+     * @param owner the owner of the acquisition
+     * @throws Exception ZK errors, interruptions, the owner does not own the lock
+     * @since 5.2.0
+     */
+    public void release(Object owner) throws Exception
     {
         /*
             Note on concurrency: a given lockData instance
-            can be only acted on by a single thread so locking isn't necessary
+            can be only acted on by a single owner so locking isn't necessary
          */
 
-        Thread currentThread = Thread.currentThread();
-        LockData lockData = threadData.get(currentThread);
+        Preconditions.checkNotNull(owner, "owner cannot be null");
+        LockData lockData = ownerData.get(owner);
         if ( lockData == null )
         {
             throw new IllegalMonitorStateException("You do not own the lock: " + basePath);
@@ -155,7 +250,7 @@ public class InterProcessMutex implements InterProcessLock, Revocable<InterProce
         }
         finally
         {
-            threadData.remove(currentThread);
+            ownerData.remove(owner);
         }
     }
 
@@ -202,7 +297,19 @@ public class InterProcessMutex implements InterProcessLock, Revocable<InterProce
      */
     public boolean isOwnedByCurrentThread()
     {
-        LockData lockData = threadData.get(Thread.currentThread());
+        return isOwnedBy(Thread.currentThread());
+    }
+
+    /**
+     * Returns true if the mutex is acquired by the given owner
+     *
+     * @param owner the owner
+     * @return true/false
+     * @since 5.2.0
+     */
+    public boolean isOwnedBy(Object owner)
+    {
+        LockData lockData = ownerData.get(owner);
         return (lockData != null) && (lockData.lockCount.get() > 0);
     }
 
@@ -213,35 +320,62 @@ public class InterProcessMutex implements InterProcessLock, Revocable<InterProce
 
     protected String getLockPath()
     {
-        LockData lockData = threadData.get(Thread.currentThread());
+        LockData lockData = ownerData.get(Thread.currentThread());
         return lockData != null ? lockData.lockPath : null;
     }
 
+    /**
+     * Blocking acquisition on behalf of the given owner. The caller must ensure that the owner
+     * is not acquiring concurrently.
+     *
+     * @param owner the owner of the acquisition
+     * @param time time to wait or -1 to wait forever
+     * @param unit time unit or <code>null</code> to wait forever
+     * @return true if the mutex was acquired, false if not
+     * @throws Exception ZK errors, connection interruptions
+     */
+    boolean acquire(Object owner, long time, TimeUnit unit) throws Exception
+    {
+        return internalLock(owner, time, unit);
+    }
+
     private boolean internalLock(long time, TimeUnit unit) throws Exception
+    {
+        return internalLock(Thread.currentThread(), time, unit);
+    }
+
+    private boolean internalLock(Object owner, long time, TimeUnit unit) throws Exception
     {
         /*
            Note on concurrency: a given lockData instance
-           can be only acted on by a single thread so locking isn't necessary
+           can be only acted on by a single owner so locking isn't necessary
         */
 
-        Thread currentThread = Thread.currentThread();
-
-        LockData lockData = threadData.get(currentThread);
-        if ( lockData != null )
+        if ( reenter(owner) )
         {
-            // re-entering
-            lockData.lockCount.incrementAndGet();
             return true;
         }
 
         String lockPath = internals.attemptLock(time, unit, getLockNodeBytes());
         if ( lockPath != null )
         {
-            LockData newLockData = new LockData(currentThread, lockPath);
-            threadData.put(currentThread, newLockData);
+            LockData newLockData = new LockData(owner, lockPath);
+            ownerData.put(owner, newLockData);
             return true;
         }
 
         return false;
     }
+
+    private boolean reenter(Object owner)
+    {
+        LockData lockData = ownerData.get(owner);
+        if ( lockData != null )
+        {
+            // re-entering
+            lockData.lockCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
 }
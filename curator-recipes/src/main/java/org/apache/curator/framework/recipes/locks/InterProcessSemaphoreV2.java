@@ -21,12 +21,18 @@ package org.apache.curator.framework.recipes.locks;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.curator.RetryLoop;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.WatcherRemoveCuratorFramework;
 import org.apache.curator.framework.api.PathAndBytesable;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.framework.api.transaction.OperationType;
+import org.apache.curator.framework.api.transaction.TransactionCreateBuilder2;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.curator.framework.imps.ProtectedUtils;
 import org.apache.curator.framework.recipes.shared.SharedCountListener;
 import org.apache.curator.framework.recipes.shared.SharedCountReader;
 import org.apache.curator.framework.state.ConnectionState;
@@ -43,8 +49,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -176,13 +184,47 @@ public class InterProcessSemaphoreV2
     }
 
     /**
-     * Convenience method. Closes all leases in the given collection of leases
+     * Convenience method. Closes all leases in the given collection of leases. The nodes of leases that were
+     * acquired from this semaphore are deleted in a single transaction. If the transaction fails, the leases
+     * are closed one at a time.
      *
      * @param leases leases to close
      */
     public void returnAll(Collection<Lease> leases)
     {
+        List<Lease> ourLeases = Lists.newArrayList();
         for ( Lease l : leases )
+        {
+            if ( (l instanceof SemaphoreLease) && ((SemaphoreLease)l).isFrom(this) )
+            {
+                ourLeases.add(l);
+            }
+            else
+            {
+                CloseableUtils.closeQuietly(l);
+            }
+        }
+
+        if ( ourLeases.size() > 1 )
+        {
+            List<CuratorOp> operations = Lists.newArrayListWithCapacity(ourLeases.size());
+            for ( Lease l : ourLeases )
+            {
+                operations.add(client.transactionOp().delete().forPath(((SemaphoreLease)l).path));
+            }
+            try
+            {
+                client.transaction().forOperations(operations);
+                return;
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.debug("Could not return leases in a single transaction - returning them individually", e);
+            }
+        }
+
+        for ( Lease l : ourLeases )
         {
             CloseableUtils.closeQuietly(l);
         }
@@ -321,6 +363,82 @@ public class InterProcessSemaphoreV2
         return builder.build();
     }
 
+    /**
+     * <p>Acquire <code>qty</code> leases as a single batch. If there are not enough leases available, this method
+     * blocks until either the maximum number of leases is increased enough or other clients/processes
+     * close enough leases.</p>
+     * <p>Unlike {@link #acquire(int)}, which acquires the leases one at a time, the semaphore's internal lock is
+     * taken once, all lease nodes are created in a single transaction and admission is evaluated once for
+     * the whole batch. I.e. the leases are acquired all or nothing.</p>
+     * <p>The client must close the leases when it is done with them. You should do this in a
+     * <code>finally</code> block. NOTE: You can use {@link #returnAll(Collection)} for this.</p>
+     *
+     * @param qty number of leases to acquire
+     * @return the new leases
+     * @throws Exception ZK errors, interruptions, etc.
+     * @since 5.2.0
+     */
+    public Collection<Lease> acquireBatch(int qty) throws Exception
+    {
+        return acquireBatch(qty, 0, null);
+    }
+
+    /**
+     * <p>Acquire <code>qty</code> leases as a single batch. If there are not enough leases available, this method
+     * blocks until either the maximum number of leases is increased enough or other clients/processes
+     * close enough leases. However, this method will only block to a maximum of the time
+     * parameters given.</p>
+     * <p>Unlike {@link #acquire(int, long, TimeUnit)}, which acquires the leases one at a time, the semaphore's
+     * internal lock is taken once, all lease nodes are created in a single transaction and admission is evaluated
+     * once for the whole batch. I.e. the leases are acquired all or nothing.</p>
+     * <p>The client must close the leases when it is done with them. You should do this in a
+     * <code>finally</code> block. NOTE: You can use {@link #returnAll(Collection)} for this.</p>
+     *
+     * @param qty  number of leases to acquire
+     * @param time time to wait
+     * @param unit time unit
+     * @return the new leases or null if time ran out
+     * @throws Exception ZK errors, interruptions, etc.
+     * @since 5.2.0
+     */
+    public Collection<Lease> acquireBatch(int qty, long time, TimeUnit unit) throws Exception
+    {
+        long startMs = System.currentTimeMillis();
+        boolean hasWait = (unit != null);
+        long waitMs = hasWait ? TimeUnit.MILLISECONDS.convert(time, unit) : 0;
+
+        Preconditions.checkArgument(qty > 0, "qty cannot be 0");
+
+        ImmutableList.Builder<Lease> builder = ImmutableList.builder();
+        int retryCount = 0;
+        for(;;)
+        {
+            switch ( internalAcquireBatch(qty, builder, startMs, hasWait, waitMs) )
+            {
+                case CONTINUE:
+                {
+                    return builder.build();
+                }
+
+                case RETURN_NULL:
+                {
+                    return null;
+                }
+
+                case RETRY_DUE_TO_MISSING_NODE:
+                {
+                    // see acquire(int, long, TimeUnit)
+                    if ( !client.getZookeeperClient().getRetryPolicy().allowRetry(retryCount++, System.currentTimeMillis() - startMs, RetryLoop.getDefaultRetrySleeper()) )
+                    {
+                        throw new KeeperException.NoNodeException("Sequential path not found - possible session loss");
+                    }
+                    // try again
+                    break;
+                }
+            }
+        }
+    }
+
     private enum InternalAcquireResult
     {
         CONTINUE,
@@ -369,57 +487,12 @@ public class InterProcessSemaphoreV2
 
             try
             {
-                synchronized(this)
+                InternalAcquireResult result = waitForAdmission(Collections.singleton(nodeName), null, startMs, hasWait, waitMs);
+                if ( result != InternalAcquireResult.CONTINUE )
                 {
-                    for(;;)
-                    {
-                        List<String> children;
-                        try
-                        {
-                            children = client.getChildren().usingWatcher(watcher).forPath(leasesPath);
-                        }
-                        catch ( Exception e )
-                        {
-                            if ( debugFailedGetChildrenLatch != null )
-                            {
-                                debugFailedGetChildrenLatch.countDown();
-                            }
-                            throw e;
-                        }
-                        if ( !children.contains(nodeName) )
-                        {
-                            log.error("Sequential path not found: " + path);
-                            return InternalAcquireResult.RETRY_DUE_TO_MISSING_NODE;
-                        }
-
-                        if ( children.size() <= maxLeases )
-                        {
-                            break;
-                        }
-                        if ( hasWait )
-                        {
-                            long thisWaitMs = getThisWaitMs(startMs, waitMs);
-                            if ( thisWaitMs <= 0 )
-                            {
-                                return InternalAcquireResult.RETURN_NULL;
-                            }
-                            if ( debugWaitLatch != null )
-                            {
-                                debugWaitLatch.countDown();
-                            }
-                            wait(thisWaitMs);
-                        }
-                        else
-                        {
-                            if ( debugWaitLatch != null )
-                            {
-                                debugWaitLatch.countDown();
-                            }
-                            wait();
-                        }
-                    }
-                    success = true;
+                    return result;
                 }
+                success = true;
             }
             finally
             {
@@ -438,44 +511,250 @@ public class InterProcessSemaphoreV2
         return InternalAcquireResult.CONTINUE;
     }
 
-    private long getThisWaitMs(long startMs, long waitMs)
+    private InternalAcquireResult internalAcquireBatch(int qty, ImmutableList.Builder<Lease> builder, long startMs, boolean hasWait, long waitMs) throws Exception
     {
-        long elapsedMs = System.currentTimeMillis() - startMs;
-        return waitMs - elapsedMs;
+        if ( client.getState() != CuratorFrameworkState.STARTED )
+        {
+            return InternalAcquireResult.RETURN_NULL;
+        }
+
+        if ( hasWait )
+        {
+            long thisWaitMs = getThisWaitMs(startMs, waitMs);
+            if ( !lock.acquire(thisWaitMs, TimeUnit.MILLISECONDS) )
+            {
+                return InternalAcquireResult.RETURN_NULL;
+            }
+        }
+        else
+        {
+            lock.acquire();
+        }
+
+        List<Lease> leases = Collections.emptyList();
+        boolean success = false;
+
+        try
+        {
+            String protectedId = UUID.randomUUID().toString();
+            leases = createLeases(qty, protectedId);
+
+            Set<String> nodeNames = Sets.newHashSet();
+            for ( Lease lease : leases )
+            {
+                nodeNames.add(lease.getNodeName());
+            }
+
+            try
+            {
+                InternalAcquireResult result = waitForAdmission(nodeNames, ProtectedUtils.getProtectedPrefix(protectedId), startMs, hasWait, waitMs);
+                if ( result != InternalAcquireResult.CONTINUE )
+                {
+                    return result;
+                }
+                success = true;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    returnAll(leases);
+                }
+                client.removeWatchers();
+            }
+        }
+        finally
+        {
+            lock.release();
+        }
+        builder.addAll(leases);
+        return InternalAcquireResult.CONTINUE;
     }
 
-    private Lease makeLease(final String path)
+    private List<Lease> createLeases(int qty, String protectedId) throws Exception
     {
-        return new Lease()
+        client.createContainers(leasesPath);
+
+        String leasePath = ProtectedUtils.toProtectedZNodePath(ZKPaths.makePath(leasesPath, LEASE_BASE_NAME), protectedId);
+        List<CuratorOp> operations = Lists.newArrayListWithCapacity(qty);
+        for ( int i = 0; i < qty; ++i )
+        {
+            TransactionCreateBuilder2<CuratorOp> createBuilder = client.transactionOp().create().withMode(CreateMode.EPHEMERAL_SEQUENTIAL);
+            operations.add((nodeData != null) ? createBuilder.forPath(leasePath, nodeData) : createBuilder.forPath(leasePath));
+        }
+
+        List<CuratorTransactionResult> results;
+        try
         {
-            @Override
-            public void close() throws IOException
+            results = client.transaction().forOperations(operations);
+        }
+        catch ( KeeperException.ConnectionLossException e )
+        {
+            // the transaction may or may not have been applied - remove any nodes it created
+            deleteOrphanedLeases(ProtectedUtils.getProtectedPrefix(protectedId), Collections.emptySet());
+            throw e;
+        }
+
+        List<Lease> leases = Lists.newArrayListWithCapacity(qty);
+        for ( CuratorTransactionResult result : results )
+        {
+            if ( result.getType() == OperationType.CREATE )
+            {
+                leases.add(makeLease(result.getResultPath()));
+            }
+        }
+        return leases;
+    }
+
+    private void deleteOrphanedLeases(String protectedPrefix, Set<String> nodeNames) throws Exception
+    {
+        for ( String child : client.getChildren().forPath(leasesPath) )
+        {
+            if ( child.startsWith(protectedPrefix) && !nodeNames.contains(child) )
+            {
+                returnLease(makeLease(ZKPaths.makePath(leasesPath, child)));
+            }
+        }
+    }
+
+    /**
+     * Wait until the given lease nodes are admitted. The semaphore's internal lock must be held.
+     *
+     * @param nodeNames the lease nodes
+     * @param protectedPrefix if not null, other nodes with this prefix are orphans from a retried transaction
+     *                        and are deleted
+     * @param startMs start time
+     * @param hasWait true if there's a max wait time
+     * @param waitMs max wait time
+     * @return CONTINUE if admitted, otherwise the reason
+     * @throws Exception ZK errors, interruptions, etc.
+     */
+    private InternalAcquireResult waitForAdmission(Set<String> nodeNames, String protectedPrefix, long startMs, boolean hasWait, long waitMs) throws Exception
+    {
+        synchronized(this)
+        {
+            for(;;)
             {
+                List<String> children;
                 try
                 {
-                    client.delete().guaranteed().forPath(path);
+                    children = client.getChildren().usingWatcher(watcher).forPath(leasesPath);
                 }
-                catch ( KeeperException.NoNodeException e )
+                catch ( Exception e )
                 {
-                    log.warn("Lease already released", e);
+                    if ( debugFailedGetChildrenLatch != null )
+                    {
+                        debugFailedGetChildrenLatch.countDown();
+                    }
+                    throw e;
                 }
-                catch ( Exception e )
+
+                Collection<String> childrenToCheck = (nodeNames.size() > 1) ? Sets.newHashSet(children) : children;
+                if ( !childrenToCheck.containsAll(nodeNames) )
                 {
-                    ThreadUtils.checkInterrupted(e);
-                    throw new IOException(e);
+                    log.error("Sequential path not found: " + nodeNames);
+                    return InternalAcquireResult.RETRY_DUE_TO_MISSING_NODE;
+                }
+
+                int childQty = children.size();
+                if ( protectedPrefix != null )
+                {
+                    int ourQty = 0;
+                    for ( String child : children )
+                    {
+                        if ( child.startsWith(protectedPrefix) )
+                        {
+                            ++ourQty;
+                        }
+                    }
+                    if ( ourQty > nodeNames.size() )
+                    {
+                        deleteOrphanedLeases(protectedPrefix, nodeNames);
+                        childQty -= (ourQty - nodeNames.size());
+                    }
+                }
+
+                if ( childQty <= maxLeases )
+                {
+                    return InternalAcquireResult.CONTINUE;
+                }
+                if ( hasWait )
+                {
+                    long thisWaitMs = getThisWaitMs(startMs, waitMs);
+                    if ( thisWaitMs <= 0 )
+                    {
+                        return InternalAcquireResult.RETURN_NULL;
+                    }
+                    if ( debugWaitLatch != null )
+                    {
+                        debugWaitLatch.countDown();
+                    }
+                    wait(thisWaitMs);
+                }
+                else
+                {
+                    if ( debugWaitLatch != null )
+                    {
+                        debugWaitLatch.countDown();
+                    }
+                    wait();
                 }
             }
+        }
+    }
 
-            @Override
-            public byte[] getData() throws Exception
+    private long getThisWaitMs(long startMs, long waitMs)
+    {
+        long elapsedMs = System.currentTimeMillis() - startMs;
+        return waitMs - elapsedMs;
+    }
+
+    private Lease makeLease(final String path)
+    {
+        return new SemaphoreLease(path);
+    }
+
+    private class SemaphoreLease implements Lease
+    {
+        private final String path;
+
+        private SemaphoreLease(String path)
+        {
+            this.path = path;
+        }
+
+        private boolean isFrom(InterProcessSemaphoreV2 semaphore)
+        {
+            return InterProcessSemaphoreV2.this == semaphore;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
             {
-                return client.getData().forPath(path);
+                client.delete().guaranteed().forPath(path);
             }
-
-            @Override
-            public String getNodeName() {
-                return ZKPaths.getNodeFromPath(path);
+            catch ( KeeperException.NoNodeException e )
+            {
+                log.warn("Lease already released", e);
             }
-        };
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public byte[] getData() throws Exception
+        {
+            return client.getData().forPath(path);
+        }
+
+        @Override
+        public String getNodeName() {
+            return ZKPaths.getNodeFromPath(path);
+        }
     }
 }
@@ -25,6 +25,9 @@ import com.google.common.collect.Lists;
 import org.apache.curator.RetryLoop;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.WatcherRemoveCuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorEventType;
+import org.apache.curator.framework.api.CuratorListener;
 import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.utils.PathUtils;
@@ -33,16 +36,24 @@ import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class LockInternals
 {
+    private static final Logger log = LoggerFactory.getLogger(LockInternals.class);
+
     private final WatcherRemoveCuratorFramework     client;
     private final String                            path;
     private final String                            basePath;
@@ -72,6 +83,11 @@ public class LockInternals
 
     private volatile int    maxLeases;
 
+    // timeouts of async lock attempts - the executor only exists while there are timed attempts
+    private final Object                        timeoutLock = new Object();
+    private ScheduledExecutorService            timeoutExecutor = null;     // guarded by timeoutLock
+    private int                                 timeoutCount = 0;           // guarded by timeoutLock
+
     static final byte[]             REVOKE_MESSAGE = "__REVOKE__".getBytes();
 
     /**
@@ -152,20 +168,7 @@ public class LockInternals
         try
         {
             List<String> children = client.getChildren().forPath(basePath);
-            List<String> sortedList = Lists.newArrayList(children);
-            Collections.sort
-            (
-                sortedList,
-                new Comparator<String>()
-                {
-                    @Override
-                    public int compare(String lhs, String rhs)
-                    {
-                        return sorter.fixForSorting(lhs, lockName).compareTo(sorter.fixForSorting(rhs, lockName));
-                    }
-                }
-            );
-            return sortedList;
+            return getSortedChildren(lockName, sorter, children);
         }
         catch ( KeeperException.NoNodeException ignore )
         {
@@ -175,25 +178,20 @@ public class LockInternals
 
     public static List<String> getSortedChildren(final String lockName, final LockInternalsSorter sorter, List<String> children)
     {
-        List<String> sortedList = Lists.newArrayList(children);
-        Collections.sort
-        (
-            sortedList,
-            new Comparator<String>()
-            {
-                @Override
-                public int compare(String lhs, String rhs)
-                {
-                    return sorter.fixForSorting(lhs, lockName).compareTo(sorter.fixForSorting(rhs, lockName));
-                }
-            }
-        );
-        return sortedList;
+        return Lists.newArrayList(SortedLockChildren.sort(lockName, sorter, children));
     }
 
     List<String> getSortedChildren() throws Exception
     {
-        return getSortedChildren(client, basePath, lockName, driver);
+        // the lock loop only reads the list so the sorted index can be used directly (no copy, binary search indexOf())
+        try
+        {
+            return SortedLockChildren.sort(lockName, driver, client.getChildren().forPath(basePath));
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            return Collections.emptyList();
+        }
     }
 
     String getLockName()
@@ -248,6 +246,313 @@ public class LockInternals
         return null;
     }
 
+    /**
+     * Non-blocking version of {@link #attemptLock(long, TimeUnit, byte[])}. Instead of parking the calling
+     * thread until the predecessor node goes away, the predecessor is watched and the lock is re-checked
+     * in the background when the watcher fires.
+     *
+     * @param time max time to wait or -1 to wait forever
+     * @param unit time unit or <code>null</code> to wait forever
+     * @param lockNodeBytes data for the lock node
+     * @return stage that completes with our lock path or <code>null</code> if the lock was not acquired
+     */
+    CompletionStage<String> attemptLockAsync(long time, TimeUnit unit, byte[] lockNodeBytes)
+    {
+        final byte[]        localLockNodeBytes = (revocable.get() != null) ? new byte[0] : lockNodeBytes;
+        AsyncLockAttempt    attempt = new AsyncLockAttempt((unit != null) ? unit.toMillis(time) : null, localLockNodeBytes);
+        attempt.start();
+        return attempt.future;
+    }
+
+    private ScheduledFuture<?> scheduleTimeout(Runnable task, long delayMs)
+    {
+        synchronized(timeoutLock)
+        {
+            if ( timeoutExecutor == null )
+            {
+                timeoutExecutor = ThreadUtils.newSingleThreadScheduledExecutor("LockInternals-timeout");
+            }
+            ++timeoutCount;
+            return timeoutExecutor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void timeoutDone()
+    {
+        synchronized(timeoutLock)
+        {
+            if ( --timeoutCount == 0 )
+            {
+                // no thread is kept while there are no timed async attempts
+                timeoutExecutor.shutdown();
+                timeoutExecutor = null;
+            }
+        }
+    }
+
+    private class AsyncLockAttempt
+    {
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private final long                      startMillis = System.currentTimeMillis();
+        private final Long                      millisToWait;
+        private final byte[]                    lockNodeBytes;
+        private final AtomicBoolean             timeoutIsDone = new AtomicBoolean(false);
+        private final Watcher                   predecessorWatcher = new Watcher()
+        {
+            @Override
+            public void process(WatchedEvent event)
+            {
+                checkTheLock();
+            }
+        };
+        private final CuratorListener           closingListener = new CuratorListener()
+        {
+            @Override
+            public void eventReceived(CuratorFramework client, CuratorEvent event)
+            {
+                if ( event.getType() == CuratorEventType.CLOSING )
+                {
+                    complete(null);
+                }
+            }
+        };
+        private volatile String                 ourPath = null;
+        private volatile String                 watchedPath = null;
+        private volatile ScheduledFuture<?>     timeoutTask = null;
+        private volatile int                    retryCount = 0;
+
+        AsyncLockAttempt(Long millisToWait, byte[] lockNodeBytes)
+        {
+            this.millisToWait = millisToWait;
+            this.lockNodeBytes = lockNodeBytes;
+        }
+
+        void start()
+        {
+            client.getCuratorListenable().addListener(closingListener);
+            if ( client.getState() != CuratorFrameworkState.STARTED )
+            {
+                complete(null);
+                return;
+            }
+            if ( millisToWait != null )
+            {
+                timeoutTask = scheduleTimeout(() -> complete(null), Math.max(millisToWait, 0));
+                if ( future.isDone() )
+                {
+                    cancelTimeout();    // completed before timeoutTask was set
+                    return;
+                }
+            }
+            createOurNode();
+        }
+
+        private void createOurNode()
+        {
+            driver.createsTheLockAsync(client, path, lockNodeBytes).whenComplete((createdPath, e) -> {
+                if ( e != null )
+                {
+                    completeExceptionally((e instanceof Exception) ? (Exception)e : new RuntimeException(e));
+                    return;
+                }
+                ourPath = createdPath;
+                if ( future.isDone() )
+                {
+                    // timed out or closed while the node was being created
+                    deleteOurPathInBackground();
+                    return;
+                }
+                if ( revocable.get() != null )
+                {
+                    try
+                    {
+                        client.getData().usingWatcher(revocableWatcher).inBackground().forPath(createdPath);
+                    }
+                    catch ( Exception e2 )
+                    {
+                        completeExceptionally(e2);
+                        return;
+                    }
+                }
+                checkTheLock();
+            });
+        }
+
+        private void checkTheLock()
+        {
+            if ( future.isDone() )
+            {
+                return;
+            }
+            if ( client.getState() != CuratorFrameworkState.STARTED )
+            {
+                complete(null);
+                return;
+            }
+
+            try
+            {
+                client.getChildren().inBackground((__, event) -> {
+                    if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                    {
+                        processChildren(event.getChildren());
+                    }
+                    else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                    {
+                        processChildren(Collections.emptyList());
+                    }
+                    else
+                    {
+                        completeExceptionally(KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath()));
+                    }
+                }).forPath(basePath);
+            }
+            catch ( Exception e )
+            {
+                completeExceptionally(e);
+            }
+        }
+
+        private void processChildren(List<String> children)
+        {
+            List<String>        sortedChildren = SortedLockChildren.sort(lockName, driver, children);
+            String              sequenceNodeName = ourPath.substring(basePath.length() + 1); // +1 to include the slash
+
+            PredicateResults    predicateResults;
+            try
+            {
+                predicateResults = driver.getsTheLock(client, sortedChildren, sequenceNodeName, maxLeases);
+            }
+            catch ( KeeperException.NoNodeException e )
+            {
+                retryOrFail(e);
+                return;
+            }
+            catch ( Exception e )
+            {
+                completeExceptionally(e);
+                return;
+            }
+
+            if ( predicateResults.getsTheLock() )
+            {
+                complete(ourPath);
+                return;
+            }
+
+            // use getData() instead of exists() to avoid leaving unneeded watchers which is a type of resource leak
+            String  previousSequencePath = basePath + "/" + predicateResults.getPathToWatch();
+            watchedPath = previousSequencePath;
+            try
+            {
+                client.getData().usingWatcher(predecessorWatcher).inBackground((__, event) -> {
+                    if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                    {
+                        // it has been deleted (i.e. lock released). Try to acquire again
+                        checkTheLock();
+                    }
+                    else if ( event.getResultCode() != KeeperException.Code.OK.intValue() )
+                    {
+                        completeExceptionally(KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath()));
+                    }
+                    // otherwise, the watcher re-checks the lock when the predecessor changes
+                }).forPath(previousSequencePath);
+            }
+            catch ( Exception e )
+            {
+                completeExceptionally(e);
+            }
+        }
+
+        private void retryOrFail(KeeperException.NoNodeException e)
+        {
+            // gets thrown by StandardLockInternalsDriver when it can't find the lock node
+            // this can happen when the session expires, etc. So, if the retry allows, re-create it. The
+            // background create waits for the connection itself so the retry policy's sleep is not needed
+            if ( client.getZookeeperClient().getRetryPolicy().allowRetry(retryCount++, System.currentTimeMillis() - startMillis, (time, unit) -> {}) )
+            {
+                createOurNode();
+            }
+            else
+            {
+                completeExceptionally(e);
+            }
+        }
+
+        private void complete(String lockPath)
+        {
+            if ( future.complete(lockPath) )
+            {
+                done();
+                if ( lockPath == null )
+                {
+                    deleteOurPathInBackground();
+                }
+            }
+        }
+
+        private void completeExceptionally(Exception e)
+        {
+            if ( future.completeExceptionally(e) )
+            {
+                done();
+                deleteOurPathInBackground();
+            }
+        }
+
+        private void done()
+        {
+            client.getCuratorListenable().removeListener(closingListener);
+            cancelTimeout();
+            removePredecessorWatcher();
+        }
+
+        private void cancelTimeout()
+        {
+            ScheduledFuture<?> localTimeoutTask = timeoutTask;
+            if ( (localTimeoutTask != null) && timeoutIsDone.compareAndSet(false, true) )
+            {
+                localTimeoutTask.cancel(false);
+                timeoutDone();
+            }
+        }
+
+        private void removePredecessorWatcher()
+        {
+            String localWatchedPath = watchedPath;
+            if ( (localWatchedPath != null) && (client.getState() == CuratorFrameworkState.STARTED) )
+            {
+                try
+                {
+                    client.watchers().remove(predecessorWatcher).quietly().inBackground().forPath(localWatchedPath);
+                }
+                catch ( Exception e )
+                {
+                    ThreadUtils.checkInterrupted(e);
+                    log.error("Could not remove watcher for: " + localWatchedPath, e);
+                }
+            }
+        }
+
+        private void deleteOurPathInBackground()
+        {
+            // if the client is closed, the ephemeral node goes away with the session
+            String localOurPath = ourPath;
+            if ( (localOurPath != null) && (client.getState() == CuratorFrameworkState.STARTED) )
+            {
+                try
+                {
+                    client.delete().guaranteed().inBackground().forPath(localOurPath);
+                }
+                catch ( Exception e )
+                {
+                    ThreadUtils.checkInterrupted(e);
+                    log.error("Could not delete lock node: " + localOurPath, e);
+                }
+            }
+        }
+    }
+
     private void checkRevocableWatcher(String path) throws Exception
     {
         RevocationSpec  entry = revocable.get();
@@ -19,11 +19,44 @@
 package org.apache.curator.framework.recipes.locks;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.ThreadUtils;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 public interface LockInternalsDriver extends LockInternalsSorter
 {
     public PredicateResults getsTheLock(CuratorFramework client, List<String> children, String sequenceNodeName, int maxLeases) throws Exception;
 
     public String createsTheLock(CuratorFramework client,  String path, byte[] lockNodeBytes) throws Exception;
+
+    /**
+     * Non-blocking version of {@link #createsTheLock(CuratorFramework, String, byte[])} used by
+     * {@link InterProcessMutex#acquireAsync(Object, long, TimeUnit)}. The default implementation runs
+     * {@link #createsTheLock(CuratorFramework, String, byte[])} via {@link CuratorFramework#runSafe(Runnable)}.
+     * Drivers that can create the node in the background should override this.
+     *
+     * @param client client
+     * @param path path of the lock node to create
+     * @param lockNodeBytes data for the lock node
+     * @return stage that completes with the path of the created node
+     * @since 5.2.0
+     */
+    default CompletionStage<String> createsTheLockAsync(CuratorFramework client, String path, byte[] lockNodeBytes)
+    {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        client.runSafe(() -> {
+            try
+            {
+                future.complete(createsTheLock(client, path, lockNodeBytes));
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 }
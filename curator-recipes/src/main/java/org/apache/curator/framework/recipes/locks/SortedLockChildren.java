@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.locks;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of lock children sorted by sequence number. The sequence number of each child is
+ * parsed once into a long and the children are sorted as primitives. {@link #indexOf(Object)} is
+ * a binary search - i.e. finding our node/predecessor is O(log n) instead of a linear scan.
+ */
+class SortedLockChildren extends AbstractList<String> implements RandomAccess
+{
+    private static final int INDEX_BITS = 24;
+    private static final long MAX_SEQUENCE = (1L << (Long.SIZE - 1 - INDEX_BITS)) - 1;
+    private static final int MAX_DIGITS = Long.toString(MAX_SEQUENCE).length() - 1;
+
+    private final String lockName;
+    private final LockInternalsSorter sorter;
+    private final String[] names;
+    private final long[] sequences;
+
+    /**
+     * Sort the given children. If a child does not have a numeric sequence (e.g. a foreign node or a
+     * custom sorter) the children are sorted as strings the same way as before.
+     *
+     * @param lockName the lock name
+     * @param sorter sorter used to extract the sequence portion of the names
+     * @param children unsorted children
+     * @return sorted children
+     */
+    static List<String> sort(String lockName, LockInternalsSorter sorter, List<String> children)
+    {
+        SortedLockChildren sortedLockChildren = build(lockName, sorter, children);
+        if ( sortedLockChildren != null )
+        {
+            return sortedLockChildren;
+        }
+
+        String[] sortedNames = children.toArray(new String[0]);
+        Arrays.sort(sortedNames, Comparator.comparing(name -> sorter.fixForSorting(name, lockName)));
+        return Collections.unmodifiableList(Arrays.asList(sortedNames));
+    }
+
+    private static SortedLockChildren build(String lockName, LockInternalsSorter sorter, List<String> children)
+    {
+        if ( children.size() > (1 << INDEX_BITS) )
+        {
+            return null;
+        }
+
+        String[] unsortedNames = children.toArray(new String[0]);
+        long[] packed = new long[unsortedNames.length];
+        for ( int i = 0; i < unsortedNames.length; ++i )
+        {
+            long sequence = parseSequence(sorter.fixForSorting(unsortedNames[i], lockName));
+            if ( sequence < 0 )
+            {
+                return null;
+            }
+            packed[i] = (sequence << INDEX_BITS) | i;  // sort sequence/index pairs as a single primitive
+        }
+        Arrays.sort(packed);
+
+        String[] names = new String[packed.length];
+        long[] sequences = new long[packed.length];
+        for ( int i = 0; i < packed.length; ++i )
+        {
+            sequences[i] = packed[i] >>> INDEX_BITS;
+            names[i] = unsortedNames[(int)(packed[i] & ((1 << INDEX_BITS) - 1))];
+            if ( (i > 0) && (sequences[i] == sequences[i - 1]) )
+            {
+                return null;    // sequences must be unique for the binary search
+            }
+        }
+        return new SortedLockChildren(lockName, sorter, names, sequences);
+    }
+
+    private SortedLockChildren(String lockName, LockInternalsSorter sorter, String[] names, long[] sequences)
+    {
+        this.lockName = lockName;
+        this.sorter = sorter;
+        this.names = names;
+        this.sequences = sequences;
+    }
+
+    @Override
+    public String get(int index)
+    {
+        return names[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return names.length;
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        if ( !(o instanceof String) )
+        {
+            return -1;
+        }
+
+        long sequence = parseSequence(sorter.fixForSorting((String)o, lockName));
+        if ( sequence < 0 )
+        {
+            return -1;
+        }
+        int index = Arrays.binarySearch(sequences, sequence);
+        return ((index >= 0) && names[index].equals(o)) ? index : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        return indexOf(o);  // sequences are unique
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * @param str the sequence portion of a node name
+     * @return the sequence or -1 if it isn't a non-negative number that can be indexed
+     */
+    private static long parseSequence(String str)
+    {
+        if ( str.isEmpty() || (str.length() > MAX_DIGITS) )
+        {
+            return -1;
+        }
+        long sequence = 0;
+        for ( int i = 0; i < str.length(); ++i )
+        {
+            char c = str.charAt(i);
+            if ( (c < '0') || (c > '9') )
+            {
+                return -1;
+            }
+            sequence = (sequence * 10) + (c - '0');
+        }
+        return sequence;
+    }
+}
@@ -19,11 +19,15 @@
 package org.apache.curator.framework.recipes.locks;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.utils.ThreadUtils;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 public class StandardLockInternalsDriver implements LockInternalsDriver
 {
@@ -56,6 +60,38 @@ public class StandardLockInternalsDriver implements LockInternalsDriver
         return ourPath;
     }
 
+    @Override
+    public CompletionStage<String> createsTheLockAsync(CuratorFramework client, String path, byte[] lockNodeBytes)
+    {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        BackgroundCallback callback = (__, event) -> {
+            if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+            {
+                future.complete(event.getName());
+            }
+            else
+            {
+                future.completeExceptionally(KeeperException.create(KeeperException.Code.get(event.getResultCode()), event.getPath()));
+            }
+        };
+        try
+        {
+            if ( lockNodeBytes != null )
+            {
+                client.create().creatingParentContainersIfNeeded().withProtection().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).inBackground(callback).forPath(path, lockNodeBytes);
+            }
+            else
+            {
+                client.create().creatingParentContainersIfNeeded().withProtection().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).inBackground(callback).forPath(path);
+            }
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 
     @Override
     public String fixForSorting(String str, String lockName)
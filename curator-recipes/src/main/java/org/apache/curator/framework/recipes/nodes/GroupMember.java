@@ -34,8 +34,6 @@ import java.io.Closeable;
 import java.util.Iterator;
 import java.util.Map;
 
-import static org.apache.curator.framework.recipes.cache.CuratorCacheAccessor.parentPathFilter;
-
 /**
  * Group membership management. Adds this instance into a group and
  * keeps a cache of members in the group
@@ -129,7 +127,7 @@ public class GroupMember implements Closeable
         ImmutableMap.Builder<String, byte[]> builder = ImmutableMap.builder();
         boolean thisIdAdded = false;
 
-        Iterator<ChildData> iterator = cache.stream().filter(parentPathFilter(membershipPath)).iterator();
+        Iterator<ChildData> iterator = cache.children(membershipPath).iterator();
         while ( iterator.hasNext() )
         {
             ChildData data = iterator.next();
@@ -37,12 +37,12 @@ import org.apache.curator.utils.PathUtils;
 
 class ChildrenCache implements Closeable
 {
-    private final WatcherRemoveCuratorFramework client;
-    private final String path;
+    final WatcherRemoveCuratorFramework client;
+    final String path;
     private final AtomicReference<Data> children = new AtomicReference<Data>(new Data(Lists.<String>newArrayList(), 0));
-    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    final AtomicBoolean isClosed = new AtomicBoolean(false);
 
-    private final CuratorWatcher watcher = new CuratorWatcher()
+    final CuratorWatcher watcher = new CuratorWatcher()
     {
         @Override
         public void process(WatchedEvent event) throws Exception
@@ -137,7 +137,7 @@ class ChildrenCache implements Closeable
         notifyAll();
     }
 
-    private synchronized void sync(boolean watched) throws Exception
+    synchronized void sync(boolean watched) throws Exception
     {
         if ( watched )
         {
@@ -149,7 +149,7 @@ class ChildrenCache implements Closeable
         }
     }
 
-    private synchronized void setNewChildren(List<String> newChildren)
+    synchronized void setNewChildren(List<String> newChildren)
     {
         if ( newChildren != null )
         {
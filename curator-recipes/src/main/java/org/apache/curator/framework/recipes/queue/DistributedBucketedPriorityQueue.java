@@ -0,0 +1,301 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.queue;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.curator.framework.listen.StandardListenerManager;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A priority queue that stores each priority band in its own child node of the queue path. Unlike
+ * {@link DistributedPriorityQueue}, which encodes the priority in the item's node name and must re-get and
+ * sort every item of the queue, each band is a plain FIFO {@link DistributedQueue} so that the lists of children
+ * stay small.</p>
+ *
+ * <p>Priorities are the numbers <code>0</code> to <code>bucketQty - 1</code> - lower numbers come out of the
+ * queue first. Consumers take items from a band only while all higher priority bands are empty.
+ * When items are added to a higher priority band, consumers of lower bands stop taking new items until
+ * the higher band is drained.</p>
+ *
+ * <p>NOTE: ordering between bands is a best effort. Consumers check higher priority bands every
+ * {@link #BAND_CHECK_MS} milliseconds while they are waiting.</p>
+ *
+ * @since 5.2.0
+ */
+public class DistributedBucketedPriorityQueue<T> implements Closeable, QueueBase<T>
+{
+    private final DistributedQueue<T>[] bands;
+    private final StandardListenerManager<QueuePutListener<T>> putListenerContainer = StandardListenerManager.standard();
+
+    /**
+     * Interval at which a consumer that is waiting for higher priority bands re-checks them
+     */
+    public static final int BAND_CHECK_MS = 100;
+
+    private static final String BAND_NAME = "band-";
+
+    @SuppressWarnings("unchecked")
+    DistributedBucketedPriorityQueue
+        (
+            CuratorFramework client,
+            QueueConsumer<T> consumer,
+            QueueSerializer<T> serializer,
+            String queuePath,
+            ThreadFactory threadFactory,
+            Executor executor,
+            int bucketQty,
+            String lockPath,
+            int maxItems,
+            boolean putInBackground,
+            int finalFlushMs,
+            boolean lengthPrefixedItems
+        )
+    {
+        Preconditions.checkArgument(bucketQty > 0, "bucketQty must be a positive number");
+
+        bands = new DistributedQueue[bucketQty];
+        for ( int i = 0; i < bucketQty; ++i )
+        {
+            final int   priority = i;
+            String      bandName = BAND_NAME + i;
+            bands[i] = new DistributedQueue<T>
+            (
+                client,
+                consumer,
+                serializer,
+                ZKPaths.makePath(queuePath, bandName),
+                threadFactory,
+                executor,
+                Integer.MAX_VALUE,
+                false,
+                (lockPath != null) ? ZKPaths.makePath(lockPath, bandName) : null,  // item names are only unique within a band
+                maxItems,
+                putInBackground,
+                finalFlushMs,
+                0,
+                lengthPrefixedItems
+            )
+            {
+                @Override
+                protected long getDelay(String itemNode)
+                {
+                    return hasHigherPriorityItems(priority) ? BAND_CHECK_MS : 0;
+                }
+            };
+            bands[i].getPutListenerContainer().addListener(new QueuePutListener<T>()
+            {
+                @Override
+                public void putCompleted(T item)
+                {
+                    putListenerContainer.forEach(listener -> listener.putCompleted(item));
+                }
+
+                @Override
+                public void putMultiCompleted(MultiItem<T> items)
+                {
+                    putListenerContainer.forEach(listener -> listener.putMultiCompleted(items));
+                }
+            });
+        }
+    }
+
+    /**
+     * Start the queue. No other methods work until this is called
+     *
+     * @throws Exception startup errors
+     */
+    @Override
+    public void     start() throws Exception
+    {
+        for ( DistributedQueue<T> band : bands )
+        {
+            band.start();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        for ( DistributedQueue<T> band : bands )
+        {
+            CloseableUtils.closeQuietly(band);
+        }
+        putListenerContainer.clear();
+    }
+
+    /**
+     * Add an item into the queue. Adding is done in the background - thus, this method will
+     * return quickly.<br><br>
+     * NOTE: if an upper bound was set via {@link QueueBuilder#maxItems}, this method will
+     * block until there is available space in the item's band.
+     *
+     * @param item item to add
+     * @param priority item's priority (<code>0</code> to <code>bucketQty - 1</code>) - lower numbers come out of the queue first
+     * @throws Exception connection issues
+     */
+    public void     put(T item, int priority) throws Exception
+    {
+        put(item, priority, 0, null);
+    }
+
+    /**
+     * Same as {@link #put(Object, int)} but allows a maximum wait time if an upper bound was set
+     * via {@link QueueBuilder#maxItems}.
+     *
+     * @param item item to add
+     * @param priority item's priority (<code>0</code> to <code>bucketQty - 1</code>) - lower numbers come out of the queue first
+     * @param maxWait maximum wait
+     * @param unit wait unit
+     * @return true if items was added, false if timed out
+     * @throws Exception
+     */
+    public boolean     put(T item, int priority, int maxWait, TimeUnit unit) throws Exception
+    {
+        return getBand(priority).put(item, maxWait, unit);
+    }
+
+    /**
+     * Add a set of items with the same priority into the queue. Adding is done in the background - thus, this method will
+     * return quickly.<br><br>
+     * NOTE: if an upper bound was set via {@link QueueBuilder#maxItems}, this method will
+     * block until there is available space in the items' band.
+     *
+     * @param items items to add
+     * @param priority item priority (<code>0</code> to <code>bucketQty - 1</code>) - lower numbers come out of the queue first
+     * @throws Exception connection issues
+     */
+    public void     putMulti(MultiItem<T> items, int priority) throws Exception
+    {
+        putMulti(items, priority, 0, null);
+    }
+
+    /**
+     * Same as {@link #putMulti(MultiItem, int)} but allows a maximum wait time if an upper bound was set
+     * via {@link QueueBuilder#maxItems}.
+     *
+     * @param items items to add
+     * @param priority item priority (<code>0</code> to <code>bucketQty - 1</code>) - lower numbers come out of the queue first
+     * @param maxWait maximum wait
+     * @param unit wait unit
+     * @return true if items was added, false if timed out
+     * @throws Exception
+     */
+    public boolean      putMulti(MultiItem<T> items, int priority, int maxWait, TimeUnit unit) throws Exception
+    {
+        return getBand(priority).putMulti(items, maxWait, unit);
+    }
+
+    @Override
+    public void setErrorMode(ErrorMode newErrorMode)
+    {
+        for ( DistributedQueue<T> band : bands )
+        {
+            band.setErrorMode(newErrorMode);
+        }
+    }
+
+    @Override
+    public boolean flushPuts(long waitTime, TimeUnit timeUnit) throws InterruptedException
+    {
+        long    startMs = System.currentTimeMillis();
+        long    maxWaitMs = timeUnit.toMillis(waitTime);
+        for ( DistributedQueue<T> band : bands )
+        {
+            long    remainingMs = maxWaitMs - (System.currentTimeMillis() - startMs);
+            if ( !band.flushPuts(Math.max(remainingMs, 0), TimeUnit.MILLISECONDS) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the manager for put listeners
+     *
+     * @return put listener container
+     */
+    @Override
+    public Listenable<QueuePutListener<T>> getPutListenerContainer()
+    {
+        return putListenerContainer;
+    }
+
+    /**
+     * Return the most recent message count from the queue, summed over all bands. This is useful for debugging/information
+     * purposes only.
+     *
+     * @return count (can be 0)
+     */
+    @Override
+    public int getLastMessageCount()
+    {
+        int     count = 0;
+        for ( DistributedQueue<T> band : bands )
+        {
+            count += band.getLastMessageCount();
+        }
+        return count;
+    }
+
+    /**
+     * Return the number of priority bands
+     *
+     * @return qty
+     */
+    public int getBucketQty()
+    {
+        return bands.length;
+    }
+
+    @VisibleForTesting
+    ChildrenCache getCache(int priority)
+    {
+        return getBand(priority).getCache();
+    }
+
+    private DistributedQueue<T> getBand(int priority)
+    {
+        Preconditions.checkArgument((priority >= 0) && (priority < bands.length), "priority must be from 0 to %s - found: %s", bands.length - 1, priority);
+        return bands[priority];
+    }
+
+    private boolean hasHigherPriorityItems(int priority)
+    {
+        for ( int i = 0; i < priority; ++i )
+        {
+            ChildrenCache.Data  data = bands[i].getCache().getData();
+            if ( (data.version == 0) || !data.children.isEmpty() )    // version 0 means the band hasn't been read yet
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
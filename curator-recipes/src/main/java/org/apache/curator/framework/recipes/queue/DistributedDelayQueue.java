@@ -37,10 +37,17 @@ import java.util.concurrent.TimeUnit;
  *     are added to the queue, a delay value is given. The item will not be sent to a consumer
  *     until the time elapses.
  * </p>
+ *
+ * <p>
+ *     When built with {@link QueueBuilder#buildDelayQueue(long, TimeUnit)}, items are stored in time bucket
+ *     nodes. Consumers only list the buckets that are due rather than every item in the queue, and ZooKeeper
+ *     deletes a bucket once it has been drained.
+ * </p>
  */
 public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
 {
     private final DistributedQueue<T>      queue;
+    private final boolean                  isBucketed;
 
     private static final char              SEPARATOR = '|';
 
@@ -56,10 +63,15 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
             String lockPath,
             int maxItems,
             boolean putInBackground,
-            int finalFlushMs
+            int finalFlushMs,
+            long bucketMs,
+            boolean lengthPrefixedItems
         )
     {
         Preconditions.checkArgument(minItemsBeforeRefresh >= 0, "minItemsBeforeRefresh cannot be negative");
+        Preconditions.checkArgument(bucketMs >= 0, "bucketMs cannot be negative");
+
+        isBucketed = (bucketMs > 0);
 
         queue = new DistributedQueue<T>
         (
@@ -74,7 +86,9 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            bucketMs,
+            lengthPrefixedItems
         )
         {
             @Override
@@ -159,7 +173,7 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
 
         queue.checkState();
 
-        return queue.internalPut(item, null, queue.makeItemPath() + epochToString(delayUntilEpoch), maxWait, unit);
+        return queue.internalPut(item, null, makeItemPath(delayUntilEpoch), maxWait, unit);
     }
 
     /**
@@ -194,7 +208,7 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
 
         queue.checkState();
 
-        return queue.internalPut(null, items, queue.makeItemPath() + epochToString(delayUntilEpoch), maxWait, unit);
+        return queue.internalPut(null, items, makeItemPath(delayUntilEpoch), maxWait, unit);
     }
 
     @Override
@@ -232,6 +246,12 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
         return queue.getLastMessageCount();
     }
 
+    private String makeItemPath(long delayUntilEpoch)
+    {
+        String      itemPath = isBucketed ? queue.makeBucketedItemPath(delayUntilEpoch) : queue.makeItemPath();
+        return itemPath + epochToString(delayUntilEpoch);
+    }
+
     @VisibleForTesting
     static String epochToString(long epoch)
     {
@@ -68,10 +68,11 @@ public class DistributedIdQueue<T> implements QueueBase<T>
         String lockPath,
         int maxItems,
         boolean putInBackground,
-        int finalFlushMs
+        int finalFlushMs,
+        boolean lengthPrefixedItems
     )
     {
-        queue = new DistributedQueue<T>(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs)
+        queue = new DistributedQueue<T>(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs, 0, lengthPrefixedItems)
         {
             @Override
             protected void sortChildren(List<String> children)
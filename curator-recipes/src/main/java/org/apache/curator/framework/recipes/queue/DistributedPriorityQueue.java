@@ -51,7 +51,8 @@ public class DistributedPriorityQueue<T> implements Closeable, QueueBase<T>
             String lockPath,
             int maxItems,
             boolean putInBackground,
-            int finalFlushMs
+            int finalFlushMs,
+            boolean lengthPrefixedItems
         )
     {
         Preconditions.checkArgument(minItemsBeforeRefresh >= 0, "minItemsBeforeRefresh cannot be negative");
@@ -69,7 +70,9 @@ public class DistributedPriorityQueue<T> implements Closeable, QueueBase<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            0,
+            lengthPrefixedItems
         );
     }
 
@@ -23,8 +23,10 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.CuratorEventType;
+import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.StandardListenerManager;
@@ -41,6 +43,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -64,6 +67,8 @@ import java.util.concurrent.atomic.AtomicReference;
  * <li>If an instance receives an item from the queue but dies while processing it, the item will be lost. If you need message recoverability, use
  * a {@link QueueBuilder#lockPath(String)}</li>
  * </ul>
+ *
+ * <p>If the consumer is a {@link QueueBatchConsumer}, items are claimed and delivered in batches.</p>
  */
 public class DistributedQueue<T> implements QueueBase<T>
 {
@@ -86,6 +91,8 @@ public class DistributedQueue<T> implements QueueBase<T>
     private final int finalFlushMs;
     private final boolean putInBackground;
     private final ChildrenCache childrenCache;
+    private final long bucketMs;
+    private final boolean lengthPrefixedItems;
 
     private final AtomicInteger     putCount = new AtomicInteger(0);
 
@@ -120,12 +127,38 @@ public class DistributedQueue<T> implements QueueBase<T>
             boolean putInBackground,
             int finalFlushMs
         )
+    {
+        this(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs, 0, false);
+    }
+
+    /**
+     * @param bucketMs if greater than 0, items are stored in time bucket containers of this size. See {@link #makeBucketedItemPath(long)}
+     * @param lengthPrefixedItems if true, items are written in the length-prefixed format. See {@link QueueBuilder#lengthPrefixedItems(boolean)}
+     */
+    DistributedQueue
+        (
+            CuratorFramework client,
+            QueueConsumer<T> consumer,
+            QueueSerializer<T> serializer,
+            String queuePath,
+            ThreadFactory threadFactory,
+            Executor executor,
+            int minItemsBeforeRefresh,
+            boolean refreshOnWatch,
+            String lockPath,
+            int maxItems,
+            boolean putInBackground,
+            int finalFlushMs,
+            long bucketMs,
+            boolean lengthPrefixedItems
+        )
     {
         Preconditions.checkNotNull(client, "client cannot be null");
         Preconditions.checkNotNull(serializer, "serializer cannot be null");
         Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
         Preconditions.checkNotNull(executor, "executor cannot be null");
         Preconditions.checkArgument(maxItems > 0, "maxItems must be a positive number");
+        Preconditions.checkArgument(bucketMs >= 0, "bucketMs cannot be negative");
 
         isProducerOnly = (consumer == null);
         this.lockPath = (lockPath == null) ? null : PathUtils.validatePath(lockPath);
@@ -139,8 +172,10 @@ public class DistributedQueue<T> implements QueueBase<T>
         this.executor = executor;
         this.maxItems = maxItems;
         this.finalFlushMs = finalFlushMs;
+        this.lengthPrefixedItems = lengthPrefixedItems;
         service = Executors.newFixedThreadPool(2, threadFactory);
-        childrenCache = new ChildrenCache(client, queuePath);
+        this.bucketMs = bucketMs;
+        childrenCache = (bucketMs > 0) ? new TimeBucketedChildrenCache(client, queuePath, bucketMs) : new ChildrenCache(client, queuePath);
 
         if ( (maxItems != QueueBuilder.NOT_SET) && putInBackground )
         {
@@ -386,7 +421,7 @@ public class DistributedQueue<T> implements QueueBase<T>
         }
 
         putCount.incrementAndGet();
-        byte[]              bytes = ItemSerializer.serialize(multiItem, serializer);
+        byte[]              bytes = ItemSerializer.serialize(multiItem, serializer, lengthPrefixedItems);
         if ( putInBackground )
         {
             doPutInBackground(item, path, givenMultiItem, bytes);
@@ -400,7 +435,14 @@ public class DistributedQueue<T> implements QueueBase<T>
 
     private void doPutInForeground(final T item, String path, final MultiItem<T> givenMultiItem, byte[] bytes) throws Exception
     {
-        client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(path, bytes);
+        if ( bucketMs > 0 )
+        {
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(path, bytes);
+        }
+        else
+        {
+            client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(path, bytes);
+        }
         synchronized(putCount)
         {
             putCount.decrementAndGet();
@@ -457,7 +499,14 @@ public class DistributedQueue<T> implements QueueBase<T>
     @VisibleForTesting
     void internalCreateNode(String path, byte[] bytes, BackgroundCallback callback) throws Exception
     {
-        client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).inBackground(callback).forPath(path, bytes);
+        if ( bucketMs > 0 )
+        {
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT_SEQUENTIAL).inBackground(callback).forPath(path, bytes);
+        }
+        else
+        {
+            client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).inBackground(callback).forPath(path, bytes);
+        }
     }
 
     void checkState() throws Exception
@@ -473,6 +522,25 @@ public class DistributedQueue<T> implements QueueBase<T>
         return ZKPaths.makePath(queuePath, QUEUE_ITEM_NAME);
     }
 
+    /**
+     * Returns the item path in the time bucket of the given epoch. The bucket node is created as a container
+     * when the item is put so that it is deleted once it has been drained
+     *
+     * @param epoch epoch (milliseconds) that determines the bucket
+     * @return item path
+     */
+    String makeBucketedItemPath(long epoch)
+    {
+        Preconditions.checkState(bucketMs > 0, "The queue does not use time buckets");
+        return ZKPaths.makePath(queuePath, TimeBucketedChildrenCache.bucketName(epoch, bucketMs), QUEUE_ITEM_NAME);
+    }
+
+    private static boolean isQueueItem(String itemNode)
+    {
+        // item nodes in time buckets are named bucket/item
+        return itemNode.startsWith(QUEUE_ITEM_NAME, itemNode.lastIndexOf(ZKPaths.PATH_SEPARATOR) + 1);
+    }
+
     @VisibleForTesting
     ChildrenCache getCache()
     {
@@ -549,7 +617,7 @@ public class DistributedQueue<T> implements QueueBase<T>
                         continue;
                     }
 
-                    processChildren(children, currentVersion);
+                    maxWaitMs = processChildren(children, currentVersion);
                 }
                 catch ( InterruptedException e )
                 {
@@ -565,11 +633,20 @@ public class DistributedQueue<T> implements QueueBase<T>
         }
     }
 
-    private void processChildren(List<String> children, long currentVersion) throws Exception
+    /**
+     * @return the smallest delay of the items that were skipped because they weren't ready yet or 0
+     */
+    private long processChildren(List<String> children, long currentVersion) throws Exception
     {
+        if ( consumer instanceof QueueBatchConsumer )
+        {
+            return processChildrenInBatches(children, currentVersion, (QueueBatchConsumer<T>)consumer);
+        }
+
         final Semaphore processedLatch = new Semaphore(0);
         final boolean   isUsingLockSafety = (lockPath != null);
         int             min = minItemsBeforeRefresh;
+        long            skippedDelayMs = 0;
         for ( final String itemNode : children )
         {
             if ( Thread.currentThread().isInterrupted() )
@@ -578,7 +655,7 @@ public class DistributedQueue<T> implements QueueBase<T>
                 break;
             }
 
-            if ( !itemNode.startsWith(QUEUE_ITEM_NAME) )
+            if ( !isQueueItem(itemNode) )
             {
                 log.warn("Foreign node in queue path: " + itemNode);
                 processedLatch.release();
@@ -594,8 +671,10 @@ public class DistributedQueue<T> implements QueueBase<T>
                 }
             }
 
-            if ( getDelay(itemNode) > 0 )
+            long    delayMs = getDelay(itemNode);
+            if ( delayMs > 0 )
             {
+                skippedDelayMs = minDelay(skippedDelayMs, delayMs);
                 processedLatch.release();
                 continue;
             }
@@ -633,6 +712,327 @@ public class DistributedQueue<T> implements QueueBase<T>
         }
 
         processedLatch.acquire(children.size());
+        return skippedDelayMs;
+    }
+
+    private static long minDelay(long currentDelayMs, long delayMs)
+    {
+        return (currentDelayMs > 0) ? Math.min(currentDelayMs, delayMs) : delayMs;
+    }
+
+    private long processChildrenInBatches(List<String> children, long currentVersion, final QueueBatchConsumer<T> batchConsumer) throws Exception
+    {
+        final boolean       isUsingLockSafety = (lockPath != null);
+        final int           maxBatchSize = Math.max(batchConsumer.getMaxBatchSize(), 1);
+        List<List<String>>  batches = Lists.newArrayList();
+        List<String>        batch = Lists.newArrayList();
+        int                 min = minItemsBeforeRefresh;
+        long                skippedDelayMs = 0;
+        for ( String itemNode : children )
+        {
+            if ( !isQueueItem(itemNode) )
+            {
+                log.warn("Foreign node in queue path: " + itemNode);
+                continue;
+            }
+
+            if ( min-- <= 0 )
+            {
+                if ( refreshOnWatch && (currentVersion != childrenCache.getData().version) )
+                {
+                    break;
+                }
+            }
+
+            long    delayMs = getDelay(itemNode);
+            if ( delayMs > 0 )
+            {
+                skippedDelayMs = minDelay(skippedDelayMs, delayMs);
+                continue;
+            }
+
+            batch.add(itemNode);
+            if ( batch.size() >= maxBatchSize )
+            {
+                batches.add(batch);
+                batch = Lists.newArrayList();
+            }
+        }
+        if ( !batch.isEmpty() )
+        {
+            batches.add(batch);
+        }
+
+        final Semaphore processedLatch = new Semaphore(0);
+        int             submitted = 0;
+        for ( final List<String> itemNodes : batches )
+        {
+            if ( Thread.currentThread().isInterrupted() )
+            {
+                break;
+            }
+
+            ++submitted;
+            executor.execute
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            if ( isUsingLockSafety )
+                            {
+                                processBatchWithLockSafety(itemNodes, batchConsumer);
+                            }
+                            else
+                            {
+                                processBatchNormally(itemNodes, batchConsumer);
+                            }
+                        }
+                        catch ( Exception e )
+                        {
+                            ThreadUtils.checkInterrupted(e);
+                            log.error("Error processing messages at " + itemNodes, e);
+                        }
+                        finally
+                        {
+                            processedLatch.release();
+                        }
+                    }
+                }
+            );
+        }
+
+        processedLatch.acquire(submitted);
+        return skippedDelayMs;
+    }
+
+    private void processBatchNormally(List<String> itemNodes, QueueBatchConsumer<T> batchConsumer) throws Exception
+    {
+        List<BulkResult<byte[]>> readItems = readItems(itemNodes);
+        if ( readItems.isEmpty() || (client.getState() != CuratorFrameworkState.STARTED) )
+        {
+            return;
+        }
+
+        // claim the batch by deleting it in one transaction
+        List<CuratorOp> deletes = Lists.newArrayListWithCapacity(readItems.size());
+        for ( BulkResult<byte[]> readItem : readItems )
+        {
+            deletes.add(client.transactionOp().delete().withVersion(readItem.getStat().getVersion()).forPath(readItem.getPath()));
+        }
+
+        List<BulkResult<byte[]>> claimedItems;
+        if ( commit(deletes) )
+        {
+            claimedItems = readItems;
+        }
+        else
+        {
+            // another process got some of the items - claim the rest individually
+            claimedItems = Lists.newArrayList();
+            for ( BulkResult<byte[]> readItem : readItems )
+            {
+                try
+                {
+                    client.delete().withVersion(readItem.getStat().getVersion()).forPath(readItem.getPath());
+                    claimedItems.add(readItem);
+                }
+                catch ( KeeperException.NoNodeException | KeeperException.BadVersionException ignore )
+                {
+                    // another process got it
+                }
+            }
+        }
+
+        processBatchBytes(claimedItems, batchConsumer);
+    }
+
+    private void processBatchWithLockSafety(List<String> itemNodes, QueueBatchConsumer<T> batchConsumer) throws Exception
+    {
+        List<String> lockedItemNodes = lockItems(itemNodes);
+        try
+        {
+            List<BulkResult<byte[]>> readItems = readItems(lockedItemNodes);
+            if ( readItems.isEmpty() )
+            {
+                return;
+            }
+
+            boolean requeue = (processBatchBytes(readItems, batchConsumer) == ProcessMessageBytesCode.REQUEUE);
+
+            // acknowledge the batch in one transaction
+            List<CuratorOp> operations = Lists.newArrayListWithCapacity(readItems.size() * (requeue ? 2 : 1));
+            for ( BulkResult<byte[]> readItem : readItems )
+            {
+                operations.add(client.transactionOp().delete().forPath(readItem.getPath()));
+                if ( requeue )
+                {
+                    operations.add(client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(makeRequeueItemPath(readItem.getPath()), readItem.getValue()));
+                }
+            }
+            if ( !commit(operations) )
+            {
+                for ( BulkResult<byte[]> readItem : readItems )
+                {
+                    try
+                    {
+                        if ( requeue )
+                        {
+                            client.transaction().forOperations(
+                                client.transactionOp().delete().forPath(readItem.getPath()),
+                                client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(makeRequeueItemPath(readItem.getPath()), readItem.getValue())
+                            );
+                        }
+                        else
+                        {
+                            client.delete().forPath(readItem.getPath());
+                        }
+                    }
+                    catch ( KeeperException.NoNodeException ignore )
+                    {
+                        // another process got it
+                    }
+                }
+            }
+        }
+        finally
+        {
+            unlockItems(lockedItemNodes);
+        }
+    }
+
+    private List<String> lockItems(List<String> itemNodes) throws Exception
+    {
+        List<CuratorOp> creates = Lists.newArrayListWithCapacity(itemNodes.size());
+        for ( String itemNode : itemNodes )
+        {
+            creates.add(client.transactionOp().create().withMode(CreateMode.EPHEMERAL).forPath(ZKPaths.makePath(lockPath, itemNode)));
+        }
+        if ( commit(creates) )
+        {
+            return itemNodes;
+        }
+
+        // another process holds some of the locks - lock the rest individually
+        List<String> lockedItemNodes = Lists.newArrayList();
+        for ( String itemNode : itemNodes )
+        {
+            try
+            {
+                client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(ZKPaths.makePath(lockPath, itemNode));
+                lockedItemNodes.add(itemNode);
+            }
+            catch ( KeeperException.NodeExistsException ignore )
+            {
+                // another process got it
+            }
+        }
+        return lockedItemNodes;
+    }
+
+    private void unlockItems(List<String> lockedItemNodes) throws Exception
+    {
+        List<CuratorOp> deletes = Lists.newArrayListWithCapacity(lockedItemNodes.size());
+        for ( String itemNode : lockedItemNodes )
+        {
+            deletes.add(client.transactionOp().delete().forPath(ZKPaths.makePath(lockPath, itemNode)));
+        }
+        if ( !deletes.isEmpty() && !commit(deletes) )
+        {
+            for ( String itemNode : lockedItemNodes )
+            {
+                try
+                {
+                    client.delete().guaranteed().forPath(ZKPaths.makePath(lockPath, itemNode));
+                }
+                catch ( KeeperException.NoNodeException ignore )
+                {
+                    // already deleted
+                }
+            }
+        }
+    }
+
+    private List<BulkResult<byte[]>> readItems(List<String> itemNodes) throws Exception
+    {
+        List<String> itemPaths = Lists.newArrayListWithCapacity(itemNodes.size());
+        for ( String itemNode : itemNodes )
+        {
+            itemPaths.add(ZKPaths.makePath(queuePath, itemNode));
+        }
+
+        List<BulkResult<byte[]>> readItems = Lists.newArrayListWithCapacity(itemPaths.size());
+        for ( Map.Entry<String, BulkResult<byte[]>> entry : client.getData().forPaths(itemPaths).entrySet() )
+        {
+            BulkResult<byte[]> result = entry.getValue();
+            if ( result.isSuccess() )
+            {
+                readItems.add(result);
+            }
+            else if ( result.getResultCode() != KeeperException.Code.NONODE.intValue() )   // NONODE - another process got it
+            {
+                throw result.getException();
+            }
+        }
+        return readItems;
+    }
+
+    private boolean commit(List<CuratorOp> operations) throws Exception
+    {
+        try
+        {
+            client.transaction().forOperations(operations);
+            return true;
+        }
+        catch ( KeeperException.NodeExistsException | KeeperException.NoNodeException | KeeperException.BadVersionException ignore )
+        {
+            // the whole transaction fails if any item was taken by another process
+            return false;
+        }
+    }
+
+    private ProcessMessageBytesCode processBatchBytes(List<BulkResult<byte[]>> items, QueueBatchConsumer<T> batchConsumer)
+    {
+        List<T> messages = Lists.newArrayList();
+        for ( BulkResult<byte[]> item : items )
+        {
+            try
+            {
+                MultiItem<T> multiItem = ItemSerializer.deserialize(item.getValue(), serializer);
+                for ( T message = multiItem.nextItem(); message != null; message = multiItem.nextItem() )
+                {
+                    messages.add(message);
+                }
+            }
+            catch ( Throwable e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("Corrupted queue item: " + item.getPath(), e);
+            }
+        }
+
+        if ( messages.isEmpty() )
+        {
+            return ProcessMessageBytesCode.NORMAL;
+        }
+
+        try
+        {
+            batchConsumer.consumeMessages(messages);
+        }
+        catch ( Throwable e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Exception processing queue items: " + items.size(), e);
+            if ( (lockPath != null) && (errorMode.get() == ErrorMode.REQUEUE) )
+            {
+                return ProcessMessageBytesCode.REQUEUE;
+            }
+        }
+        return ProcessMessageBytesCode.NORMAL;
     }
 
     private enum ProcessMessageBytesCode
@@ -658,7 +1058,17 @@ public class DistributedQueue<T> implements QueueBase<T>
 
         for(;;)
         {
-            T       item = items.nextItem();
+            T       item;
+            try
+            {
+                item = items.nextItem();    // items are deserialized lazily
+            }
+            catch ( Throwable e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("Corrupted queue item: " + itemNode, e);
+                break;
+            }
             if ( item == null )
             {
                 break;
@@ -729,7 +1139,7 @@ public class DistributedQueue<T> implements QueueBase<T>
         boolean     lockCreated = false;
         try
         {
-            client.create().withMode(CreateMode.EPHEMERAL).forPath(lockNodePath);
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(lockNodePath);
             lockCreated = true;
 
             String  itemPath = ZKPaths.makePath(queuePath, itemNode);
@@ -19,93 +19,190 @@
 package org.apache.curator.framework.recipes.queue;
 
 import com.google.common.collect.Lists;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Iterator;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
+/**
+ * <p>Serializes the items of a {@link MultiItem} into a single queue node.</p>
+ *
+ * <p>By default, items are written in the original opcode based format ({@link #VERSION}) so that
+ * consumers running older versions can still read them. If enabled via
+ * {@link QueueBuilder#lengthPrefixedItems(boolean)}, items are written in a length-prefixed format
+ * ({@link #VERSION_2}) instead: the version, the item count and then the size and bytes of each item.
+ * Either way, the payload is allocated once at its final size. When read, the frame is validated up
+ * front and the items are then deserialized lazily from slices of the node's data as the returned
+ * {@link MultiItem} is iterated. Both formats are always readable.</p>
+ */
 class ItemSerializer
 {
     private static final int    VERSION = 0x00010001;
+    private static final int    VERSION_2 = 0x00010002;
 
     private static final byte   ITEM_OPCODE = 0x01;
     private static final byte   EOF_OPCODE = 0x02;
 
-    private static final int    INITIAL_BUFFER_SIZE = 0x1000;
-
     static<T> MultiItem<T>  deserialize(byte[] bytes, QueueSerializer<T> serializer) throws Exception
     {
-        DataInputStream     in = new DataInputStream(new ByteArrayInputStream(bytes));
-        int                 version = in.readInt();
-        if ( version != VERSION )
+        ByteBuffer          buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        try
         {
-            throw new IOException(String.format("Incorrect version. Expected %d - Found: %d", VERSION, version));
+            int             version = buffer.getInt();
+            boolean         isLegacy;
+            if ( version == VERSION_2 )
+            {
+                isLegacy = false;
+            }
+            else if ( version == VERSION )
+            {
+                isLegacy = true;
+            }
+            else
+            {
+                throw new IOException(String.format("Incorrect version. Expected %d - Found: %d", VERSION_2, version));
+            }
+
+            int             qty = isLegacy ? validateLegacyFrame(buffer.duplicate()) : validateFrame(buffer);
+            return new LazyMultiItem<T>(buffer, qty, isLegacy, serializer);
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw new IOException("Truncated queue item", e);
         }
+    }
+
+    static<T> byte[]        serialize(MultiItem<T> items, QueueSerializer<T> serializer) throws Exception
+    {
+        return serialize(items, serializer, false);
+    }
 
-        List<T>             items = Lists.newArrayList();
+    static<T> byte[]        serialize(MultiItem<T> items, QueueSerializer<T> serializer, boolean lengthPrefixed) throws Exception
+    {
+        List<byte[]>        itemBytesList = Lists.newArrayList();
+        int                 size = lengthPrefixed ? 8 : 5;   // version + qty or version + EOF opcode
         for(;;)
         {
-            byte    opcode = in.readByte();
-            if ( opcode == EOF_OPCODE )
+            T   item = items.nextItem();
+            if ( item == null )
             {
                 break;
             }
+            byte[]      itemBytes = serializer.serialize(item);
+            itemBytesList.add(itemBytes);
+            size = Math.addExact(size, (lengthPrefixed ? 4 : 5) + itemBytes.length);
+        }
 
-            if ( opcode != ITEM_OPCODE )
-            {
-                throw new IOException(String.format("Incorrect opcode. Expected %d - Found: %d", ITEM_OPCODE, opcode));
-            }
-            int     size = in.readInt();
-            if ( size < 0 )
+        ByteBuffer          buffer = ByteBuffer.allocate(size);
+        if ( lengthPrefixed )
+        {
+            buffer.putInt(VERSION_2);
+            buffer.putInt(itemBytesList.size());
+            for ( byte[] itemBytes : itemBytesList )
             {
-                throw new IOException(String.format("Bad size: %d", size));
+                buffer.putInt(itemBytes.length);
+                buffer.put(itemBytes);
             }
-            byte[]     itemBytes = new byte[size];
-            if ( size > 0 )
+        }
+        else
+        {
+            buffer.putInt(VERSION);
+            for ( byte[] itemBytes : itemBytesList )
             {
-                in.readFully(itemBytes);
+                buffer.put(ITEM_OPCODE);
+                buffer.putInt(itemBytes.length);
+                buffer.put(itemBytes);
             }
-            items.add(serializer.deserialize(itemBytes));
+            buffer.put(EOF_OPCODE);
         }
+        return buffer.array();
+    }
 
-        final Iterator<T>   iterator = items.iterator();
-        return new MultiItem<T>()
+    private static int validateFrame(ByteBuffer buffer) throws IOException
+    {
+        int         qty = buffer.getInt();
+        if ( qty < 0 )
         {
-            @Override
-            public T nextItem()
-            {
-                return iterator.hasNext() ? iterator.next() : null;
-            }
-        };
+            throw new IOException(String.format("Bad item count: %d", qty));
+        }
+
+        ByteBuffer  frame = buffer.duplicate();
+        for ( int i = 0; i < qty; ++i )
+        {
+            skipItem(frame);
+        }
+        if ( frame.hasRemaining() )
+        {
+            throw new IOException(String.format("Unexpected trailing bytes: %d", frame.remaining()));
+        }
+        return qty;
     }
 
-    static<T> byte[]        serialize(MultiItem<T> items, QueueSerializer<T> serializer) throws Exception
+    private static int validateLegacyFrame(ByteBuffer frame) throws IOException
     {
-        ByteArrayOutputStream       bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
-        DataOutputStream            out = new DataOutputStream(bytes);
-        out.writeInt(VERSION);
+        int         qty = 0;
         for(;;)
         {
-            T   item = items.nextItem();
-            if ( item == null )
+            byte    opcode = frame.get();
+            if ( opcode == EOF_OPCODE )
             {
                 break;
             }
-            byte[]      itemBytes = serializer.serialize(item);
-            out.writeByte(ITEM_OPCODE);
-            out.writeInt(itemBytes.length);
-            if ( itemBytes.length > 0 )
+
+            if ( opcode != ITEM_OPCODE )
             {
-                out.write(itemBytes);
+                throw new IOException(String.format("Incorrect opcode. Expected %d - Found: %d", ITEM_OPCODE, opcode));
             }
+            skipItem(frame);
+            ++qty;
         }
-        out.writeByte(EOF_OPCODE);
-        out.close();
+        return qty;
+    }
 
-        return bytes.toByteArray();
+    private static void skipItem(ByteBuffer frame) throws IOException
+    {
+        int     size = frame.getInt();
+        if ( (size < 0) || (size > frame.remaining()) )
+        {
+            throw new IOException(String.format("Bad size: %d", size));
+        }
+        frame.position(frame.position() + size);
+    }
+
+    private static class LazyMultiItem<T> implements MultiItem<T>
+    {
+        private final ByteBuffer buffer;
+        private final boolean isLegacy;
+        private final QueueSerializer<T> serializer;
+        private int remaining;
+
+        LazyMultiItem(ByteBuffer buffer, int qty, boolean isLegacy, QueueSerializer<T> serializer)
+        {
+            this.buffer = buffer;
+            this.remaining = qty;
+            this.isLegacy = isLegacy;
+            this.serializer = serializer;
+        }
+
+        @Override
+        public T nextItem()
+        {
+            if ( remaining == 0 )
+            {
+                return null;
+            }
+            --remaining;
+
+            if ( isLegacy )
+            {
+                buffer.get();   // ITEM_OPCODE - already validated
+            }
+            int         size = buffer.getInt();
+            ByteBuffer  slice = buffer.slice();
+            slice.limit(size);
+            buffer.position(buffer.position() + size);
+            return serializer.deserialize(slice);
+        }
     }
 
     private ItemSerializer()
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.queue;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Message consumer that receives messages in batches. When a queue's consumer implements this interface,
+ * the queue claims up to {@link #getMaxBatchSize()} items per round: the items are read with a single
+ * pipelined bulk read and removed (or, when a lock path is used, locked and later acknowledged) with a
+ * single transaction instead of round trips per item.</p>
+ *
+ * <p>When a {@link QueueBuilder#lockPath(String)} is used, the batch is the unit of error handling - i.e.
+ * if {@link #consumeMessages(List)} throws and the error mode is {@link ErrorMode#REQUEUE}, all items of
+ * the batch are requeued.</p>
+ */
+public interface QueueBatchConsumer<T> extends QueueConsumer<T>
+{
+    /**
+     * Default value for {@link #getMaxBatchSize()}
+     */
+    int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /**
+     * Process a batch of messages from the queue. The messages are in queue order.
+     *
+     * @param messages messages to process
+     * @throws Exception any errors
+     */
+    void consumeMessages(List<T> messages) throws Exception;
+
+    /**
+     * Return the maximum number of queue items to claim per batch. Note: an item added via
+     * {@link DistributedQueue#putMulti(MultiItem)} holds multiple messages.
+     *
+     * @return max items
+     */
+    default int getMaxBatchSize()
+    {
+        return DEFAULT_MAX_BATCH_SIZE;
+    }
+
+    @Override
+    default void consumeMessage(T message) throws Exception
+    {
+        consumeMessages(Collections.singletonList(message));
+    }
+}
@@ -44,6 +44,7 @@ public class QueueBuilder<T>
     private int maxItems = NOT_SET;
     private boolean putInBackground = true;
     private int finalFlushMs = 5000;
+    private boolean lengthPrefixedItems = false;
 
     static final ThreadFactory  defaultThreadFactory = ThreadUtils.newThreadFactory("QueueBuilder");
 
@@ -84,7 +85,9 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            0,
+            lengthPrefixedItems
         );
     }
 
@@ -108,7 +111,8 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            lengthPrefixedItems
         );
     }
 
@@ -145,7 +149,38 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            lengthPrefixedItems
+        );
+    }
+
+    /**
+     * <p>Build a {@link DistributedBucketedPriorityQueue} from the current builder values.</p>
+     *
+     * <p>Each of the <code>bucketQty</code> priority bands is stored in its own child node of the queue path
+     * so that consumers only need to list the highest priority band that has items. If set,
+     * {@link #maxItems(int)} applies to each band.</p>
+     *
+     * @param bucketQty number of priority bands
+     * @return distributed bucketed priority queue
+     * @since 5.2.0
+     */
+    public DistributedBucketedPriorityQueue<T>      buildBucketedPriorityQueue(int bucketQty)
+    {
+        return new DistributedBucketedPriorityQueue<T>
+        (
+            client,
+            consumer,
+            serializer,
+            queuePath,
+            factory,
+            executor,
+            bucketQty,
+            lockPath,
+            maxItems,
+            putInBackground,
+            finalFlushMs,
+            lengthPrefixedItems
         );
     }
 
@@ -168,7 +203,45 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            0,
+            lengthPrefixedItems
+        );
+    }
+
+    /**
+     * <p>Build a {@link DistributedDelayQueue} from the current builder values that stores its items
+     * in time bucket nodes. Each bucket holds the items that become available within the given duration.
+     * Consumers only list the buckets that are due. Buckets are created as containers and are deleted by
+     * ZooKeeper once they have been drained.</p>
+     *
+     * <p>NOTE: producers and consumers of a queue must agree on the bucket duration. Items written to the queue
+     * without buckets are still consumed.</p>
+     *
+     * @param bucketDuration duration of a bucket - e.g. 1 minute
+     * @param unit duration unit
+     * @return distributed delay queue
+     * @since 5.2.0
+     */
+    public DistributedDelayQueue<T>      buildDelayQueue(long bucketDuration, TimeUnit unit)
+    {
+        long        bucketMs = unit.toMillis(bucketDuration);
+        Preconditions.checkArgument(bucketMs > 0, "bucketDuration must be at least 1 millisecond");
+        return new DistributedDelayQueue<T>
+        (
+            client,
+            consumer,
+            serializer,
+            queuePath,
+            factory,
+            executor,
+            Integer.MAX_VALUE,
+            lockPath,
+            maxItems,
+            putInBackground,
+            finalFlushMs,
+            bucketMs,
+            lengthPrefixedItems
         );
     }
 
@@ -247,6 +320,25 @@ public class QueueBuilder<T>
         return this;
     }
 
+    /**
+     * <p>By default, items are written in the original opcode based format that every version of the
+     * queue can read. If true, items are written in a length-prefixed format instead that is allocated
+     * once when written and deserialized lazily when consumed.</p>
+     *
+     * <p><b>IMPORTANT</b> - consumers prior to 5.2.0 reject items in the length-prefixed format and
+     * those items are lost. Only enable this after all consumers of the queue have been upgraded. Consumers
+     * read both formats regardless of this setting.</p>
+     *
+     * @param lengthPrefixedItems true to write the length-prefixed format. false to write the original format (default).
+     * @return this
+     * @since 5.2.0
+     */
+    public QueueBuilder<T>  lengthPrefixedItems(boolean lengthPrefixedItems)
+    {
+        this.lengthPrefixedItems = lengthPrefixedItems;
+        return this;
+    }
+
     /**
      * Sets an amount of time to call {@link DistributedQueue#flushPuts(long, TimeUnit)} when the
      * queue is closed. The default is 5 seconds. Pass 0 to turn flushing on close off.
@@ -18,6 +18,8 @@
  */
 package org.apache.curator.framework.recipes.queue;
 
+import java.nio.ByteBuffer;
+
 /**
  * Helper to serialize/deserialize queue items
  */
@@ -38,4 +40,20 @@ public interface QueueSerializer<T>
      * @return item
      */
     public T            deserialize(byte[] bytes);
+
+    /**
+     * Deserialize the remaining bytes of the given buffer into a queue item. The buffer is a
+     * read-only slice of the queue node's data. Override to read items without copying them. The
+     * default implementation copies the bytes and calls {@link #deserialize(byte[])}
+     *
+     * @param bytes byte representation
+     * @return item
+     * @since 5.2.0
+     */
+    default T           deserialize(ByteBuffer bytes)
+    {
+        byte[]      copy = new byte[bytes.remaining()];
+        bytes.get(copy);
+        return deserialize(copy);
+    }
 }
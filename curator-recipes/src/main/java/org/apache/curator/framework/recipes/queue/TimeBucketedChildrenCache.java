@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.queue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A {@link ChildrenCache} for queues whose items are stored in time bucket nodes (see
+ * {@link #bucketName(long, long)}). Only the buckets whose start time has passed are listed. Their items are
+ * reported as <code>bucket/item</code> names relative to the queue path. Items that are direct children of the
+ * queue path are reported as well.</p>
+ *
+ * <p>A refresh is scheduled for when the next bucket becomes due. Buckets are expected to be containers
+ * so that ZooKeeper deletes them once they have been drained.</p>
+ */
+class TimeBucketedChildrenCache extends ChildrenCache
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final long bucketMs;
+    private final ScheduledExecutorService scheduler = ThreadUtils.newSingleThreadScheduledExecutor("TimeBucketedChildrenCache");
+    private final AtomicLong refreshCount = new AtomicLong(0);
+    private final AtomicLong scheduledBucketStart = new AtomicLong(Long.MAX_VALUE);
+
+    static final String BUCKET_NAME = "bucket-";
+
+    private static final int RETRY_MS = 1000;
+
+    TimeBucketedChildrenCache(CuratorFramework client, String path, long bucketMs)
+    {
+        super(client, path);
+        this.bucketMs = bucketMs;
+    }
+
+    /**
+     * Returns the name of the bucket node for the given epoch
+     *
+     * @param epoch epoch (milliseconds)
+     * @param bucketMs size of a bucket
+     * @return node name
+     */
+    static String bucketName(long epoch, long bucketMs)
+    {
+        return BUCKET_NAME + String.format("%016X", epoch - (epoch % bucketMs));
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    synchronized void sync(boolean watched) throws Exception
+    {
+        // buckets are always watched
+        final long      refresh = refreshCount.incrementAndGet();
+        client.getChildren().usingWatcher(watcher).inBackground((__, event) -> {
+            if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+            {
+                processRoot(refresh, event.getChildren());
+            }
+        }).forPath(path);
+    }
+
+    private void processRoot(final long refresh, List<String> rootChildren) throws Exception
+    {
+        long                now = System.currentTimeMillis();
+        final List<String>  items = Lists.newArrayList();
+        final List<String>  dueBuckets = Lists.newArrayList();
+        long                nextBucketStart = Long.MAX_VALUE;
+        for ( String child : rootChildren )
+        {
+            if ( !child.startsWith(BUCKET_NAME) )
+            {
+                items.add(child);
+                continue;
+            }
+
+            long    bucketStart = getBucketStart(child);
+            if ( bucketStart <= now )
+            {
+                dueBuckets.add(child);
+            }
+            else
+            {
+                nextBucketStart = Math.min(nextBucketStart, bucketStart);
+            }
+        }
+        if ( nextBucketStart != Long.MAX_VALUE )
+        {
+            scheduleRefresh(nextBucketStart, nextBucketStart - now);
+        }
+
+        if ( dueBuckets.isEmpty() )
+        {
+            publish(refresh, items);
+            return;
+        }
+
+        Collections.sort(dueBuckets);
+        final Map<String, List<String>> bucketItems = Maps.newConcurrentMap();
+        final AtomicInteger             remaining = new AtomicInteger(dueBuckets.size());
+        for ( final String bucket : dueBuckets )
+        {
+            client.getChildren().usingWatcher(watcher).inBackground((__, event) -> {
+                processBucket(bucket, event, bucketItems);
+                if ( remaining.decrementAndGet() == 0 )
+                {
+                    for ( String dueBucket : dueBuckets )
+                    {
+                        items.addAll(bucketItems.getOrDefault(dueBucket, Collections.emptyList()));
+                    }
+                    publish(refresh, items);
+                }
+            }).forPath(ZKPaths.makePath(path, bucket));
+        }
+    }
+
+    private void processBucket(String bucket, CuratorEvent event, Map<String, List<String>> bucketItems)
+    {
+        if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+        {
+            List<String>    items = Lists.newArrayListWithCapacity(event.getChildren().size());
+            for ( String child : event.getChildren() )
+            {
+                items.add(bucket + ZKPaths.PATH_SEPARATOR + child);
+            }
+            bucketItems.put(bucket, items);
+        }
+        else if ( event.getResultCode() != KeeperException.Code.NONODE.intValue() )    // NONODE - drained and deleted
+        {
+            log.warn("Could not list bucket: " + event.getPath() + " - result code: " + event.getResultCode());
+            scheduleRefresh(-1, RETRY_MS);
+        }
+    }
+
+    private void publish(long refresh, List<String> items)
+    {
+        // a newer refresh is in progress
+        if ( refresh == refreshCount.get() )
+        {
+            setNewChildren(items);
+        }
+    }
+
+    private void scheduleRefresh(long bucketStart, long delayMs)
+    {
+        if ( (bucketStart >= 0) && (scheduledBucketStart.getAndSet(bucketStart) == bucketStart) )
+        {
+            return; // already scheduled
+        }
+
+        scheduler.schedule(() -> {
+            if ( !isClosed.get() )
+            {
+                try
+                {
+                    sync(true);
+                }
+                catch ( Exception e )
+                {
+                    ThreadUtils.checkInterrupted(e);
+                    log.error("Could not refresh buckets: " + path, e);
+                }
+            }
+        }, Math.max(delayMs, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private static long getBucketStart(String bucket)
+    {
+        try
+        {
+            return Long.parseLong(bucket.substring(BUCKET_NAME.length()), 16);
+        }
+        catch ( NumberFormatException ignore )
+        {
+            return Long.MAX_VALUE;  // not a bucket - never due
+        }
+    }
+}
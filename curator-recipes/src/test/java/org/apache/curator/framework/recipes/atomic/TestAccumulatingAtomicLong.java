@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.atomic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+public class TestAccumulatingAtomicLong extends BaseClassForTests
+{
+    @Test
+    public void testFlush() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            DistributedAtomicLong number = new DistributedAtomicLong(client, "/counter", new RetryNTimes(10, 10));
+            AccumulatingAtomicLong accumulating = new AccumulatingAtomicLong(number, 0, 1, TimeUnit.DAYS);
+            try
+            {
+                for ( int i = 0; i < 100; ++i )
+                {
+                    accumulating.increment();
+                }
+                accumulating.add(-10);
+                assertEquals(accumulating.getPendingDelta(), 90);
+                assertEquals((long)number.get().postValue(), 0);
+
+                AtomicValue<Long> result = accumulating.flush();
+                assertTrue(result.succeeded());
+                assertEquals((long)result.postValue(), 90);
+                assertEquals((long)number.get().postValue(), 90);
+                assertEquals(accumulating.getPendingDelta(), 0);
+                assertEquals(accumulating.getFlushCount(), 1);
+                assertTrue(accumulating.getTotalStats().getOptimisticTries() >= 1);
+
+                assertNull(accumulating.flush());
+            }
+            finally
+            {
+                CloseableUtils.closeQuietly(accumulating);
+            }
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testThresholdAndClose() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            DistributedAtomicLong number = new DistributedAtomicLong(client, "/counter", new RetryNTimes(10, 10));
+            AccumulatingAtomicLong accumulating = new AccumulatingAtomicLong(number, 10, 1, TimeUnit.DAYS);
+            accumulating.start();
+            try
+            {
+                accumulating.add(10);
+                for ( int i = 0; (i < 10) && (number.get().postValue() != 10); ++i )
+                {
+                    timing.sleepABit();
+                }
+                assertEquals((long)number.get().postValue(), 10);
+
+                accumulating.add(5);
+            }
+            finally
+            {
+                accumulating.close();
+            }
+            // close flushes the remainder
+            assertEquals((long)number.get().postValue(), 15);
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.atomic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestStripedDistributedCounter extends BaseClassForTests
+{
+    @Test
+    public void testConcurrentIncrements() throws Exception
+    {
+        final int threadQty = 10;
+        final int incrementQty = 50;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        ExecutorService executorService = Executors.newFixedThreadPool(threadQty);
+        client.start();
+        try
+        {
+            final StripedDistributedCounter counter = new StripedDistributedCounter(client, "/counter", 4, new RetryNTimes(100, 1));
+            assertEquals(counter.get(), 0);
+
+            List<Future<Void>> futures = Lists.newArrayList();
+            for ( int i = 0; i < threadQty; ++i )
+            {
+                futures.add(executorService.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        for ( int j = 0; j < incrementQty; ++j )
+                        {
+                            assertTrue(counter.increment().succeeded());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for ( Future<Void> future : futures )
+            {
+                future.get();
+            }
+
+            assertEquals(counter.get(), threadQty * incrementQty);
+            assertTrue(client.getChildren().forPath("/counter").size() <= counter.getStripeQty());
+
+            counter.start();
+            try
+            {
+                assertTrue(counter.decrement().succeeded());
+                long expected = (threadQty * incrementQty) - 1;
+                for ( int i = 0; (i < 10) && (counter.get() != expected); ++i )
+                {
+                    timing.sleepABit();
+                }
+                assertEquals(counter.get(), expected);
+            }
+            finally
+            {
+                counter.close();
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testGetImmediatelyAfterStart() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            StripedDistributedCounter writer = new StripedDistributedCounter(client, "/counter", 4, new RetryNTimes(100, 1));
+            for ( int i = 0; i < 10; ++i )
+            {
+                assertTrue(writer.increment().succeeded());
+            }
+
+            // the cache of a new counter hasn't loaded the stripes yet - get() must not under count
+            StripedDistributedCounter counter = new StripedDistributedCounter(client, "/counter", 4, new RetryNTimes(100, 1));
+            counter.start();
+            try
+            {
+                assertEquals(counter.get(), 10);
+            }
+            finally
+            {
+                counter.close();
+            }
+
+            // the previous cache was initialized but the new one isn't - get() must not use it
+            counter.start();
+            try
+            {
+                assertEquals(counter.get(), 10);
+            }
+            finally
+            {
+                counter.close();
+            }
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+}
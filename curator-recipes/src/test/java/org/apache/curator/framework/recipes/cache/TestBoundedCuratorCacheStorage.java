@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.data.Stat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestBoundedCuratorCacheStorage extends CuratorTestBase
+{
+    @Test
+    public void testEviction()
+    {
+        BoundedCuratorCacheStorage storage = CuratorCacheStorage.bounded(250);
+        for ( int i = 0; i < 5; ++i )
+        {
+            storage.put(new ChildData("/test/" + i, new Stat(), new byte[100]));
+        }
+        assertEquals(storage.size(), 5);
+        assertEquals(storage.getDataBytes(), 200);
+        assertEquals(storage.getEvictionCount(), 3);
+
+        // no owning cache - evicted data can't be loaded
+        assertNull(storage.get("/test/0").orElseThrow(AssertionError::new).getData());
+        assertEquals(storage.getMissCount(), 1);
+
+        // touching 3 makes 4 the least recently used
+        assertEquals(storage.get("/test/3").orElseThrow(AssertionError::new).getData().length, 100);
+        storage.put(new ChildData("/test/5", new Stat(), new byte[100]));
+        assertEquals(storage.get("/test/3").orElseThrow(AssertionError::new).getData().length, 100);
+        assertNull(storage.get("/test/4").orElseThrow(AssertionError::new).getData());
+        assertEquals(storage.getHitCount(), 2);
+        assertEquals(storage.getMissCount(), 2);
+
+        storage.remove("/test/3");
+        assertEquals(storage.getDataBytes(), 100);
+        storage.clear();
+        assertEquals(storage.getDataBytes(), 0);
+        assertEquals(storage.size(), 0);
+    }
+
+    @Test
+    public void testReloadFromCache() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            client.create().forPath("/test");
+            for ( int i = 0; i < 10; ++i )
+            {
+                client.create().forPath("/test/" + i, ("data" + i).getBytes());
+            }
+
+            BoundedCuratorCacheStorage storage = CuratorCacheStorage.bounded(10);
+            CountDownLatch initializedLatch = new CountDownLatch(1);
+            try ( CuratorCache cache = CuratorCache.builder(client, "/test").withStorage(storage).build() )
+            {
+                cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(initializedLatch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+
+                assertEquals(cache.size(), 11);
+                assertTrue(storage.getEvictionCount() >= 8);
+                assertTrue(storage.getDataBytes() <= 10);
+
+                // children() and subtree() never re-read evicted data
+                long missCount = storage.getMissCount();
+                assertEquals(cache.children("/test").count(), 10);
+                assertTrue(cache.children("/test").anyMatch(data -> data.getData() == null));
+                assertEquals(cache.subtree("/test").count(), 11);
+                assertEquals(storage.getMissCount(), missCount);
+
+                for ( int i = 0; i < 10; ++i )
+                {
+                    assertArrayEquals(cache.get("/test/" + i).orElseThrow(AssertionError::new).getData(), ("data" + i).getBytes());
+                }
+                assertTrue(storage.getMissCount() > missCount);
+                assertTrue(storage.getDataBytes() <= 10);
+            }
+        }
+    }
+
+    @Test
+    public void testOneCachePerStorage()
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            BoundedCuratorCacheStorage storage = CuratorCacheStorage.bounded(10);
+            CuratorCache cache = CuratorCache.builder(client, "/test").withStorage(storage).build();
+            try
+            {
+                // a second cache would replace the first cache's loader
+                assertThrows(IllegalStateException.class, () -> CuratorCache.builder(client, "/other").withStorage(storage).build());
+            }
+            finally
+            {
+                cache.close();
+            }
+
+            // once closed, the storage can be used again
+            CuratorCache.builder(client, "/other").withStorage(storage).build().close();
+        }
+    }
+}
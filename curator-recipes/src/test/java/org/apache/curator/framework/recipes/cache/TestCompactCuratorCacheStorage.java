@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.ImmutableSet;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.data.Stat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestCompactCuratorCacheStorage extends CuratorTestBase
+{
+    @Test
+    public void testBasics()
+    {
+        CompactCuratorCacheStorage storage = new CompactCuratorCacheStorage(true);
+        Stat stat = new Stat(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+
+        assertFalse(storage.put(new ChildData("/", stat, "root".getBytes())).isPresent());
+        assertFalse(storage.put(new ChildData("/a/b", stat, "ab".getBytes())).isPresent());
+        assertFalse(storage.put(new ChildData("/a/b/c", stat, new byte[0])).isPresent());
+        assertFalse(storage.put(new ChildData("/x", stat, null)).isPresent());
+        assertEquals(storage.size(), 4);
+
+        assertFalse(storage.get("/a").isPresent());     // intermediate trie node only
+        ChildData ab = storage.get("/a/b").orElseThrow(AssertionError::new);
+        assertEquals(ab.getPath(), "/a/b");
+        assertEquals(ab.getStat(), stat);
+        assertArrayEquals(ab.getData(), "ab".getBytes());
+        assertArrayEquals(storage.get("/a/b/c").orElseThrow(AssertionError::new).getData(), new byte[0]);
+        assertNull(storage.get("/x").orElseThrow(AssertionError::new).getData());
+        assertArrayEquals(storage.get("/").orElseThrow(AssertionError::new).getData(), "root".getBytes());
+
+        Stat newStat = new Stat(1, 20, 3, 40, 6, 6, 7, 8, 9, 10, 11);
+        Optional<ChildData> previous = storage.put(new ChildData("/a/b", newStat, "changed".getBytes()));
+        assertEquals(previous.orElseThrow(AssertionError::new), ab);
+        assertEquals(storage.get("/a/b").orElseThrow(AssertionError::new), new ChildData("/a/b", newStat, "changed".getBytes()));
+
+        Set<String> paths = storage.stream().map(ChildData::getPath).collect(Collectors.toSet());
+        assertEquals(paths, ImmutableSet.of("/", "/a/b", "/a/b/c", "/x"));
+
+        assertEquals(storage.remove("/a/b/c").orElseThrow(AssertionError::new).getPath(), "/a/b/c");
+        assertFalse(storage.remove("/a/b/c").isPresent());
+        assertFalse(storage.remove("/a").isPresent());
+        assertEquals(storage.size(), 3);
+
+        storage.clear();
+        assertEquals(storage.size(), 0);
+        assertEquals(storage.stream().count(), 0);
+        assertFalse(storage.get("/").isPresent());
+    }
+
+    @Test
+    public void testSegmentsAreShared()
+    {
+        CompactCuratorCacheStorage storage = new CompactCuratorCacheStorage(false);
+        storage.put(new ChildData("/one/config", new Stat(), null));
+        storage.put(new ChildData("/two/config", new Stat(), null));
+
+        String segment = storage.debugSegment("/one/config");
+        assertEquals(segment, "config");
+        assertSame(storage.debugSegment("/two/config"), segment);
+        assertSame(storage.debugSegmentKey("/one/config"), segment);
+        assertSame(storage.debugSegmentKey("/two/config"), segment);
+    }
+
+    @Test
+    public void testDataNotCached()
+    {
+        CompactCuratorCacheStorage storage = new CompactCuratorCacheStorage(false);
+        storage.put(new ChildData("/test", new Stat(), "hey".getBytes()));
+        assertNull(storage.get("/test").orElseThrow(AssertionError::new).getData());
+        assertEquals(storage.debugOffHeapBytes(), 0);
+    }
+
+    @Test
+    public void testSlabReclamation()
+    {
+        int slabSize = 1024;
+        CompactCuratorCacheStorage storage = new CompactCuratorCacheStorage(true, slabSize);
+        byte[] data = new byte[100];
+
+        for ( int i = 0; i < 1000; ++i )
+        {
+            data[0] = (byte)i;
+            storage.put(new ChildData("/test/" + i, new Stat(), data.clone()));
+        }
+        assertTrue(storage.debugSlabQty() >= 100);
+
+        // oversized values get their own slab
+        storage.put(new ChildData("/big", new Stat(), new byte[slabSize * 3]));
+        assertEquals(storage.get("/big").orElseThrow(AssertionError::new).getData().length, slabSize * 3);
+        storage.remove("/big");
+
+        // remove every other node - leaves every slab half empty which forces a compaction
+        for ( int i = 0; i < 1000; i += 2 )
+        {
+            storage.remove("/test/" + i);
+        }
+        for ( int i = 0; i < 1000; i += 3 )
+        {
+            storage.put(new ChildData("/test/" + i, new Stat(), null));
+        }
+        assertTrue(storage.debugOffHeapBytes() < (1000 * 100));
+
+        for ( int i = 1; i < 1000; i += 2 )
+        {
+            ChildData childData = storage.get("/test/" + i).orElseThrow(AssertionError::new);
+            if ( (i % 3) == 0 )
+            {
+                assertNull(childData.getData());
+            }
+            else
+            {
+                assertEquals(childData.getData()[0], (byte)i);
+            }
+        }
+    }
+
+    @Test
+    public void testWithCuratorCache() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/a/b", "b".getBytes());
+            client.create().forPath("/test/c", "c".getBytes());
+
+            CountDownLatch initializedLatch = new CountDownLatch(1);
+            try ( CuratorCache cache = CuratorCache.builder(client, "/test").withStorage(CuratorCacheStorage.compact()).build() )
+            {
+                cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(initializedLatch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+
+                assertEquals(cache.size(), 4);
+                assertArrayEquals(cache.get("/test/a/b").orElseThrow(AssertionError::new).getData(), "b".getBytes());
+                assertEquals(cache.stream().filter(CuratorCacheAccessor.parentPathFilter("/test")).count(), 2);
+            }
+        }
+    }
+}
@@ -21,19 +21,33 @@ package org.apache.curator.framework.recipes.cache;
 
 import static org.apache.curator.framework.recipes.cache.CuratorCache.Options.DO_NOT_CLEAR_ON_CLOSE;
 import static org.apache.curator.framework.recipes.cache.CuratorCacheListener.builder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.collect.Sets;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.RetryOneTime;
 import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.data.Stat;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Tag(CuratorTestBase.zk36Group)
 public class TestCuratorCache extends CuratorTestBase
@@ -176,4 +190,152 @@ public class TestCuratorCache extends CuratorTestBase
             assertEquals(storage.size(), 0);
         }
     }
+
+    @Test
+    public void testChildrenAndSubtree() throws Exception
+    {
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/one/two/three");
+            client.create().creatingParentsIfNeeded().forPath("/test/one/other");
+            client.create().creatingParentsIfNeeded().forPath("/test/four");
+            try (CuratorCache cache = CuratorCache.build(client, "/test"))
+            {
+                CountDownLatch initializedLatch = new CountDownLatch(1);
+                Semaphore deletedSemaphore = new Semaphore(0);
+                cache.listenable().addListener(builder().forInitialized(initializedLatch::countDown).forDeletes(__ -> deletedSemaphore.release()).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+
+                assertEquals(paths(cache.children("/test")), Sets.newHashSet("/test/one", "/test/four"));
+                assertEquals(paths(cache.children("/test/one")), Sets.newHashSet("/test/one/two", "/test/one/other"));
+                assertEquals(paths(cache.children("/test/four")), Collections.emptySet());
+                assertEquals(paths(cache.children("/nope")), Collections.emptySet());
+
+                assertEquals(paths(cache.subtree("/test/one", 0)), Sets.newHashSet("/test/one"));
+                assertEquals(paths(cache.subtree("/test/one", 1)), Sets.newHashSet("/test/one", "/test/one/two", "/test/one/other"));
+                assertEquals(paths(cache.subtree("/test")), paths(cache.stream()));
+
+                // the default, scanning, implementations must agree with the index
+                CuratorCacheStorage storage = ((CuratorCacheImpl)cache).storage();
+                assertEquals(paths(storage.children("/test/one")), paths(cache.children("/test/one")));
+                assertEquals(paths(storage.subtree("/test/one", 1)), paths(cache.subtree("/test/one", 1)));
+
+                client.delete().forPath("/test/one/other");
+                assertTrue(timing.acquireSemaphore(deletedSemaphore));
+                assertEquals(paths(cache.children("/test/one")), Sets.newHashSet("/test/one/two"));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotRestore(@TempDir Path tempDir) throws Exception
+    {
+        Path snapshotFile = tempDir.resolve("cache.snapshot");
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/one", "one".getBytes());
+            client.create().forPath("/test/two", "two".getBytes());
+            client.create().forPath("/test/three", "three".getBytes());
+
+            Stat oneStat;
+            CountDownLatch initializedLatch = new CountDownLatch(1);
+            try (CuratorCache cache = CuratorCache.builder(client, "/test").withSnapshotFile(snapshotFile).build())
+            {
+                cache.listenable().addListener(builder().forInitialized(initializedLatch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+                oneStat = cache.get("/test/one").orElseThrow(AssertionError::new).getStat();
+            }
+            assertTrue(Files.exists(snapshotFile));
+
+            // change things while the cache is not running
+            client.setData().forPath("/test/two", "changed".getBytes());
+            client.delete().forPath("/test/three");
+            client.create().creatingParentsIfNeeded().forPath("/test/four/five", "five".getBytes());
+
+            List<String> changed = new CopyOnWriteArrayList<>();
+            List<String> deleted = new CopyOnWriteArrayList<>();
+            CountDownLatch reinitializedLatch = new CountDownLatch(1);
+            try (CuratorCache cache = CuratorCache.builder(client, "/test").withSnapshotFile(snapshotFile).build())
+            {
+                cache.listenable().addListener(builder()
+                    .forChanges((__, data) -> changed.add(data.getPath()))
+                    .forDeletes(data -> deleted.add(data.getPath()))
+                    .forInitialized(reinitializedLatch::countDown)
+                    .build()
+                );
+                cache.start();
+
+                // restored nodes are available immediately
+                assertArrayEquals(cache.get("/test/two").orElseThrow(AssertionError::new).getData(), "two".getBytes());
+
+                assertTrue(timing.awaitLatch(reinitializedLatch));
+                assertEquals(changed, Collections.singletonList("/test/two"));
+                assertEquals(deleted, Collections.singletonList("/test/three"));
+                assertEquals(paths(cache.stream()), Sets.newHashSet("/test", "/test/one", "/test/two", "/test/four", "/test/four/five"));
+                assertArrayEquals(cache.get("/test/two").orElseThrow(AssertionError::new).getData(), "changed".getBytes());
+                assertArrayEquals(cache.get("/test/four/five").orElseThrow(AssertionError::new).getData(), "five".getBytes());
+                assertEquals(cache.get("/test/one").orElseThrow(AssertionError::new).getStat(), oneStat);
+            }
+        }
+    }
+
+    @Test
+    public void testEventCoalescing() throws Exception
+    {
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/one", "one".getBytes());
+
+            List<String> events = new CopyOnWriteArrayList<>();
+            CountDownLatch initializedLatch = new CountDownLatch(1);
+            Semaphore eventsSemaphore = new Semaphore(0);
+            try (CuratorCache cache = CuratorCache.builder(client, "/test").withEventCoalescing(1, TimeUnit.SECONDS).build())
+            {
+                cache.listenable().addListener(new CuratorCacheListener()
+                {
+                    @Override
+                    public void event(Type type, ChildData oldData, ChildData data)
+                    {
+                        events.add(type + " " + ((data != null) ? data : oldData).getPath());
+                        eventsSemaphore.release();
+                    }
+
+                    @Override
+                    public void initialized()
+                    {
+                        initializedLatch.countDown();
+                    }
+                });
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+                // the initial nodes are flushed before initialized()
+                assertEquals(Sets.newHashSet(events), Sets.newHashSet("NODE_CREATED /test", "NODE_CREATED /test/one"));
+                events.clear();
+                eventsSemaphore.drainPermits();
+
+                client.create().forPath("/test/two", "a".getBytes());
+                client.setData().forPath("/test/two", "b".getBytes());
+                client.setData().forPath("/test/two", "c".getBytes());
+                client.create().forPath("/test/three");
+                client.delete().forPath("/test/three");
+                client.setData().forPath("/test/one", "1".getBytes());
+                client.delete().forPath("/test/one");
+
+                assertTrue(timing.acquireSemaphore(eventsSemaphore, 2));
+                // one event per node with its net change
+                assertEquals(events, Arrays.asList("NODE_CREATED /test/two", "NODE_DELETED /test/one"));
+                assertArrayEquals(cache.get("/test/two").orElseThrow(AssertionError::new).getData(), "c".getBytes());
+            }
+        }
+    }
+
+    private static Set<String> paths(Stream<ChildData> stream)
+    {
+        return stream.map(ChildData::getPath).collect(Collectors.toSet());
+    }
 }
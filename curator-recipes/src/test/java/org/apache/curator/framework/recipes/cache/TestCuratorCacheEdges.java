@@ -22,6 +22,7 @@ package org.apache.curator.framework.recipes.cache;
 import static org.apache.curator.framework.recipes.cache.CuratorCache.Options.DO_NOT_CLEAR_ON_CLOSE;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.curator.framework.CuratorFramework;
@@ -34,7 +35,14 @@ import org.apache.curator.test.compatibility.CuratorTestBase;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Tag(CuratorTestBase.zk36Group)
 public class TestCuratorCacheEdges extends CuratorTestBase
@@ -105,6 +113,176 @@ public class TestCuratorCacheEdges extends CuratorTestBase
         }
     }
 
+    @Test
+    public void testIncrementalRebuild() throws Exception
+    {
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().forPath("/root");
+            for ( int i = 0; i < 10; ++i )
+            {
+                client.create().forPath("/root/" + i, "first".getBytes());
+                client.create().forPath("/root/" + i + "/child", "first".getBytes());
+            }
+
+            List<String> puts = new CopyOnWriteArrayList<>();
+            CuratorCacheStorage storage = recordingStorage(puts);
+
+            try (CuratorCache cache = CuratorCache.builder(client, "/root").withStorage(storage).withOptions(DO_NOT_CLEAR_ON_CLOSE).build())
+            {
+                CountDownLatch latch = new CountDownLatch(1);
+                cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(latch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(latch));
+            }
+            assertEquals(puts.size(), 21);
+
+            // simulate nodes changing during a partition
+            client.setData().forPath("/root/3", "second".getBytes());
+            client.create().forPath("/root/5/new", "second".getBytes());
+            client.delete().forPath("/root/7/child");
+
+            puts.clear();
+            try (CuratorCache cache = CuratorCache.builder(client, "/root").withStorage(storage).withOptions(DO_NOT_CLEAR_ON_CLOSE).withRebuildJitterMs(100).withRebuildRateLimit(1000).build())
+            {
+                CountDownLatch latch = new CountDownLatch(1);
+                cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(latch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(latch));
+            }
+
+            // only the changed and the new node are re-read
+            assertEquals(puts.size(), 2);
+            assertEquals(storage.size(), 21);
+            assertArrayEquals(storage.get("/root/3").map(ChildData::getData).orElse(null), "second".getBytes());
+            assertArrayEquals(storage.get("/root/5/new").map(ChildData::getData).orElse(null), "second".getBytes());
+            assertFalse(storage.get("/root/7/child").isPresent());
+        }
+    }
+
+    @Test
+    public void testIncrementalRebuildAfterConnectionLoss() throws Exception
+    {
+        try (TestingCluster cluster = new TestingCluster(3))
+        {
+            cluster.start();
+            InstanceSpec connectionInstance = cluster.getInstances().iterator().next();
+            String otherServers = cluster.getInstances().stream()
+                .filter(instance -> !instance.equals(connectionInstance))
+                .map(InstanceSpec::getConnectString)
+                .collect(Collectors.joining(","));
+
+            // the cache's client can only connect to one server so that it stays disconnected while that server is down
+            try (CuratorFramework client = CuratorFrameworkFactory.newClient(connectionInstance.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+                 CuratorFramework otherClient = CuratorFrameworkFactory.newClient(otherServers, timing.session(), timing.connection(), new RetryOneTime(1)))
+            {
+                client.start();
+                otherClient.start();
+                client.create().forPath("/root");
+                for ( int i = 0; i < 10; ++i )
+                {
+                    client.create().forPath("/root/" + i, "first".getBytes());
+                    client.create().forPath("/root/" + i + "/child", "first".getBytes());
+                }
+
+                List<String> puts = new CopyOnWriteArrayList<>();
+                try (CuratorCache cache = CuratorCache.builder(client, "/root").withStorage(recordingStorage(puts)).build())
+                {
+                    CountDownLatch initializedLatch = new CountDownLatch(1);
+                    cache.listenable().addListener(CuratorCacheListener.builder().forInitialized(initializedLatch::countDown).build());
+                    cache.start();
+                    assertTrue(timing.awaitLatch(initializedLatch));
+                    assertEquals(puts.size(), 21);
+
+                    CountDownLatch lostLatch = new CountDownLatch(1);
+                    CountDownLatch reconnectedLatch = new CountDownLatch(1);
+                    client.getConnectionStateListenable().addListener((__, newState) -> {
+                        if ( newState == ConnectionState.SUSPENDED )
+                        {
+                            lostLatch.countDown();
+                        }
+                        else if ( newState == ConnectionState.RECONNECTED )
+                        {
+                            reconnectedLatch.countDown();
+                        }
+                    });
+                    CountDownLatch changesLatch = new CountDownLatch(3);
+                    cache.listenable().addListener(CuratorCacheListener.builder()
+                        .forChanges((oldNode, node) -> changesLatch.countDown())
+                        .forCreates(node -> changesLatch.countDown())
+                        .forDeletes(node -> changesLatch.countDown())
+                        .build());
+
+                    cluster.killServer(connectionInstance);
+                    assertTrue(timing.awaitLatch(lostLatch));
+
+                    // change nodes while the cache's client is disconnected
+                    otherClient.setData().forPath("/root/3", "second".getBytes());
+                    otherClient.create().forPath("/root/5/new", "second".getBytes());
+                    otherClient.delete().forPath("/root/7/child");
+                    puts.clear();
+
+                    // the session survives - the cache reconciles its cached stats instead of reloading
+                    cluster.restartServer(connectionInstance);
+                    assertTrue(timing.awaitLatch(reconnectedLatch));
+                    assertTrue(timing.awaitLatch(changesLatch));
+                    timing.sleepABit();
+
+                    // only the changed and the new node are re-read
+                    assertEquals(new HashSet<>(puts), new HashSet<>(Arrays.asList("/root/3", "/root/5/new")));
+                    assertEquals(cache.size(), 21);
+                    assertArrayEquals(cache.get("/root/3").map(ChildData::getData).orElse(null), "second".getBytes());
+                    assertFalse(cache.get("/root/7/child").isPresent());
+                }
+            }
+        }
+    }
+
+    private static CuratorCacheStorage recordingStorage(List<String> puts)
+    {
+        CuratorCacheStorage standard = CuratorCacheStorage.standard();
+        return new CuratorCacheStorage()
+        {
+            @Override
+            public Optional<ChildData> put(ChildData data)
+            {
+                puts.add(data.getPath());
+                return standard.put(data);
+            }
+
+            @Override
+            public Optional<ChildData> remove(String path)
+            {
+                return standard.remove(path);
+            }
+
+            @Override
+            public void clear()
+            {
+                standard.clear();
+            }
+
+            @Override
+            public Optional<ChildData> get(String path)
+            {
+                return standard.get(path);
+            }
+
+            @Override
+            public int size()
+            {
+                return standard.size();
+            }
+
+            @Override
+            public Stream<ChildData> stream()
+            {
+                return standard.stream();
+            }
+        };
+    }
+
     @Test
     public void testServerLoss() throws Exception   // mostly copied from TestPathChildrenCacheInCluster
     {
@@ -29,6 +29,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
+import org.apache.curator.drivers.AdvancedTracerDriver;
+import org.apache.curator.drivers.EventTrace;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.UnhandledErrorListener;
@@ -47,6 +50,7 @@ import org.apache.zookeeper.KeeperException;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -466,6 +470,109 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testBuildInitialCacheManyChildren() throws Exception
+    {
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            for ( int i = 0; i < 250; ++i )
+            {
+                client.create().forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+
+            final List<String> dataReads = new CopyOnWriteArrayList<>();
+            client.getZookeeperClient().setTracerDriver(new AdvancedTracerDriver()
+            {
+                @Override
+                public void addTrace(OperationTrace trace)
+                {
+                    if ( trace.getName().equals("GetDataBuilderImpl-Background") && trace.getPath().startsWith("/test/") )
+                    {
+                        dataReads.add(trace.getPath());
+                    }
+                }
+
+                @Override
+                public void addEvent(EventTrace trace)
+                {
+                }
+            });
+
+            final CountDownLatch addedLatch = new CountDownLatch(1);
+            cache = new PathChildrenCache(client, "/test", true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( (event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED) && event.getData().getPath().equals("/test/new") )
+                            {
+                                addedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+            // the initial cache is complete once start() returns
+            assertEquals(cache.getCurrentData().size(), 250);
+            for ( int i = 0; i < 250; ++i )
+            {
+                assertArrayEquals(cache.getCurrentData("/test/" + i).getData(), Integer.toString(i).getBytes());
+            }
+
+            // the pipelined rebuild reads each child once and the refresh that follows it reads each child again to set the data watchers
+            awaitReads(dataReads, 500, timing);
+            dataReads.clear();
+
+            client.create().forPath("/test/new", "new".getBytes());
+            assertTrue(timing.awaitLatch(addedLatch));
+            timing.sleepABit();
+            assertEquals(dataReads, Collections.singletonList("/test/new"));  // only the new node was read
+            assertEquals(cache.getCurrentData().size(), 251);
+            dataReads.clear();
+
+            // the children are unchanged - the listing is not reconciled
+            long unchangedCount = cache.debugUnchangedChildrenCount.get();
+            cache.refresh(PathChildrenCache.RefreshMode.STANDARD);
+            timing.sleepABit();
+            assertEquals(cache.debugUnchangedChildrenCount.get(), unchangedCount + 1);
+            assertTrue(dataReads.isEmpty());
+
+            // a child that isn't cached is read even though the children are unchanged - but only once
+            // when more refreshes arrive while the read is outstanding
+            cache.remove("/test/7");
+            cache.refresh(PathChildrenCache.RefreshMode.STANDARD);
+            cache.refresh(PathChildrenCache.RefreshMode.STANDARD);
+            awaitReads(dataReads, 1, timing);
+            timing.sleepABit();
+            assertEquals(dataReads, Collections.singletonList("/test/7"));
+            assertNotNull(cache.getCurrentData("/test/7"));
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(cache);
+            TestCleanState.closeAndTestClean(client);
+        }
+    }
+
+    private static void awaitReads(List<String> reads, int qty, Timing timing) throws InterruptedException
+    {
+        long endMs = System.currentTimeMillis() + timing.forWaiting().milliseconds();
+        while ( reads.size() < qty )
+        {
+            assertTrue(System.currentTimeMillis() < endMs, "Timed out waiting for reads: " + reads.size());
+            Thread.sleep(10);
+        }
+    }
+
     @Test
     public void testEnsurePath() throws Exception
     {
@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestPersistentHashMap
+{
+    @Test
+    public void testCollidingKeys()
+    {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        PersistentHashMap<String> map = PersistentHashMap.<String>empty().plus("Aa", "1").plus("BB", "2");
+        assertEquals(map.size(), 2);
+        assertEquals(map.get("Aa"), "1");
+        assertEquals(map.get("BB"), "2");
+        assertNull(map.get("AaAa"));
+
+        PersistentHashMap<String> replaced = map.plus("BB", "3");
+        assertEquals(replaced.size(), 2);
+        assertEquals(replaced.get("BB"), "3");
+        assertSame(replaced.plus("BB", "3"), replaced);
+
+        PersistentHashMap<String> removed = replaced.minus("Aa");
+        assertEquals(removed.size(), 1);
+        assertNull(removed.get("Aa"));
+        assertEquals(removed.get("BB"), "3");
+        assertSame(removed.minus("Aa"), removed);
+        assertTrue(removed.minus("BB").isEmpty());
+    }
+
+    @Test
+    public void testCollisionNodeSplitAndMerge()
+    {
+        // keys that share the low bits of the colliding keys' hash but not the whole hash
+        List<String> colliding = Lists.newArrayList("AaAa", "AaBB", "BBAa", "BBBB");
+        List<String> neighbors = keysSharingLowBits(spread("AaAa"), 10, 4);
+
+        // a neighbor added to a collision node splits it over several levels of the trie
+        List<String> keys = Lists.newArrayList(colliding);
+        keys.addAll(neighbors);
+        assertAddThenRemove(keys);
+
+        // leaves are merged over several levels of the trie before the collision node is created below them
+        keys = Lists.newArrayList(neighbors);
+        keys.addAll(colliding);
+        assertAddThenRemove(keys);
+    }
+
+    @Test
+    public void testRandomOperations()
+    {
+        Random random = new Random(0x5eed);
+        List<String> keys = Lists.newArrayList();
+        for ( int i = 0; i < 200; ++i )
+        {
+            keys.add("key-" + i);
+        }
+        keys.addAll(collidingKeys(5));  // 32 keys with the same hash
+
+        Map<String, String> oracle = new HashMap<>();
+        PersistentHashMap<String> map = PersistentHashMap.empty();
+        List<PersistentHashMap<String>> versions = Lists.newArrayList();
+        List<Map<String, String>> oracleVersions = Lists.newArrayList();
+        for ( int i = 0; i < 5000; ++i )
+        {
+            String key = keys.get(random.nextInt(keys.size()));
+            if ( random.nextInt(3) == 0 )
+            {
+                PersistentHashMap<String> newMap = map.minus(key);
+                if ( oracle.remove(key) == null )
+                {
+                    assertSame(newMap, map);
+                }
+                map = newMap;
+            }
+            else
+            {
+                String value = Integer.toString(random.nextInt(10));
+                map = map.plus(key, value);
+                oracle.put(key, value);
+            }
+            assertEquals(map.size(), oracle.size());
+            assertEquals(map.get(key), oracle.get(key));
+
+            if ( (i % 100) == 0 )
+            {
+                assertContents(map, oracle);
+                versions.add(map);
+                oracleVersions.add(new HashMap<>(oracle));
+            }
+        }
+
+        // older versions are unchanged by later modifications
+        for ( int i = 0; i < versions.size(); ++i )
+        {
+            assertContents(versions.get(i), oracleVersions.get(i));
+        }
+    }
+
+    private static void assertAddThenRemove(List<String> keys)
+    {
+        Map<String, String> oracle = new HashMap<>();
+        PersistentHashMap<String> map = PersistentHashMap.empty();
+        for ( String key : keys )
+        {
+            map = map.plus(key, key);
+            oracle.put(key, key);
+            assertContents(map, oracle);
+        }
+
+        // removing collapses collision nodes and single leaf branches back up the trie
+        for ( String key : keys )
+        {
+            PersistentHashMap<String> previous = map;
+            map = map.minus(key);
+            oracle.remove(key);
+            assertContents(map, oracle);
+            assertEquals(previous.get(key), key);
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    private static void assertContents(PersistentHashMap<String> map, Map<String, String> expected)
+    {
+        assertEquals(map.size(), expected.size());
+        for ( Map.Entry<String, String> entry : expected.entrySet() )
+        {
+            assertEquals(map.get(entry.getKey()), entry.getValue());
+        }
+
+        Map<String, String> iterated = new HashMap<>();
+        for ( Map.Entry<String, String> entry : map )
+        {
+            assertNull(iterated.put(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(iterated, expected);
+    }
+
+    /**
+     * @return 2^n different keys that all have the same hash code
+     */
+    private static List<String> collidingKeys(int n)
+    {
+        List<String> keys = Lists.newArrayList("");
+        for ( int i = 0; i < n; ++i )
+        {
+            List<String> next = Lists.newArrayList();
+            for ( String key : keys )
+            {
+                next.add(key + "Aa");
+                next.add(key + "BB");
+            }
+            keys = next;
+        }
+        return keys;
+    }
+
+    private static List<String> keysSharingLowBits(int hash, int bits, int qty)
+    {
+        int mask = (1 << bits) - 1;
+        List<String> keys = Lists.newArrayList();
+        for ( int i = 0; keys.size() < qty; ++i )
+        {
+            String key = "neighbor-" + i;
+            if ( ((spread(key) & mask) == (hash & mask)) && (spread(key) != hash) )
+            {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // must match PersistentHashMap's hash spreading
+    private static int spread(String key)
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
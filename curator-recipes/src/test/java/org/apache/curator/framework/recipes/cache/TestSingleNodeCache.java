@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Semaphore;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestSingleNodeCache extends CuratorTestBase
+{
+    @Test
+    public void testBasics() throws Exception
+    {
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/node", "one".getBytes());
+
+            try (SingleNodeCache cache = new SingleNodeCache(client, "/test/node"))
+            {
+                Semaphore semaphore = new Semaphore(0);
+                cache.getListenable().addListener(semaphore::release);
+                cache.start(true);
+                assertArrayEquals(cache.getCurrentData().getData(), "one".getBytes());
+                assertEquals(cache.getDataReadCount(), 1);
+
+                // the node hasn't changed since the initial build so setting the watch doesn't read it again
+                timing.sleepABit();
+                assertEquals(cache.getDataReadCount(), 1);
+
+                client.setData().forPath("/test/node", "two".getBytes());
+                assertTrue(timing.acquireSemaphore(semaphore));
+                assertArrayEquals(cache.getCurrentData().getData(), "two".getBytes());
+                assertEquals(cache.getDataReadCount(), 2);
+
+                // deletes are applied without reading
+                client.delete().forPath("/test/node");
+                assertTrue(timing.acquireSemaphore(semaphore));
+                assertNull(cache.getCurrentData());
+                assertEquals(cache.getDataReadCount(), 2);
+
+                client.create().forPath("/test/node", "three".getBytes());
+                assertTrue(timing.acquireSemaphore(semaphore));
+                assertArrayEquals(cache.getCurrentData().getData(), "three".getBytes());
+                assertEquals(cache.getDataReadCount(), 3);
+            }
+        }
+    }
+
+    @Test
+    public void testStartWithoutBuild() throws Exception
+    {
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/node", "one".getBytes());
+
+            try (SingleNodeCache cache = new SingleNodeCache(client, "/test/node"))
+            {
+                Semaphore semaphore = new Semaphore(0);
+                cache.getListenable().addListener(semaphore::release);
+                cache.start();
+
+                // the initial read happens once the watch is set
+                assertTrue(timing.acquireSemaphore(semaphore));
+                assertArrayEquals(cache.getCurrentData().getData(), "one".getBytes());
+                assertEquals(cache.getDataReadCount(), 1);
+            }
+        }
+    }
+}
@@ -19,12 +19,16 @@
 
 package org.apache.curator.framework.recipes.cache;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.UnhandledErrorListener;
 import org.apache.curator.framework.recipes.cache.TreeCacheEvent.Type;
@@ -34,7 +38,9 @@ import org.apache.zookeeper.CreateMode;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Tag(CuratorTestBase.zk35TestCompatibilityGroup)
@@ -104,6 +110,123 @@ public class TestTreeCache extends BaseTestTreeCache
         assertNull(cache.getCurrentChildren("/test/non_exist"));
     }
 
+    @Test
+    public void testMaxOutstandingReads() throws Exception
+    {
+        client.create().forPath("/test");
+        client.create().forPath("/test/1", "one".getBytes());
+        client.create().forPath("/test/2", "two".getBytes());
+        client.create().forPath("/test/3", "three".getBytes());
+        client.create().forPath("/test/2/sub", "two-sub".getBytes());
+
+        cache = buildWithListeners(TreeCache.newBuilder(client, "/test").setMaxOutstandingReads(1));
+        cache.start();
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test");
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/1", "one".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/2", "two".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/3", "three".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/2/sub", "two-sub".getBytes());
+        assertEvent(TreeCacheEvent.Type.INITIALIZED);
+        assertNoMoreEvents();
+
+        assertEquals(cache.getPendingReadCount(), 0);
+        assertEquals(cache.getCompletedReadCount(), 10);   // data and children for each of the 5 nodes
+        assertEquals(cache.size(), 5);
+    }
+
+    @Test
+    public void testPersistentSnapshots() throws Exception
+    {
+        client.create().forPath("/test");
+        client.create().forPath("/test/1", "one".getBytes());
+        client.create().forPath("/test/2", "two".getBytes());
+        client.create().forPath("/test/2/sub", "two-sub".getBytes());
+
+        cache = buildWithListeners(TreeCache.newBuilder(client, "/test").setPersistentSnapshots(true));
+        cache.start();
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test");
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/1", "one".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/2", "two".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/2/sub", "two-sub".getBytes());
+        assertEvent(TreeCacheEvent.Type.INITIALIZED);
+
+        TreeCacheSnapshot snapshot = cache.snapshot();
+        assertSame(snapshot, cache.snapshot());
+        assertEquals(snapshot.size(), 4);
+
+        client.setData().forPath("/test/1", "changed".getBytes());
+        assertEvent(TreeCacheEvent.Type.NODE_UPDATED, "/test/1", "changed".getBytes());
+        client.delete().forPath("/test/2/sub");
+        assertEvent(TreeCacheEvent.Type.NODE_REMOVED, "/test/2/sub", "two-sub".getBytes());
+        assertNoMoreEvents();
+
+        // the old snapshot is unchanged
+        assertEquals(snapshot.size(), 4);
+        assertArrayEquals(snapshot.getCurrentData("/test/1").getData(), "one".getBytes());
+        assertEquals(snapshot.getCurrentChildren("/test/2").keySet(), ImmutableSet.of("sub"));
+        assertEquals(ImmutableSet.copyOf(Iterators.transform(snapshot.iterator(), ChildData::getPath)), ImmutableSet.of("/test", "/test/1", "/test/2", "/test/2/sub"));
+
+        // the cache reads the latest snapshot
+        assertEquals(cache.size(), 3);
+        assertArrayEquals(cache.getCurrentData("/test/1").getData(), "changed".getBytes());
+        assertEquals(cache.getCurrentChildren("/test/2").size(), 0);
+        assertNull(cache.getCurrentData("/test/2/sub"));
+        assertEquals(cache.getCurrentChildren("/test").keySet(), ImmutableSet.of("1", "2"));
+    }
+
+    @Test
+    public void testEventCoalescing() throws Exception
+    {
+        client.create().forPath("/test");
+        client.create().forPath("/test/pre", "pre".getBytes());
+
+        cache = buildWithListeners(TreeCache.newBuilder(client, "/test").setEventCoalescingWindow(3, TimeUnit.SECONDS));
+        cache.start();
+
+        // pending node events are published before INITIALIZED - without waiting for the window
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test");
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/pre", "pre".getBytes());
+        assertEvent(TreeCacheEvent.Type.INITIALIZED);
+
+        // add followed by update is a single add with the latest data
+        client.create().forPath("/test/one", "a".getBytes());
+        awaitCurrentData("/test/one", "a".getBytes());
+        client.setData().forPath("/test/one", "b".getBytes());
+        awaitCurrentData("/test/one", "b".getBytes());
+
+        // add followed by remove is suppressed
+        client.create().forPath("/test/two", "two".getBytes());
+        awaitCurrentData("/test/two", "two".getBytes());
+        client.delete().forPath("/test/two");
+        awaitCurrentData("/test/two", null);
+
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/one", "b".getBytes());
+        assertNoMoreEvents();
+
+        // pending node events are published before connection events
+        client.create().forPath("/test/three", "three".getBytes());
+        awaitCurrentData("/test/three", "three".getBytes());
+        server.restart();
+        assertEvent(TreeCacheEvent.Type.NODE_ADDED, "/test/three", "three".getBytes());
+        assertEvent(TreeCacheEvent.Type.CONNECTION_SUSPENDED);
+        assertEvent(TreeCacheEvent.Type.CONNECTION_RECONNECTED);
+        assertNoMoreEvents();
+    }
+
+    private void awaitCurrentData(String path, byte[] data) throws InterruptedException
+    {
+        for ( int i = 0; i < 100; ++i )
+        {
+            ChildData childData = cache.getCurrentData(path);
+            if ( (data == null) ? (childData == null) : ((childData != null) && Arrays.equals(childData.getData(), data)) )
+            {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Cache did not update: " + path);
+    }
+
     @Test
     public void testCreateParents() throws Exception
     {
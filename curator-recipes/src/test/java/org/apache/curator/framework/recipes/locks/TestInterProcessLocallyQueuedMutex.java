@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.locks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.imps.TestCleanState;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestInterProcessLocallyQueuedMutex extends TestInterProcessMutexBase
+{
+    private static final String LOCK_PATH = LOCK_BASE_PATH + "/our-lock";
+
+    @Override
+    protected InterProcessLock makeLock(CuratorFramework client)
+    {
+        return new InterProcessLocallyQueuedMutex(client, LOCK_PATH);
+    }
+
+    @Test
+    public void testOneNodePerProcess() throws Exception
+    {
+        final int threadQty = 5;
+        final Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        ExecutorService executorService = Executors.newFixedThreadPool(threadQty);
+        try
+        {
+            client.start();
+            final InterProcessLocallyQueuedMutex lock = new InterProcessLocallyQueuedMutex(client, LOCK_PATH);
+
+            lock.acquire();
+            final CountDownLatch doneLatch = new CountDownLatch(threadQty);
+            final AtomicInteger maxParticipants = new AtomicInteger();
+            for ( int i = 0; i < threadQty; ++i )
+            {
+                executorService.submit(() -> {
+                    lock.acquire();
+                    try
+                    {
+                        maxParticipants.accumulateAndGet(lock.getParticipantNodes().size(), Math::max);
+                    }
+                    finally
+                    {
+                        lock.release();
+                        doneLatch.countDown();
+                    }
+                    return null;
+                });
+            }
+
+            // the other threads queue locally instead of creating lock nodes
+            timing.sleepABit();
+            assertEquals(lock.getParticipantNodes().size(), 1);
+            lock.release();
+
+            assertTrue(timing.awaitLatch(doneLatch));
+            assertEquals(maxParticipants.get(), 1);
+            assertFalse(lock.isAcquiredInThisProcess());
+        }
+        finally
+        {
+            executorService.shutdownNow();
+            TestCleanState.closeAndTestClean(client);
+        }
+    }
+}
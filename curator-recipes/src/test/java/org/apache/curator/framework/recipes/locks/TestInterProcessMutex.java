@@ -20,6 +20,7 @@
 package org.apache.curator.framework.recipes.locks;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -30,12 +31,14 @@ import org.apache.curator.framework.imps.TestCleanState;
 import org.apache.curator.framework.schema.Schema;
 import org.apache.curator.framework.schema.SchemaSet;
 import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.Timing;
 import org.apache.curator.utils.CloseableUtils;
 import org.apache.zookeeper.CreateMode;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collection;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -188,4 +191,77 @@ public class TestInterProcessMutex extends TestInterProcessMutexBase
             TestCleanState.closeAndTestClean(client);
         }
     }
+
+    @Test
+    public void testAcquireAsync() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            InterProcessMutex lock = new InterProcessMutex(client, LOCK_PATH);
+            Object owner1 = new Object();
+            Object owner2 = new Object();
+
+            assertTrue(lock.acquireAsync(owner1, timing.milliseconds(), TimeUnit.MILLISECONDS).toCompletableFuture().get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertTrue(lock.isOwnedBy(owner1));
+            assertFalse(lock.isOwnedByCurrentThread());
+
+            // re-entrant per owner - from any thread
+            CompletableFuture<Boolean> reentered = CompletableFuture.supplyAsync(() -> lock.acquireAsync(owner1, 0, TimeUnit.MILLISECONDS)).thenCompose(stage -> stage);
+            assertTrue(reentered.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertEquals(lock.getParticipantNodes().size(), 1);
+
+            assertFalse(lock.acquireAsync(owner2, 100, TimeUnit.MILLISECONDS).toCompletableFuture().get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+
+            CompletableFuture<Boolean> waiting = lock.acquireAsync(owner2, -1, null).toCompletableFuture();
+            lock.release(owner1);
+            timing.sleepABit();
+            assertFalse(waiting.isDone());
+
+            lock.release(owner1);
+            assertTrue(waiting.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertTrue(lock.isOwnedBy(owner2));
+            assertFalse(lock.isOwnedBy(owner1));
+            lock.release(owner2);
+            assertFalse(lock.isAcquiredInThisProcess());
+        }
+        finally
+        {
+            TestCleanState.closeAndTestClean(client);
+        }
+    }
+
+    @Test
+    public void testAcquireAsyncCompletesOnClose() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        CuratorFramework waitingClient = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            waitingClient.start();
+            InterProcessMutex lock = new InterProcessMutex(client, LOCK_PATH);
+            lock.acquire();
+
+            InterProcessMutex waitingLock = new InterProcessMutex(waitingClient, LOCK_PATH);
+            CompletableFuture<Boolean> waiting = waitingLock.acquireAsync(new Object(), -1, null).toCompletableFuture();
+            timing.sleepABit();
+            assertFalse(waiting.isDone());
+
+            // waiting forever has no timeout - closing the client must complete the attempt
+            waitingClient.close();
+            assertFalse(waiting.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertFalse(waitingLock.isAcquiredInThisProcess());
+
+            lock.release();
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(waitingClient);
+            TestCleanState.closeAndTestClean(client);
+        }
+    }
 }
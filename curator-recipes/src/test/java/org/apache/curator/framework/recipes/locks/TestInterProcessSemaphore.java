@@ -667,6 +667,42 @@ public class TestInterProcessSemaphore extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testAcquireBatch() throws Exception
+    {
+        final int LEASES = 10;
+
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            InterProcessSemaphoreV2 semaphore = new InterProcessSemaphoreV2(client, "/test", LEASES);
+            semaphore.setNodeData("foo".getBytes());
+
+            Collection<Lease> leases = semaphore.acquireBatch(4);
+            assertEquals(leases.size(), 4);
+            assertEquals(semaphore.getParticipantNodes().size(), 4);
+            assertEquals(new String(leases.iterator().next().getData()), "foo");
+
+            // all or nothing
+            assertNull(semaphore.acquireBatch(7, 100, TimeUnit.MILLISECONDS));
+            assertEquals(semaphore.getParticipantNodes().size(), 4);
+
+            Collection<Lease> moreLeases = semaphore.acquireBatch(6, timing.milliseconds(), TimeUnit.MILLISECONDS);
+            assertNotNull(moreLeases);
+            assertEquals(semaphore.getParticipantNodes().size(), LEASES);
+
+            semaphore.returnAll(leases);
+            semaphore.returnAll(moreLeases);
+            assertEquals(semaphore.getParticipantNodes().size(), 0);
+        }
+        finally
+        {
+            TestCleanState.closeAndTestClean(client);
+        }
+    }
+
     @Test
     public void testNoOrphanedNodes() throws Exception
     {
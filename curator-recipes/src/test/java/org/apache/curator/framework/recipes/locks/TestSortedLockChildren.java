@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.locks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+public class TestSortedLockChildren
+{
+    private static final String LOCK_NAME = "lock-";
+    private static final LockInternalsSorter sorter = new StandardLockInternalsDriver();
+
+    @Test
+    public void testSortAndIndexOf()
+    {
+        List<String> children = Lists.newArrayList();
+        for ( int i = 0; i < 1000; ++i )
+        {
+            children.add("_c_" + UUID.randomUUID() + "-" + LOCK_NAME + String.format("%010d", i * 2));
+        }
+        List<String> expected = Lists.newArrayList(children);
+        Collections.shuffle(children, new Random(1));
+
+        List<String> sorted = SortedLockChildren.sort(LOCK_NAME, sorter, children);
+        assertTrue(sorted instanceof SortedLockChildren);
+        assertEquals(sorted, expected);
+        for ( int i = 0; i < expected.size(); ++i )
+        {
+            assertEquals(sorted.indexOf(expected.get(i)), i);
+        }
+        assertEquals(sorted.indexOf(LOCK_NAME + String.format("%010d", 1)), -1);
+        assertEquals(sorted.indexOf("_c_foo-" + LOCK_NAME + String.format("%010d", 2)), -1);
+    }
+
+    @Test
+    public void testNonNumericFallback()
+    {
+        List<String> children = Lists.newArrayList(LOCK_NAME + "0000000002", "foo", LOCK_NAME + "0000000001");
+        List<String> sorted = SortedLockChildren.sort(LOCK_NAME, sorter, children);
+        assertFalse(sorted instanceof SortedLockChildren);
+        assertEquals(sorted, Lists.newArrayList(LOCK_NAME + "0000000001", LOCK_NAME + "0000000002", "foo"));
+        assertEquals(sorted.indexOf("foo"), 2);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class TestDistributedBucketedPriorityQueue extends BaseClassForTests
+{
+    @Test
+    public void     testHigherBandsFirst() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            DistributedBucketedPriorityQueue<Integer>   producer = QueueBuilder.builder(client, null, new IntSerializer(), "/test").buildBucketedPriorityQueue(3);
+            try
+            {
+                producer.start();
+                for ( int i = 0; i < 5; ++i )
+                {
+                    producer.put(i, 2);
+                }
+                for ( int i = 100; i < 103; ++i )
+                {
+                    producer.put(i, 0);
+                }
+                assertTrue(producer.flushPuts(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+            }
+            finally
+            {
+                CloseableUtils.closeQuietly(producer);
+            }
+            assertEquals(client.getChildren().forPath("/test/band-2").size(), 5);
+            assertEquals(client.getChildren().forPath("/test/band-0").size(), 3);
+
+            BlockingQueueConsumer<Integer>              consumer = new BlockingQueueConsumer<Integer>(Mockito.mock(ConnectionStateListener.class));
+            DistributedBucketedPriorityQueue<Integer>   queue = QueueBuilder.builder(client, consumer, new IntSerializer(), "/test").lockPath("/locks").buildBucketedPriorityQueue(3);
+            try
+            {
+                queue.start();
+
+                Set<Integer>    highBand = Sets.newHashSet();
+                for ( int i = 0; i < 3; ++i )
+                {
+                    highBand.add(consumer.take(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+                }
+                assertEquals(highBand, Sets.newHashSet(100, 101, 102));
+
+                for ( int i = 0; i < 5; ++i )
+                {
+                    assertEquals(consumer.take(timing.forWaiting().seconds(), TimeUnit.SECONDS), Integer.valueOf(i));    // FIFO within a band
+                }
+
+                assertThrows(IllegalArgumentException.class, () -> queue.put(1, 3));
+            }
+            finally
+            {
+                CloseableUtils.closeQuietly(queue);
+            }
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    private static class IntSerializer implements QueueSerializer<Integer>
+    {
+        @Override
+        public byte[] serialize(Integer item)
+        {
+            return Integer.toString(item).getBytes();
+        }
+
+        @Override
+        public Integer deserialize(byte[] bytes)
+        {
+            return Integer.parseInt(new String(bytes));
+        }
+    }
+}
@@ -205,6 +205,47 @@ public class TestDistributedDelayQueue extends BaseClassForTests
     }
     
 
+    @Test
+    public void testTimeBuckets() throws Exception
+    {
+        Timing                          timing = new Timing();
+        DistributedDelayQueue<Long>     putQueue = null;
+        DistributedDelayQueue<Long>     getQueue = null;
+        CuratorFramework                client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            putQueue = QueueBuilder.builder(client, null, new LongSerializer(), "/test").putInBackground(false).buildDelayQueue(1, TimeUnit.MINUTES);
+            putQueue.start();
+
+            long    now = System.currentTimeMillis();
+            putQueue.put(1L, now + TimeUnit.HOURS.toMillis(1)); // never comes out
+            putQueue.put(2L, now - 1);
+            putQueue.put(3L, now + timing.milliseconds());
+
+            List<String>    buckets = client.getChildren().forPath("/test");
+            assertTrue(buckets.size() >= 2);
+            for ( String bucket : buckets )
+            {
+                assertTrue(bucket.startsWith(TimeBucketedChildrenCache.BUCKET_NAME));
+            }
+
+            BlockingQueueConsumer<Long> consumer = new BlockingQueueConsumer<Long>(Mockito.mock(ConnectionStateListener.class));
+            getQueue = QueueBuilder.builder(client, consumer, new LongSerializer(), "/test").buildDelayQueue(1, TimeUnit.MINUTES);
+            getQueue.start();
+
+            assertEquals(consumer.take(timing.forWaiting().seconds(), TimeUnit.SECONDS), Long.valueOf(2));
+            assertEquals(consumer.take(timing.forWaiting().seconds(), TimeUnit.SECONDS), Long.valueOf(3));
+            assertNull(consumer.take(1, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(putQueue);
+            CloseableUtils.closeQuietly(getQueue);
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
     private static class LongSerializer implements QueueSerializer<Long>
     {
         @Override
@@ -332,6 +332,90 @@ public class TestDistributedQueue extends BaseClassForTests
         }
     }
 
+    @Test
+    public void     testBatchConsumer() throws Exception
+    {
+        final int                 itemQty = 250;
+        final int                 maxBatchSize = 50;
+
+        Timing                    timing = new Timing();
+
+        CuratorFramework          client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            DistributedQueue<TestQueueItem> producerQueue = QueueBuilder.builder(client, null, serializer, QUEUE_PATH).buildQueue();
+            try
+            {
+                producerQueue.start();
+                for ( int i = 0; i < itemQty; ++i )
+                {
+                    producerQueue.put(new TestQueueItem(Integer.toString(i)));
+                }
+                producerQueue.flushPuts(timing.multiple(2).seconds(), TimeUnit.SECONDS);
+            }
+            finally
+            {
+                producerQueue.close();
+            }
+
+            final Set<String>           consumedMessages = Sets.newConcurrentHashSet();
+            final AtomicInteger         duplicateQty = new AtomicInteger();
+            final AtomicInteger         largestBatch = new AtomicInteger();
+            final CountDownLatch        latch = new CountDownLatch(itemQty);
+            QueueBatchConsumer<TestQueueItem> consumer = new QueueBatchConsumer<TestQueueItem>()
+            {
+                @Override
+                public void consumeMessages(List<TestQueueItem> messages)
+                {
+                    largestBatch.accumulateAndGet(messages.size(), Math::max);
+                    for ( TestQueueItem message : messages )
+                    {
+                        if ( !consumedMessages.add(message.str) )
+                        {
+                            duplicateQty.incrementAndGet();
+                        }
+                        latch.countDown();
+                    }
+                }
+
+                @Override
+                public int getMaxBatchSize()
+                {
+                    return maxBatchSize;
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState)
+                {
+                }
+            };
+
+            DistributedQueue<TestQueueItem> queue = QueueBuilder.builder(client, consumer, serializer, QUEUE_PATH).lockPath("/a/locks").buildQueue();
+            try
+            {
+                queue.start();
+                assertTrue(timing.awaitLatch(latch));
+                assertEquals(consumedMessages.size(), itemQty);
+                assertEquals(duplicateQty.get(), 0);
+                assertTrue(largestBatch.get() > 1);
+                assertTrue(largestBatch.get() <= maxBatchSize);
+
+                timing.sleepABit();
+                assertEquals(client.getChildren().forPath(QUEUE_PATH).size(), 0);
+                assertEquals(client.getChildren().forPath("/a/locks").size(), 0);
+            }
+            finally
+            {
+                queue.close();
+            }
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
     @Test
     public void     testNoDuplicateProcessing() throws Exception
     {
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.curator.framework.recipes.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestItemSerializer
+{
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        List<String> items = Lists.newArrayList("one", "", "three");
+        byte[] bytes = ItemSerializer.serialize(multiItem(items), new StringSerializer(), true);
+        assertEquals(bytes.length, 8 + (3 * 4) + 3 + 5);
+
+        assertEquals(drain(ItemSerializer.deserialize(bytes, new StringSerializer())), items);
+    }
+
+    @Test
+    public void testLegacyFormatByDefault() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x00010001);
+        for ( String item : Arrays.asList("x", "", "yy") )
+        {
+            out.writeByte(0x01);
+            out.writeInt(item.length());
+            out.write(item.getBytes());
+        }
+        out.writeByte(0x02);
+        out.close();
+
+        byte[] serialized = ItemSerializer.serialize(multiItem(Arrays.asList("x", "", "yy")), new StringSerializer());
+        assertArrayEquals(serialized, bytes.toByteArray());
+        assertEquals(drain(ItemSerializer.deserialize(serialized, new StringSerializer())), Arrays.asList("x", "", "yy"));
+    }
+
+    @Test
+    public void testLazyDeserialization() throws Exception
+    {
+        final AtomicInteger deserializeCount = new AtomicInteger();
+        StringSerializer serializer = new StringSerializer()
+        {
+            @Override
+            public String deserialize(byte[] bytes)
+            {
+                deserializeCount.incrementAndGet();
+                return super.deserialize(bytes);
+            }
+        };
+
+        byte[] bytes = ItemSerializer.serialize(multiItem(Arrays.asList("a", "b")), serializer, true);
+        MultiItem<String> multiItem = ItemSerializer.deserialize(bytes, serializer);
+        assertEquals(deserializeCount.get(), 0);
+        assertEquals(multiItem.nextItem(), "a");
+        assertEquals(deserializeCount.get(), 1);
+        assertEquals(multiItem.nextItem(), "b");
+        assertNull(multiItem.nextItem());
+        assertEquals(deserializeCount.get(), 2);
+    }
+
+    @Test
+    public void testLegacyVersion() throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x00010001);
+        for ( String item : Arrays.asList("x", "yy") )
+        {
+            out.writeByte(0x01);
+            out.writeInt(item.length());
+            out.write(item.getBytes());
+        }
+        out.writeByte(0x02);
+        out.close();
+
+        assertEquals(drain(ItemSerializer.deserialize(bytes.toByteArray(), new StringSerializer())), Arrays.asList("x", "yy"));
+    }
+
+    @Test
+    public void testCorrupted() throws Exception
+    {
+        byte[] bytes = ItemSerializer.serialize(multiItem(Arrays.asList("abc", "def")), new StringSerializer(), true);
+        assertThrows(IOException.class, () -> ItemSerializer.deserialize(Arrays.copyOf(bytes, bytes.length - 1), new StringSerializer()));
+        assertThrows(IOException.class, () -> ItemSerializer.deserialize(Arrays.copyOf(bytes, bytes.length + 1), new StringSerializer()));
+        assertThrows(IOException.class, () -> ItemSerializer.deserialize(new byte[]{0, 1}, new StringSerializer()));
+    }
+
+    private static MultiItem<String> multiItem(List<String> items)
+    {
+        final Iterator<String> iterator = items.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static List<String> drain(MultiItem<String> multiItem) throws Exception
+    {
+        List<String> items = Lists.newArrayList();
+        for ( String item = multiItem.nextItem(); item != null; item = multiItem.nextItem() )
+        {
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static class StringSerializer implements QueueSerializer<String>
+    {
+        @Override
+        public byte[] serialize(String item)
+        {
+            return item.getBytes();
+        }
+
+        @Override
+        public String deserialize(byte[] bytes)
+        {
+            return new String(bytes);
+        }
+    }
+}
@@ -18,8 +18,11 @@
  */
 package org.apache.curator.x.async.api;
 
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -34,4 +37,26 @@ public interface AsyncExistsBuilder extends AsyncPathable<AsyncStage<Stat>>
      * @return this
      */
     AsyncPathable<AsyncStage<Stat>> withOptions(Set<ExistsOption> options);
+
+    /**
+     * Check the existence of each of the given paths. Requests are pipelined to ZooKeeper with at most
+     * {@link org.apache.curator.framework.api.BulkPathable#DEFAULT_MAX_IN_FLIGHT} outstanding at any one time.
+     * The stage completes once every path has been checked. A path that doesn't exist is reported with
+     * a <code>NONODE</code> result and does not affect the other paths. Watchers do not apply to bulk checks.
+     *
+     * @param paths paths to check
+     * @return AsyncStage with a map of path to its result, in the iteration order of <code>paths</code>
+     * @since 5.2.0
+     */
+    AsyncStage<Map<String, BulkResult<Stat>>> forPaths(Collection<String> paths);
+
+    /**
+     * Same as {@link #forPaths(java.util.Collection)} but with the given maximum number of outstanding requests
+     *
+     * @param paths paths to check
+     * @param maxInFlight maximum number of outstanding requests
+     * @return AsyncStage with a map of path to its result, in the iteration order of <code>paths</code>
+     * @since 5.2.0
+     */
+    AsyncStage<Map<String, BulkResult<Stat>>> forPaths(Collection<String> paths, int maxInFlight);
 }
@@ -18,8 +18,11 @@
  */
 package org.apache.curator.x.async.api;
 
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Builder to get ZNode data
@@ -50,4 +53,27 @@ public interface AsyncGetDataBuilder extends AsyncPathable<AsyncStage<byte[]>>
      * @return this
      */
     AsyncPathable<AsyncStage<byte[]>> decompressedStoringStatIn(Stat stat);
+
+    /**
+     * Read the data of each of the given paths. Requests are pipelined to ZooKeeper with at most
+     * {@link org.apache.curator.framework.api.BulkPathable#DEFAULT_MAX_IN_FLIGHT} outstanding at any one time.
+     * The stage completes once every path has been read. A failure for a given path is reported
+     * in that path's result and does not affect the other paths. Watchers and
+     * {@link #storingStatIn(org.apache.zookeeper.data.Stat)} do not apply to bulk reads.
+     *
+     * @param paths paths to read
+     * @return AsyncStage with a map of path to its result, in the iteration order of <code>paths</code>
+     * @since 5.2.0
+     */
+    AsyncStage<Map<String, BulkResult<byte[]>>> forPaths(Collection<String> paths);
+
+    /**
+     * Same as {@link #forPaths(java.util.Collection)} but with the given maximum number of outstanding requests
+     *
+     * @param paths paths to read
+     * @param maxInFlight maximum number of outstanding requests
+     * @return AsyncStage with a map of path to its result, in the iteration order of <code>paths</code>
+     * @since 5.2.0
+     */
+    AsyncStage<Map<String, BulkResult<byte[]>>> forPaths(Collection<String> paths, int maxInFlight);
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.curator.x.async.details;
 
+import org.apache.curator.framework.api.BulkPathable;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.imps.CuratorFrameworkImpl;
 import org.apache.curator.framework.imps.ExistsBuilderImpl;
 import org.apache.curator.x.async.AsyncStage;
@@ -26,7 +28,9 @@ import org.apache.curator.x.async.api.AsyncExistsBuilder;
 import org.apache.curator.x.async.api.AsyncPathable;
 import org.apache.curator.x.async.api.ExistsOption;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -66,4 +70,33 @@ class AsyncExistsBuilderImpl implements AsyncExistsBuilder
         );
         return safeCall(common.internalCallback, () -> builder.forPath(path));
     }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<Stat>>> forPaths(Collection<String> paths)
+    {
+        return forPaths(paths, BulkPathable.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<Stat>>> forPaths(Collection<String> paths, int maxInFlight)
+    {
+        InternalCallback<Map<String, BulkResult<Stat>>> stage = new InternalCallback<>(null, null, null);
+        ExistsBuilderImpl builder = new ExistsBuilderImpl(client,
+            null,
+            null,
+            options.contains(ExistsOption.createParentsIfNeeded),
+            options.contains(ExistsOption.createParentsAsContainers)
+        );
+        safeCall(stage, () -> builder.forPathsAsync(paths, maxInFlight).whenComplete((results, e) -> {
+            if ( e != null )
+            {
+                stage.completeExceptionally(e);
+            }
+            else
+            {
+                stage.complete(results);
+            }
+        }));
+        return stage;
+    }
 }
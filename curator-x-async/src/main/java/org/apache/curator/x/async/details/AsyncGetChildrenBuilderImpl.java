@@ -18,6 +18,8 @@
  */
 package org.apache.curator.x.async.details;
 
+import org.apache.curator.framework.api.BulkPathable;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.imps.CuratorFrameworkImpl;
 import org.apache.curator.framework.imps.GetChildrenBuilderImpl;
 import org.apache.curator.x.async.AsyncStage;
@@ -25,7 +27,9 @@ import org.apache.curator.x.async.WatchMode;
 import org.apache.curator.x.async.api.AsyncGetChildrenBuilder;
 import org.apache.curator.x.async.api.AsyncPathable;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.curator.x.async.details.BackgroundProcs.childrenProc;
 import static org.apache.curator.x.async.details.BackgroundProcs.safeCall;
@@ -58,4 +62,28 @@ class AsyncGetChildrenBuilderImpl implements AsyncGetChildrenBuilder
         this.stat = stat;
         return this;
     }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<List<String>>>> forPaths(Collection<String> paths)
+    {
+        return forPaths(paths, BulkPathable.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<List<String>>>> forPaths(Collection<String> paths, int maxInFlight)
+    {
+        InternalCallback<Map<String, BulkResult<List<String>>>> stage = new InternalCallback<>(null, null, null);
+        GetChildrenBuilderImpl builder = new GetChildrenBuilderImpl(client, null, null, null);
+        safeCall(stage, () -> builder.forPathsAsync(paths, maxInFlight).whenComplete((results, e) -> {
+            if ( e != null )
+            {
+                stage.completeExceptionally(e);
+            }
+            else
+            {
+                stage.complete(results);
+            }
+        }));
+        return stage;
+    }
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.curator.x.async.details;
 
+import org.apache.curator.framework.api.BulkPathable;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.imps.CuratorFrameworkImpl;
 import org.apache.curator.framework.imps.GetDataBuilderImpl;
 import org.apache.curator.x.async.AsyncStage;
@@ -25,6 +27,8 @@ import org.apache.curator.x.async.WatchMode;
 import org.apache.curator.x.async.api.AsyncGetDataBuilder;
 import org.apache.curator.x.async.api.AsyncPathable;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Map;
 
 import static org.apache.curator.x.async.details.BackgroundProcs.dataProc;
 import static org.apache.curator.x.async.details.BackgroundProcs.safeCall;
@@ -73,4 +77,28 @@ class AsyncGetDataBuilderImpl implements AsyncGetDataBuilder
         GetDataBuilderImpl builder = new GetDataBuilderImpl(client, stat, common.watcher, common.backgrounding, decompressed);
         return safeCall(common.internalCallback, () -> builder.forPath(path));
     }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<byte[]>>> forPaths(Collection<String> paths)
+    {
+        return forPaths(paths, BulkPathable.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public AsyncStage<Map<String, BulkResult<byte[]>>> forPaths(Collection<String> paths, int maxInFlight)
+    {
+        InternalCallback<Map<String, BulkResult<byte[]>>> stage = new InternalCallback<>(null, null, null);
+        GetDataBuilderImpl builder = new GetDataBuilderImpl(client, null, null, null, decompressed);
+        safeCall(stage, () -> builder.forPathsAsync(paths, maxInFlight).whenComplete((results, e) -> {
+            if ( e != null )
+            {
+                stage.completeExceptionally(e);
+            }
+            else
+            {
+                stage.complete(results);
+            }
+        }));
+        return stage;
+    }
 }
@@ -31,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BulkResult;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.retry.RetryOneTime;
 import org.apache.curator.utils.CloseableUtils;
@@ -42,7 +43,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
 
@@ -104,6 +107,39 @@ public class TestBasicOperations extends CompletableBaseClassForTests
         complete(setDataIfStage, (data, e) -> assertArrayEquals(data, "last".getBytes()));
     }
 
+    @Test
+    public void testBulkGetData()
+    {
+        complete(client.create().forPath("/one", "1".getBytes()));
+        complete(client.create().forPath("/two", "2".getBytes()));
+
+        AsyncStage<Map<String, BulkResult<byte[]>>> stage = client.getData().forPaths(Arrays.asList("/one", "/missing", "/two"), 2);
+        complete(stage, (results, e) -> {
+            assertNull(e);
+            assertEquals(new ArrayList<>(results.keySet()), Arrays.asList("/one", "/missing", "/two"));
+            assertArrayEquals(results.get("/one").getValue(), "1".getBytes());
+            assertArrayEquals(results.get("/two").getValue(), "2".getBytes());
+            assertEquals(results.get("/missing").getResultCode(), KeeperException.Code.NONODE.intValue());
+            assertTrue(results.get("/missing").getException() instanceof KeeperException.NoNodeException);
+        });
+    }
+
+    @Test
+    public void testBulkExists()
+    {
+        complete(client.create().forPath("/one", "1".getBytes()));
+        complete(client.create().forPath("/two", "22".getBytes()));
+
+        AsyncStage<Map<String, BulkResult<Stat>>> stage = client.checkExists().forPaths(Arrays.asList("/one", "/missing", "/two"), 2);
+        complete(stage, (results, e) -> {
+            assertNull(e);
+            assertEquals(new ArrayList<>(results.keySet()), Arrays.asList("/one", "/missing", "/two"));
+            assertEquals(results.get("/one").getValue().getDataLength(), 1);
+            assertEquals(results.get("/two").getValue().getDataLength(), 2);
+            assertEquals(results.get("/missing").getResultCode(), KeeperException.Code.NONODE.intValue());
+        });
+    }
+
     @Test
     public void testException()
     {